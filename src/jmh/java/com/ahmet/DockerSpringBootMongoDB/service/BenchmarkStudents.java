@@ -0,0 +1,71 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data and Spring Data setup shared by the benchmarks that run without MongoDB.
+ */
+final class BenchmarkStudents {
+
+    private static final String[] COURSES = {"Math", "History", "Geography", "Navigation", "Physics"};
+
+    private BenchmarkStudents() {
+    }
+
+    /**
+     * Creates a student with every field set, like one read from the database.
+     *
+     * @param i The number of the student, making its ID, name and email unique.
+     * @return The student.
+     */
+    static Student student(int i) {
+        Student student = new Student("Émile Zola " + i, "emile.zola" + i + "@example.com",
+                new Address(i + " Main St", "Anytown", 10000 + i), 18 + i % 10,
+                List.of(COURSES[i % COURSES.length], COURSES[(i + 1) % COURSES.length]),
+                i % 2 == 0, 2.0 + (i % 20) / 10.0,
+                LocalDateTime.of(2027, 6, 30, 12, 0), LocalDateTime.of(2023, 9, 1, 9, 30));
+        student.setId(new ObjectId(0x66a00000 + i, 0).toHexString());
+        student.setVersion((long) i % 5);
+        return student;
+    }
+
+    /**
+     * Creates students numbered from zero.
+     *
+     * @param count The number of students.
+     * @return The students.
+     */
+    static List<Student> students(int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(student(i));
+        }
+        return students;
+    }
+
+    /**
+     * Creates a converter set up like the one of the application's MongoTemplate, with the default conversions.
+     *
+     * @return The converter, with the mapping of {@link Student} already built.
+     */
+    static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.getPersistentEntity(Student.class);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,147 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares a case- and accent-insensitive name prefix search on the normalized {@code nameKey}
+ * with a case-insensitive regex on {@code name}, on a collection of {@code documents} students.
+ *
+ * Requires MongoDB at {@code -Dmongodb.uri} (default {@code mongodb://localhost:27017}). The students are
+ * seeded into the {@code school_benchmark} database once and reused by later runs; seeding 10M students
+ * takes several minutes. Before measuring, both queries are explained: the setup fails unless the
+ * {@code nameKey} search is an {@code IXSCAN} that examines no more documents than it returns,
+ * and both plans are printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NamePrefixSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Flying", "José", "Émile", "Zoë", "Ángel", "Anna", "Björn",
+            "Chloé", "Dmitri", "Eva", "François", "Greta", "Hugo", "Inès", "Jürgen", "Kai", "Léa", "Mateo"};
+    private static final String[] LAST_NAMES = {"Dutchman", "Álvarez", "Müller", "O'Brien", "Nuñez", "Smith",
+            "Øvergaard", "Dvořák", "Kowalski", "Lefèvre"};
+    private static final String PREFIX = "flying d";
+    private static final int PAGE_SIZE = 50;
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param("10000000")
+    private long documents;
+
+    private MongoClient client;
+    private MongoCollection<Document> students;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("mongodb.uri", "mongodb://localhost:27017"));
+        students = client.getDatabase("school_benchmark").getCollection("students");
+        students.createIndex(Indexes.ascending("nameKey", "_id"), new IndexOptions().name("nameKey_id"));
+        students.createIndex(Indexes.ascending("name", "_id"), new IndexOptions().name("name_id"));
+        seed();
+
+        Document normalizedPlan = explain(normalizedFilter(), "nameKey");
+        Document regexPlan = explain(regexFilter(), "name");
+        System.out.println("nameKey range: " + summary(normalizedPlan));
+        System.out.println("name regex /i: " + summary(regexPlan));
+        Document stats = normalizedPlan.get("executionStats", Document.class);
+        if (!normalizedPlan.toJson().contains("\"IXSCAN\"")
+                || stats.get("totalDocsExamined", Number.class).longValue() > stats.get("nReturned", Number.class).longValue()) {
+            throw new IllegalStateException("nameKey prefix search is not an index range scan: " + normalizedPlan.toJson());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public List<Document> normalizedKeyRange() {
+        return students.find(normalizedFilter()).sort(Sorts.ascending("nameKey", "_id")).limit(PAGE_SIZE).into(new ArrayList<>());
+    }
+
+    @Benchmark
+    public List<Document> caseInsensitiveRegex() {
+        return students.find(regexFilter()).sort(Sorts.ascending("name", "_id")).limit(PAGE_SIZE).into(new ArrayList<>());
+    }
+
+    private static Bson normalizedFilter() {
+        String key = Student.nameKey(PREFIX);
+        return Filters.and(Filters.gte("nameKey", key), Filters.lt("nameKey", StudentQueries.prefixUpperBound(key)));
+    }
+
+    private static Bson regexFilter() {
+        return Filters.regex("name", Pattern.compile("^" + Pattern.quote(PREFIX), Pattern.CASE_INSENSITIVE));
+    }
+
+    /**
+     * Inserts students until the collection holds {@code documents} of them.
+     * Names combine accented first and last names with a number, and carry their normalized key like the application stores it.
+     */
+    private void seed() {
+        long existing = students.estimatedDocumentCount();
+        Random random = new Random(42);
+        List<Document> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = existing; i < documents; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + i;
+            batch.add(new Document("name", name)
+                    .append("nameKey", Student.nameKey(name))
+                    .append("email", "student" + i + "@example.com")
+                    .append("age", 18 + random.nextInt(10)));
+            if (batch.size() == SEED_BATCH_SIZE) {
+                students.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            students.insertMany(batch);
+        }
+    }
+
+    private Document explain(Bson filter, String sortField) {
+        return students.find(filter).sort(Sorts.ascending(sortField, "_id"))
+                .limit(PAGE_SIZE).explain(ExplainVerbosity.EXECUTION_STATS);
+    }
+
+    private static String summary(Document explain) {
+        Document stats = explain.get("executionStats", Document.class);
+        String plan = explain.toJson().contains("\"COLLSCAN\"") ? "COLLSCAN" : "IXSCAN";
+        return String.format("%s, %d keys and %d documents examined for %d returned in %d ms", plan,
+                stats.get("totalKeysExamined", Number.class).longValue(),
+                stats.get("totalDocsExamined", Number.class).longValue(),
+                stats.get("nReturned", Number.class).longValue(),
+                stats.get("executionTimeMillis", Number.class).longValue());
+    }
+}
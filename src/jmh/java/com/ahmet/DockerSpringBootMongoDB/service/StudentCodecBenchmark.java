@@ -0,0 +1,129 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.AddressCodec;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentCodec;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link StudentCodec} with the path MongoTemplate takes, where the driver decodes a {@link Document}
+ * that {@link MappingMongoConverter} then maps to a student, and the reverse for writes. The page benchmarks
+ * decode the {@code students.page.max-size} documents a large {@code findAll} or age range query returns.
+ * Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentCodecBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final StudentCodec studentCodec = new StudentCodec(new AddressCodec());
+    private MappingMongoConverter converter;
+    private Student student;
+    private byte[] bson;
+    private List<byte[]> page;
+
+    @Setup
+    public void setUp() {
+        converter = BenchmarkStudents.converter();
+        student = BenchmarkStudents.student(1);
+        bson = encodeWithConverter();
+        page = new ArrayList<>(PAGE_SIZE);
+        for (Student each : BenchmarkStudents.students(PAGE_SIZE)) {
+            Document document = new Document();
+            converter.write(each, document);
+            page.add(encode(document));
+        }
+    }
+
+    @Benchmark
+    public Student decodeWithConverter() {
+        return decodeWithConverter(bson);
+    }
+
+    @Benchmark
+    public Student decodeWithCodec() {
+        return decodeWithCodec(bson);
+    }
+
+    @Benchmark
+    public byte[] encodeWithConverter() {
+        Document document = new Document();
+        converter.write(student, document);
+        return encode(document);
+    }
+
+    @Benchmark
+    public byte[] encodeWithCodec() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            studentCodec.encode(writer, student, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public List<Student> decodePageWithConverter() {
+        List<Student> students = new ArrayList<>(PAGE_SIZE);
+        for (byte[] document : page) {
+            students.add(decodeWithConverter(document));
+        }
+        return students;
+    }
+
+    @Benchmark
+    public List<Student> decodePageWithCodec() {
+        List<Student> students = new ArrayList<>(PAGE_SIZE);
+        for (byte[] document : page) {
+            students.add(decodeWithCodec(document));
+        }
+        return students;
+    }
+
+    private Student decodeWithConverter(byte[] document) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(document))) {
+            return converter.read(Student.class, documentCodec.decode(reader, DecoderContext.builder().build()));
+        }
+    }
+
+    private Student decodeWithCodec(byte[] document) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(document))) {
+            return studentCodec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    private byte[] encode(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            documentCodec.encode(writer, document, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        }
+        return buffer.toByteArray();
+    }
+}
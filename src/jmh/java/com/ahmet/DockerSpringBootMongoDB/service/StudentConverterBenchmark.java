@@ -0,0 +1,88 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion between {@link Student} and BSON that MongoTemplate and the repositories
+ * perform on every write and read: the mapping between a student and a {@link Document} by
+ * {@link MappingMongoConverter}, and the full path to and from the encoded bytes sent over the wire.
+ * Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentConverterBenchmark {
+
+    private final DocumentCodec codec = new DocumentCodec();
+    private MappingMongoConverter converter;
+    private Student student;
+    private Document document;
+    private byte[] bson;
+
+    @Setup
+    public void setUp() {
+        converter = BenchmarkStudents.converter();
+        student = BenchmarkStudents.student(1);
+        document = new Document();
+        converter.write(student, document);
+        bson = encode(document);
+    }
+
+    @Benchmark
+    public Document studentToDocument() {
+        Document sink = new Document();
+        converter.write(student, sink);
+        return sink;
+    }
+
+    @Benchmark
+    public Student documentToStudent() {
+        return converter.read(Student.class, document);
+    }
+
+    @Benchmark
+    public byte[] studentToBson() {
+        Document sink = new Document();
+        converter.write(student, sink);
+        return encode(sink);
+    }
+
+    @Benchmark
+    public Student bsonToStudent() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bson))) {
+            return converter.read(Student.class, codec.decode(reader, DecoderContext.builder().build()));
+        }
+    }
+
+    private byte[] encode(Document source) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, source, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        }
+        return buffer.toByteArray();
+    }
+}
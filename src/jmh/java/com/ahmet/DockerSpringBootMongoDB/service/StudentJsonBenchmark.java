@@ -0,0 +1,89 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.UpdateStudentResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of students as the controllers write and read them:
+ * a single student, a page of {@code students.page.default-size} students and an update response.
+ * The ObjectMapper is built like Spring Boot's, with the Java time module and ISO dates.
+ * Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentJsonBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private ObjectWriter studentWriter;
+    private ObjectWriter pageWriter;
+    private ObjectWriter responseWriter;
+    private ObjectReader studentReader;
+    private ObjectReader pageReader;
+    private Student student;
+    private List<Student> page;
+    private String studentJson;
+    private String pageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        studentWriter = objectMapper.writerFor(Student.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+        responseWriter = objectMapper.writerFor(UpdateStudentResponse.class);
+        studentReader = objectMapper.readerFor(Student.class);
+        pageReader = objectMapper.readerForListOf(Student.class);
+        student = BenchmarkStudents.student(1);
+        page = BenchmarkStudents.students(PAGE_SIZE);
+        studentJson = studentWriter.writeValueAsString(student);
+        pageJson = pageWriter.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public byte[] serializeStudent() throws JsonProcessingException {
+        return studentWriter.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public Student deserializeStudent() throws JsonProcessingException {
+        return studentReader.readValue(studentJson);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Student> deserializePage() throws JsonProcessingException {
+        return pageReader.readValue(pageJson);
+    }
+
+    @Benchmark
+    public byte[] serializeUpdateResponse() throws JsonProcessingException {
+        return responseWriter.writeValueAsBytes(
+                new UpdateStudentResponse("Student updated successfully with ID: " + student.getId(), student));
+    }
+}
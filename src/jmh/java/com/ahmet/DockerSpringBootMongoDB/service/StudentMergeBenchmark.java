@@ -0,0 +1,154 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the precompiled {@link StudentFields} table with the reflective merge and
+ * validation code it replaced in {@link StudentServiceImp}. A PATCH no longer merges in
+ * memory but turns the patch into a {@code $set} update, so that is measured against the
+ * reflective merges. Run with {@code -prof gc} to see the per-call allocation of each variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentMergeBenchmark {
+
+    private Student target;
+    private Student patch;
+    private Student complete;
+
+    @Setup
+    public void setUp() {
+        target = new Student("John Doe", "john.doe@example.com",
+                new Address("123 Main St", "Anytown", 12335), 20, List.of("Math", "Science"),
+                true, 3.5, LocalDateTime.now(), LocalDateTime.now());
+        target.setId("1");
+        patch = Student.builder()
+                .name("Jane Doe")
+                .age(21)
+                .address(Address.builder().city("Othertown").build())
+                .build();
+        complete = new Student("Jane Doe", "jane.doe@example.com",
+                new Address("1 High St", "Othertown", 54321), 21, List.of("History"),
+                false, 3.9, LocalDateTime.now(), LocalDateTime.now());
+        complete.setId("2");
+    }
+
+    @Benchmark
+    public Update setUpdateWithAccessorTable() {
+        return StudentFields.toSetUpdate(patch, true);
+    }
+
+    @Benchmark
+    public Student mergeWithReflection() {
+        reflectiveUpdateFields(target, patch);
+        return target;
+    }
+
+    @Benchmark
+    public Student mergeWithBeanWrapper() {
+        BeanUtils.copyProperties(patch, target, getNullPropertyNames(patch));
+        return target;
+    }
+
+    @Benchmark
+    public Student requireAllWithAccessorTable() {
+        StudentFields.requireAll(complete);
+        return complete;
+    }
+
+    @Benchmark
+    public Student requireAllWithReflection() {
+        reflectiveCheckForMissingFields(complete);
+        return complete;
+    }
+
+    /**
+     * Former {@code StudentServiceImp.updateFields}.
+     */
+    private static void reflectiveUpdateFields(Student existingStudent, Student newStudent) {
+        for (Field field : Student.class.getDeclaredFields()) {
+            if (!isStudentData(field)) {
+                continue;
+            }
+            field.setAccessible(true);
+            try {
+                Object newValue = field.get(newStudent);
+                if (newValue != null) {
+                    field.set(existingStudent, newValue);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Former {@code StudentServiceImp.checkForMissingFields}.
+     */
+    private static void reflectiveCheckForMissingFields(Student student) {
+        for (Field field : Student.class.getDeclaredFields()) {
+            if (!isStudentData(field)) {
+                continue;
+            }
+            field.setAccessible(true);
+            try {
+                if (field.get(student) == null) {
+                    throw new IllegalStateException(field.getName());
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Skips the constants and the version, which the former code predates, the same fields
+     * {@code StudentFields} leaves out of its table.
+     */
+    private static boolean isStudentData(Field field) {
+        return !Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(Version.class);
+    }
+
+    /**
+     * Former {@code StudentServiceImp.getNullPropertyNames}.
+     */
+    private static String[] getNullPropertyNames(Object source) {
+        BeanWrapper src = new BeanWrapperImpl(source);
+        Set<String> emptyNames = new HashSet<>();
+        for (PropertyDescriptor pd : src.getPropertyDescriptors()) {
+            if (src.getPropertyValue(pd.getName()) == null) {
+                emptyNames.add(pd.getName());
+            }
+        }
+        return emptyNames.toArray(new String[0]);
+    }
+}
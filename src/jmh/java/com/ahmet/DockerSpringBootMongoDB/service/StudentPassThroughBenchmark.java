@@ -0,0 +1,107 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.AddressCodec;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentCodec;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentJson;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways the servlet controller can answer a read of {@code students.page.default-size}
+ * students from the BSON the driver received: decoding them with {@link StudentCodec} and serializing the
+ * students with Jackson, or transcoding the raw documents straight to JSON with {@link StudentJson}.
+ * Both write the same JSON. Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentPassThroughBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private final StudentCodec studentCodec = new StudentCodec(new AddressCodec());
+    private ObjectMapper objectMapper;
+    private ObjectWriter pageWriter;
+    private List<byte[]> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+        MappingMongoConverter converter = BenchmarkStudents.converter();
+        page = new ArrayList<>(PAGE_SIZE);
+        for (Student student : BenchmarkStudents.students(PAGE_SIZE)) {
+            Document document = new Document();
+            converter.write(student, document);
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                new DocumentCodec().encode(writer, document, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+            }
+            page.add(buffer.toByteArray());
+        }
+    }
+
+    @Benchmark
+    public byte[] decodeAndSerializePage() throws IOException {
+        List<Student> students = new ArrayList<>(PAGE_SIZE);
+        for (byte[] document : page) {
+            try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(document))) {
+                students.add(studentCodec.decode(reader, DecoderContext.builder().build()));
+            }
+        }
+        return pageWriter.writeValueAsBytes(students);
+    }
+
+    @Benchmark
+    public byte[] transcodePage() throws IOException {
+        List<RawBsonDocument> documents = new ArrayList<>(PAGE_SIZE);
+        for (byte[] document : page) {
+            documents.add(new RawBsonDocument(document));
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (RawBsonDocument document : documents) {
+                StudentJson.write(document, generator);
+            }
+            generator.writeEndArray();
+        }
+        return json.toByteArray();
+    }
+}
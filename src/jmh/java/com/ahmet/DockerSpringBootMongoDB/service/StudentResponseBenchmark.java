@@ -0,0 +1,79 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the services build response DTOs from query results: a page of students with its
+ * continuation token, a page of search hits read from scored documents, and the statistics of ten groups.
+ * Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentResponseBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int GROUPS = 10;
+
+    private MappingMongoConverter converter;
+    private List<Student> students;
+    private List<Document> scoredDocuments;
+    private List<Document> groupDocuments;
+
+    @Setup
+    public void setUp() {
+        converter = BenchmarkStudents.converter();
+        students = BenchmarkStudents.students(PAGE_SIZE + 1);
+        scoredDocuments = new ArrayList<>();
+        for (Student student : students) {
+            Document document = new Document();
+            converter.write(student, document);
+            scoredDocuments.add(document.append("_score", 10.0 - student.getAge() / 10.0));
+        }
+        groupDocuments = new ArrayList<>();
+        for (int i = 0; i < GROUPS; i++) {
+            groupDocuments.add(new Document("_id", "Course " + i)
+                    .append("students", 1000 + i)
+                    .append("fullTime", 600 + i)
+                    .append("averageGpa", 3.1)
+                    .append("averageAge", 21.5));
+        }
+    }
+
+    @Benchmark
+    public StudentPage studentPage() {
+        return StudentQueries.toPage(students, PAGE_SIZE, Student::getName);
+    }
+
+    @Benchmark
+    public StudentSearchPage searchPage() {
+        return StudentQueries.toSearchPage(scoredDocuments, PAGE_SIZE, converter);
+    }
+
+    @Benchmark
+    public List<StudentGroupStats> groupStats() {
+        return groupDocuments.stream().map(StudentStatistics::toGroupStats).toList();
+    }
+}
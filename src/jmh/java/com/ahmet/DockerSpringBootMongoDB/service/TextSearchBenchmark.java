@@ -0,0 +1,109 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of the first page of a full-text search, using the same aggregation as
+ * {@code GET /students/search}, on a collection of {@code documents} students.
+ *
+ * Requires MongoDB at {@code -Dmongodb.uri} (default {@code mongodb://localhost:27017}). The students are
+ * seeded into {@code school_benchmark.students_text} once, with the same text index as the application,
+ * and reused by later runs. Queries range from a rare name to a course most students take, since the
+ * cost of a text search grows with the number of matches it has to score and sort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextSearchBenchmark {
+
+    private static final String[] NAMES = {"Flying Dutchman", "Jane Doe", "John Smith", "Émile Zola", "Anna Müller",
+            "Kai Nakamura", "Léa Martin", "Mateo García", "Chloé Dubois", "Björn Larsson"};
+    private static final String[] COURSES = {"Math", "History", "Geography", "Navigation", "Physics", "Chemistry",
+            "Biology", "Literature", "Art", "Music"};
+    private static final String[] CITIES = {"Anytown", "New York", "Bikini Bottom", "Springfield", "Zürich"};
+    private static final int PAGE_SIZE = 50;
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param("1000000")
+    private long documents;
+
+    @Param({"dutchman", "\"new york\" navigation", "math"})
+    private String query;
+
+    private MongoClient client;
+    private MongoCollection<Document> students;
+    private List<Document> pipeline;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("mongodb.uri", "mongodb://localhost:27017"));
+        students = client.getDatabase("school_benchmark").getCollection("students_text");
+        students.createIndex(Indexes.compoundIndex(Indexes.text("name"), Indexes.text("courses"), Indexes.text("address.city")),
+                new IndexOptions().name("student_text").defaultLanguage("none")
+                        .weights(new Document("name", 3).append("courses", 2).append("address.city", 1)));
+        seed();
+        pipeline = StudentQueries.textSearch(query, null, null, PAGE_SIZE).toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public List<Document> firstPage() {
+        return students.aggregate(pipeline).into(new ArrayList<>());
+    }
+
+    /**
+     * Inserts students until the collection holds {@code documents} of them.
+     * Each student gets a name, two to four courses and a city drawn from small vocabularies.
+     */
+    private void seed() {
+        long existing = students.estimatedDocumentCount();
+        Random random = new Random(42);
+        List<Document> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = existing; i < documents; i++) {
+            List<String> courses = new ArrayList<>();
+            for (int c = 2 + random.nextInt(3); c > 0; c--) {
+                courses.add(COURSES[random.nextInt(COURSES.length)]);
+            }
+            batch.add(new Document("name", NAMES[random.nextInt(NAMES.length)] + " " + i)
+                    .append("courses", courses)
+                    .append("address", new Document("city", CITIES[random.nextInt(CITIES.length)])));
+            if (batch.size() == SEED_BATCH_SIZE) {
+                students.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            students.insertMany(batch);
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.ahmet.DockerSpringBootMongoDB.loadtest;
+
+import com.ahmet.DockerSpringBootMongoDB.DockerSpringBootMongoDbApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the throughput and latency of every student endpoint under a mixed read and write workload,
+ * without a MongoDB installation.
+ *
+ * An embedded MongoDB is downloaded on first use and started, then the application is started in-process
+ * on a random port against it. Students with varied names, courses, cities, ages and GPAs are seeded through
+ * the bulk endpoint, and {@code concurrency} clients each send one request after another, picking the route
+ * at random by weight, for {@code duration} seconds after a warm-up. Created students are deleted by later
+ * requests, so the collection keeps its size. Throughput and the p50, p99 and p99.9 latencies are reported
+ * per route and checked against the latency budgets; the run exits with status 1 if a budget is exceeded
+ * or more than {@code maxErrorRate} of a route's requests fail.
+ *
+ * Options are given as {@code key=value} arguments: {@code students} (10000), {@code concurrency} (32),
+ * {@code duration} in seconds (30), {@code warmup} in seconds (10), {@code maxErrorRate} (0.001),
+ * {@code mongo} ({@code embedded}, or the URI of a MongoDB to use instead), {@code mongoVersion} of the
+ * embedded MongoDB (7.0) and {@code budgets}, a properties file replacing latency-budgets.properties.
+ *
+ * {@code GET /students/stream} is not measured, as it reads the whole collection, nor is
+ * {@code GET /students/changes}, which needs a replica set and holds the connection open.
+ */
+public final class EndpointLoadTest {
+
+    private static final String[] FIRST_NAMES = {"Ada", "Alan", "Amélie", "Björn", "Chloé", "Dmitri", "Émile",
+            "Fatima", "Grace", "Hiro", "Ingrid", "José", "Kwame", "Léa", "Mei", "Nikola", "Olga", "Priya",
+            "Rosalind", "Søren", "Tariq", "Ursula", "Yusuf", "Zoë"};
+    private static final String[] LAST_NAMES = {"Andersen", "Babbage", "Curie", "Dubois", "Eriksson", "Fernández",
+            "García", "Hopper", "Ivanova", "Johnson", "Kowalski", "Lovelace", "Müller", "Nakamura", "Okafor",
+            "Petrov", "Rossi", "Schmidt", "Tanaka", "Turing", "Van Dijk", "Weber", "Yilmaz", "Zhang"};
+    private static final String[] COURSES = {"Math", "History", "Geography", "Navigation", "Physics", "Chemistry",
+            "Biology", "Literature", "Philosophy", "Economics", "Computer Science", "Art", "Music", "Astronomy"};
+    private static final String[] CITIES = {"London", "Paris", "Berlin", "Madrid", "Rome", "Amsterdam", "Vienna",
+            "Stockholm", "Warsaw", "Lisbon", "Istanbul", "New York", "Tokyo", "Lagos", "Mumbai", "São Paulo"};
+    private static final String[] STREETS = {"Main St", "High Street", "Station Road", "Church Lane", "Park Avenue",
+            "Mill Road", "Market Square", "Elm Street"};
+    private static final String[] SEARCH_QUERIES = {"navigation", "physics london", "\"new york\"", "math -history",
+            "lovelace", "müller berlin", "astronomy tokyo"};
+    private static final Pattern CREATED_ID = Pattern.compile("ID: ([0-9a-f]{24})");
+    private static final int SEED_CHUNK_SIZE = 1000;
+    private static final int ID_PAGE_SIZE = 500;
+    private static final int BULK_INSERT_SIZE = 20;
+    private static final String DEFAULT_BUDGETS = "latency-budgets.properties";
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String namePrefix;
+    private final List<String> ids = new ArrayList<>();
+    private final Queue<String> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Route> routes = new ArrayList<>();
+    private Route save;
+    private int totalWeight;
+
+    private EndpointLoadTest(HttpClient client, String baseUrl, String namePrefix) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.namePrefix = namePrefix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ThreadingLoadTest.parseOptions(args);
+        int students = Integer.parseInt(options.getOrDefault("students", "10000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("maxErrorRate", "0.001"));
+        String mongo = options.getOrDefault("mongo", "embedded");
+        Map<String, Duration> budgets = loadBudgets(options.get("budgets"));
+
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        boolean passed;
+        try {
+            String uri = mongo;
+            if ("embedded".equals(mongo)) {
+                mongod = Mongod.instance().start(mongoVersion(options.getOrDefault("mongoVersion", "7.0")));
+                ServerAddress address = mongod.current().getServerAddress();
+                uri = "mongodb://" + address.getHost() + ":" + address.getPort();
+            }
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DockerSpringBootMongoDbApplication.class)
+                    .properties("server.port=0", "spring.data.mongodb.uri=" + uri)
+                    .run()) {
+                String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/students";
+                EndpointLoadTest loadTest = new EndpointLoadTest(HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build(), baseUrl, "lt" + UUID.randomUUID().toString().substring(0, 8));
+                try {
+                    loadTest.seed(students);
+                    loadTest.defineRoutes();
+                    loadTest.measure(clients, concurrency, durationSeconds, warmupSeconds);
+                } finally {
+                    loadTest.send(HttpRequest.newBuilder(URI.create(baseUrl + "?namePrefix=" + loadTest.namePrefix)).DELETE().build());
+                }
+                passed = loadTest.report(durationSeconds, budgets, maxErrorRate);
+            }
+        } finally {
+            clients.shutdownNow();
+            if (mongod != null) {
+                mongod.close();
+            }
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Resolves a MongoDB version such as {@code 7.0} to the matching embedded distribution.
+     */
+    private static Version.Main mongoVersion(String version) {
+        return Version.Main.valueOf("V" + version.replace('.', '_'));
+    }
+
+    /**
+     * Reads the latency budgets, from the given file or from latency-budgets.properties on the classpath.
+     */
+    private static Map<String, Duration> loadBudgets(String file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = file != null
+                ? Files.newInputStream(Path.of(file))
+                : EndpointLoadTest.class.getClassLoader().getResourceAsStream(DEFAULT_BUDGETS)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULT_BUDGETS + " is not on the classpath");
+            }
+            properties.load(in);
+        }
+        Map<String, Duration> budgets = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            budgets.put(key, DurationStyle.detectAndParse(properties.getProperty(key).trim()));
+        }
+        return budgets;
+    }
+
+    /**
+     * Inserts students through the bulk endpoint in chunks and collects their ids.
+     */
+    private void seed(int count) throws IOException, InterruptedException {
+        for (int from = 0; from < count; from += SEED_CHUNK_SIZE) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(count, from + SEED_CHUNK_SIZE); i++) {
+                body.append(studentJson(i, true)).append('\n');
+            }
+            int status = send(HttpRequest.newBuilder(URI.create(baseUrl + "/bulk"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build());
+            if (status != 200) {
+                throw new IllegalStateException("Seeding failed with status " + status);
+            }
+        }
+        String pageToken = null;
+        do {
+            String uri = baseUrl + "?name=" + namePrefix + "&fields=name&limit=" + ID_PAGE_SIZE
+                    + (pageToken == null ? "" : "&pageToken=" + encode(pageToken));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                for (JsonNode student : objectMapper.readTree(response.body())) {
+                    ids.add(student.get("id").asText());
+                }
+            }
+            pageToken = response.headers().firstValue("X-Next-Page-Token").orElse(null);
+        } while (pageToken != null);
+        if (ids.size() < count) {
+            throw new IllegalStateException("Seeded " + ids.size() + " of " + count + " students");
+        }
+    }
+
+    /**
+     * Declares the measured routes, named after the controller methods, with their weights in the mix.
+     * Roughly two thirds of the requests are reads.
+     */
+    private void defineRoutes() {
+        route("findById", "GET /students/{id}", 30, random -> get("/" + seededId(random)));
+        route("findAll", "GET /students/all?limit=50", 5, random -> get("/all?limit=50"));
+        route("getStudentStartWith", "GET /students?name=", 6, random ->
+                get("?limit=50&name=" + encode(namePrefix + " " + pick(random, FIRST_NAMES).substring(0, 2))));
+        route("getStudentStartWithIgnoreCase", "GET /students?name=&ignoreCase=true", 3, random ->
+                get("?limit=50&ignoreCase=true&name=" + encode((namePrefix + " " + pick(random, FIRST_NAMES)).toLowerCase(Locale.ROOT))));
+        route("getByPersonAge", "GET /students/age", 5, random -> {
+            int minAge = 18 + random.nextInt(10);
+            return get("/age?limit=50&minAge=" + minAge + "&maxAge=" + (minAge + 2));
+        });
+        route("search", "GET /students/search", 4, random -> get("/search?limit=20&q=" + encode(pick(random, SEARCH_QUERIES))));
+        route("statsByCourse", "GET /students/stats/courses", 1, random -> get("/stats/courses"));
+        route("statsByCity", "GET /students/stats/cities", 1, random -> get("/stats/cities"));
+        route("statsByFullTime", "GET /students/stats/full-time", 1, random -> get("/stats/full-time"));
+        route("ageHistogram", "GET /students/stats/ages", 1, random -> get("/stats/ages"));
+        route("gpaHistogram", "GET /students/stats/gpa", 1, random -> get("/stats/gpa"));
+        route("getCourseEnrollments", "GET /students/stats/enrollments", 3, random -> get("/stats/enrollments"));
+        save = route("save", "POST /students", 8, random -> json("", "POST", studentJson(sequence.incrementAndGet(), false)),
+                response -> {
+                    Matcher matcher = CREATED_ID.matcher(response.body());
+                    if (matcher.find()) {
+                        created.add(matcher.group(1));
+                    }
+                });
+        route("bulkInsert", "POST /students/bulk", 1, random -> {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < BULK_INSERT_SIZE; i++) {
+                body.append(studentJson(sequence.incrementAndGet(), false)).append('\n');
+            }
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/bulk"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+        });
+        route("updateStudent", "PUT /students/{id}", 5, random -> json("/" + seededId(random), "PUT", String.format(Locale.ROOT,
+                "{\"age\":%d,\"courses\":%s,\"address\":%s,\"fullTime\":%b,\"gpa\":%.2f}",
+                18 + random.nextInt(10), coursesJson(random.nextInt()), addressJson(random.nextInt(100000)),
+                random.nextBoolean(), 2.0 + random.nextInt(21) / 10.0)));
+        route("partiallyUpdateStudent", "PATCH /students/{id}", 12, random -> json("/" + seededId(random), "PATCH",
+                random.nextBoolean()
+                        ? String.format(Locale.ROOT, "{\"gpa\":%.2f}", 2.0 + random.nextInt(21) / 10.0)
+                        : "{\"age\":" + (18 + random.nextInt(10)) + "}"));
+        route("deleteById", "DELETE /students/{id}", 5, random -> {
+            String id = created.poll();
+            return id == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE().build();
+        });
+        route("deleteMany", "DELETE /students?ids=", 2, random -> {
+            String first = created.poll();
+            String second = created.poll();
+            if (first == null) {
+                return null;
+            }
+            return HttpRequest.newBuilder(URI.create(baseUrl + "?ids=" + first + (second == null ? "" : "," + second))).DELETE().build();
+        });
+    }
+
+    private Route route(String name, String endpoint, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+        return route(name, endpoint, weight, request, response -> {
+        });
+    }
+
+    private Route route(String name, String endpoint, int weight, Function<ThreadLocalRandom, HttpRequest> request,
+                        Consumer<HttpResponse<String>> onSuccess) {
+        Route route = new Route(name, endpoint, weight, request, onSuccess);
+        routes.add(route);
+        totalWeight += weight;
+        return route;
+    }
+
+    /**
+     * Runs the weighted workload and records the latency of the requests started after the warm-up.
+     * A delete with no created student left to delete is replaced by a create.
+     */
+    private void measure(ExecutorService clients, int concurrency, int durationSeconds, int warmupSeconds)
+            throws InterruptedException {
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    Route route = pickRoute(random);
+                    HttpRequest request = route.request.apply(random);
+                    if (request == null) {
+                        route = save;
+                        request = save.request.apply(random);
+                    }
+                    long start = System.nanoTime();
+                    boolean failed;
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        failed = response.statusCode() >= 400;
+                        if (!failed) {
+                            route.onSuccess.accept(response);
+                        }
+                    } catch (IOException e) {
+                        failed = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (start >= measureFrom) {
+                        route.record(System.nanoTime() - start, failed);
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Prints throughput and latency per route and checks them against the budgets.
+     *
+     * @return true if every route stayed within its budgets and error rate.
+     */
+    private boolean report(int durationSeconds, Map<String, Duration> budgets, double maxErrorRate) {
+        List<String> violations = new ArrayList<>();
+        Histogram total = new Histogram(TimeUnit.MINUTES.toNanos(1), 3);
+        long totalErrors = 0;
+        System.out.println(String.format("%-30s %-36s %9s %9s %9s %9s %7s",
+                "route", "endpoint", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors"));
+        for (Route route : routes) {
+            Histogram latencies = route.latencies;
+            total.add(latencies);
+            totalErrors += route.errors.get();
+            System.out.println(String.format(Locale.ROOT, "%-30s %-36s %9.1f %9.2f %9.2f %9.2f %7d",
+                    route.name, route.endpoint, latencies.getTotalCount() / (double) durationSeconds,
+                    latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(99) / 1e6,
+                    latencies.getValueAtPercentile(99.9) / 1e6, route.errors.get()));
+            if (latencies.getTotalCount() == 0) {
+                continue;
+            }
+            for (String percentile : List.of("p50", "p99", "p999")) {
+                Duration budget = budgets.getOrDefault(route.name + "." + percentile, budgets.get("default." + percentile));
+                double value = latencies.getValueAtPercentile(percentile.equals("p999") ? 99.9 : Double.parseDouble(percentile.substring(1)));
+                if (budget != null && value > budget.toNanos()) {
+                    violations.add(String.format(Locale.ROOT, "%s %s is %.2f ms, over its budget of %d ms",
+                            route.name, percentile, value / 1e6, budget.toMillis()));
+                }
+            }
+            double errorRate = route.errors.get() / (double) latencies.getTotalCount();
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format(Locale.ROOT, "%s failed %.2f%% of its requests", route.name, errorRate * 100));
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%-30s %-36s %9.1f %9.2f %9.2f %9.2f %7d",
+                "total", "", total.getTotalCount() / (double) durationSeconds,
+                total.getValueAtPercentile(50) / 1e6, total.getValueAtPercentile(99) / 1e6,
+                total.getValueAtPercentile(99.9) / 1e6, totalErrors));
+        if (violations.isEmpty()) {
+            System.out.println("All routes within their latency budgets");
+            return true;
+        }
+        violations.forEach(violation -> System.out.println("BUDGET EXCEEDED: " + violation));
+        return false;
+    }
+
+    private Route pickRoute(ThreadLocalRandom random) {
+        int remaining = random.nextInt(totalWeight);
+        for (Route route : routes) {
+            remaining -= route.weight;
+            if (remaining < 0) {
+                return route;
+            }
+        }
+        throw new IllegalStateException("No route for weight " + remaining);
+    }
+
+    /**
+     * Creates the JSON of a student. Seeded students are named after the prefix of this run, so they can be
+     * found and deleted; created students additionally carry a marker in their name and email, so they never
+     * collide with seeded ones.
+     */
+    private String studentJson(long i, boolean seeded) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String first = FIRST_NAMES[(int) (i % FIRST_NAMES.length)];
+        String last = LAST_NAMES[(int) (i / FIRST_NAMES.length % LAST_NAMES.length)];
+        String tag = seeded ? String.valueOf(i) : "n" + i;
+        return String.format(Locale.ROOT,
+                "{\"name\":\"%s %s %s %s\",\"email\":\"%s.%s@example.com\",\"age\":%d,\"courses\":%s,\"address\":%s,"
+                        + "\"fullTime\":%b,\"gpa\":%.2f,\"graduationDate\":\"%d-06-30T12:00:00\",\"registerDate\":\"%d-09-01T09:00:00\"}",
+                namePrefix, first, last, tag, namePrefix, tag, 18 + random.nextInt(10), coursesJson(i), addressJson(i),
+                random.nextInt(4) > 0, 2.0 + random.nextInt(21) / 10.0, 2027 + random.nextInt(4), 2020 + random.nextInt(5));
+    }
+
+    private static String coursesJson(long seed) {
+        int count = 1 + (int) Math.floorMod(seed, 4);
+        StringBuilder courses = new StringBuilder("[");
+        for (int c = 0; c < count; c++) {
+            courses.append(c == 0 ? "" : ",").append('"').append(COURSES[(int) Math.floorMod(seed * 7 + c * 3, COURSES.length)]).append('"');
+        }
+        return courses.append(']').toString();
+    }
+
+    private static String addressJson(long seed) {
+        return String.format(Locale.ROOT, "{\"street\":\"%d %s\",\"city\":\"%s\",\"postcode\":%d}",
+                1 + Math.floorMod(seed, 200), STREETS[(int) Math.floorMod(seed, STREETS.length)],
+                CITIES[(int) Math.floorMod(seed / 3, CITIES.length)], 10000 + Math.floorMod(seed, 90000));
+    }
+
+    private String seededId(ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String pick(ThreadLocalRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A measured route: how to build its next request, and its latencies and errors.
+     */
+    private static final class Route {
+
+        private final String name;
+        private final String endpoint;
+        private final int weight;
+        private final Function<ThreadLocalRandom, HttpRequest> request;
+        private final Consumer<HttpResponse<String>> onSuccess;
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        private final AtomicLong errors = new AtomicLong();
+
+        private Route(String name, String endpoint, int weight, Function<ThreadLocalRandom, HttpRequest> request,
+                      Consumer<HttpResponse<String>> onSuccess) {
+            this.name = name;
+            this.endpoint = endpoint;
+            this.weight = weight;
+            this.request = request;
+            this.onSuccess = onSuccess;
+        }
+
+        private void record(long nanos, boolean failed) {
+            latencies.recordValue(Math.min(nanos, latencies.getHighestTrackableValue()));
+            if (failed) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.ahmet.DockerSpringBootMongoDB.loadtest;
+
+import com.ahmet.DockerSpringBootMongoDB.DockerSpringBootMongoDbApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares request handling on platform threads with virtual threads under the same load.
+ *
+ * For each mode, the application is started in-process on a random port with
+ * {@code spring.threads.virtual.enabled} set accordingly and the student cache disabled, so every
+ * request makes a blocking driver call. A set of students is seeded through the bulk endpoint,
+ * then {@code concurrency} clients issue a mix of {@code GET /students/{id}} and paged
+ * {@code GET /students/all} requests for {@code duration} seconds after a warm-up. The seeded
+ * students are deleted afterwards. Requires MongoDB as configured in application.properties.
+ *
+ * Options are given as {@code key=value} arguments: {@code concurrency} (1000), {@code duration}
+ * in seconds (30), {@code warmup} in seconds (10), {@code students} (1000) and {@code modes}
+ * ({@code platform,virtual}). The virtual mode is skipped on Java versions before 21.
+ */
+public final class ThreadingLoadTest {
+
+    private static final double READ_BY_ID_RATIO = 0.8;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ThreadingLoadTest(HttpClient client) {
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int students = Integer.parseInt(options.getOrDefault("students", "1000"));
+        String[] modes = options.getOrDefault("modes", "platform,virtual").split(",");
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        ThreadingLoadTest loadTest = new ThreadingLoadTest(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build());
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %10s %10s %10s %10s %8s", "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors"));
+        try {
+            for (String mode : modes) {
+                boolean virtual = "virtual".equals(mode.trim());
+                if (virtual && Runtime.version().feature() < 21) {
+                    report.add(String.format("%-10s skipped, requires Java 21 (running on %s)", mode, Runtime.version()));
+                    continue;
+                }
+                report.add(loadTest.run(mode.trim(), virtual, clients, concurrency, durationSeconds, warmupSeconds, students));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        report.forEach(System.out::println);
+    }
+
+    /**
+     * Starts the application in one threading mode, seeds students, measures and cleans up.
+     *
+     * @return The report line for the mode.
+     */
+    private String run(String mode, boolean virtual, ExecutorService clients, int concurrency,
+                       int durationSeconds, int warmupSeconds, int students) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DockerSpringBootMongoDbApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "students.cache.enabled=false")
+                .run()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/students";
+            String namePrefix = "loadtest-" + UUID.randomUUID() + "-";
+            List<String> ids = seed(baseUrl, namePrefix, students);
+            try {
+                return String.format("%-10s %s", mode, measure(baseUrl, ids, clients, concurrency, durationSeconds, warmupSeconds));
+            } finally {
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "?namePrefix=" + namePrefix)).DELETE().build());
+            }
+        }
+    }
+
+    /**
+     * Inserts students through the bulk endpoint and returns their ids.
+     */
+    private List<String> seed(String baseUrl, String namePrefix, int count) throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append(String.format("{\"name\":\"%s%d\",\"email\":\"%s%d@example.com\",\"age\":%d,"
+                            + "\"courses\":[\"Math\",\"History\"],\"address\":{\"street\":\"%d Main St\",\"city\":\"Anytown\",\"postcode\":%d},"
+                            + "\"fullTime\":true,\"gpa\":3.1}\n",
+                    namePrefix, i, namePrefix, i, 18 + i % 10, i, 10000 + i));
+        }
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build());
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "?name=" + namePrefix + "&fields=name")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<String> ids = new ArrayList<>();
+        for (JsonNode student : objectMapper.readTree(response.body())) {
+            ids.add(student.get("id").asText());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No students were seeded");
+        }
+        return ids;
+    }
+
+    /**
+     * Runs the mixed read workload and summarizes the latency recorded after the warm-up.
+     */
+    private String measure(String baseUrl, List<String> ids, ExecutorService clients, int concurrency,
+                           int durationSeconds, int warmupSeconds) throws InterruptedException {
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong errors = new AtomicLong();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    URI uri = random.nextDouble() < READ_BY_ID_RATIO
+                            ? URI.create(baseUrl + "/" + ids.get(random.nextInt(ids.size())))
+                            : URI.create(baseUrl + "/all?limit=50");
+                    long start = System.nanoTime();
+                    boolean failed;
+                    try {
+                        failed = send(HttpRequest.newBuilder(uri).GET().build()) >= 400;
+                    } catch (IOException e) {
+                        failed = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (start >= measureFrom) {
+                        latencies.recordValue(Math.min(System.nanoTime() - start, latencies.getHighestTrackableValue()));
+                        if (failed) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return String.format("%10.0f %10.2f %10.2f %10.2f %8d",
+                latencies.getTotalCount() / (double) durationSeconds,
+                latencies.getValueAtPercentile(50) / 1e6,
+                latencies.getValueAtPercentile(99) / 1e6,
+                latencies.getValueAtPercentile(99.9) / 1e6,
+                errors.get());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Parses {@code key=value} arguments.
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 import java.time.LocalDateTime;
@@ -35,11 +36,13 @@ public class DockerSpringBootMongoDbApplication {
     /**
      * CommandLineRunner bean to perform actions on application startup.
      * This method checks for existing data in the database and initializes it if not present.
+     * It runs before the course statistics are rebuilt, so the initial student is counted.
      *
      * @param repository The StudentRepository for database operations.
      * @return A CommandLineRunner bean that checks and initializes data.
      */
     @Bean
+    @Order(0)
     CommandLineRunner commandLineRunner(StudentRepository repository) {
         return args -> {
             System.out.println("Checking if data already exists...");
@@ -1,5 +1,6 @@
 package com.ahmet.DockerSpringBootMongoDB.collection;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,8 +10,9 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Address {
     private String street;
     private String city;
-    private int postcode;
+    private Integer postcode;
 }
@@ -0,0 +1,71 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Encodes and decodes the {@link Address} embedded in a student, field by field.
+ * The layout matches what MappingMongoConverter writes for an address: null fields are omitted
+ * and no type hint is stored. Used by {@link StudentCodec}.
+ */
+public class AddressCodec implements Codec<Address> {
+
+    static final String STREET = "street";
+    static final String CITY = "city";
+    static final String POSTCODE = "postcode";
+
+    /**
+     * Writes an address as an embedded document.
+     *
+     * @param writer         The writer, positioned at the address value.
+     * @param address        The address to write.
+     * @param encoderContext The encoder context.
+     */
+    @Override
+    public void encode(BsonWriter writer, Address address, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        StudentCodec.writeString(writer, STREET, address.getStreet());
+        StudentCodec.writeString(writer, CITY, address.getCity());
+        if (address.getPostcode() != null) {
+            writer.writeInt32(POSTCODE, address.getPostcode());
+        }
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Reads an address from an embedded document. Unknown fields are skipped.
+     *
+     * @param reader         The reader, positioned at the address value.
+     * @param decoderContext The decoder context.
+     * @return The address.
+     */
+    @Override
+    public Address decode(BsonReader reader, DecoderContext decoderContext) {
+        Address address = new Address();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case STREET -> address.setStreet(reader.readString());
+                case CITY -> address.setCity(reader.readString());
+                case POSTCODE -> address.setPostcode(StudentCodec.readInteger(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return address;
+    }
+
+    @Override
+    public Class<Address> getEncoderClass() {
+        return Address.class;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The number of students enrolled in a course.
+ *
+ * Kept up to date by the student services with {@code $inc} on every write that changes
+ * which students take a course, so enrollment counts are read without aggregating the students.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "course_stats")
+public class CourseStats {
+    @Id
+    private String course;
+    private long students;
+}
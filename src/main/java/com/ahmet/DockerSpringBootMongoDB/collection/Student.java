@@ -1,23 +1,29 @@
 package com.ahmet.DockerSpringBootMongoDB.collection;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.AccessType;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 /**
  * Represents a Student entity in the MongoDB database.
  *
  * This class is annotated with @Document to indicate it's a MongoDB document and
  * includes various fields like id, name, email, etc., with appropriate annotations
- * for indexing and JSON serialization behavior.
+ * for JSON serialization behavior. Its indexes, including the unique index on email,
+ * are declared in StudentIndexConfig.
  */
 @Data
 @Builder
@@ -27,11 +33,11 @@ import java.util.List;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Student {
 
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
     @Id
     private String id;
-    @Indexed()
     private String name;
-    @Indexed(unique = true)
     private String email; // Assuming email is unique in the system
     private Address address;
     private Integer age;
@@ -40,6 +46,8 @@ public class Student {
     private Double gpa;
     private LocalDateTime graduationDate;
     private LocalDateTime registerDate;
+    @Version
+    private Long version; // Incremented on every write, exposed as the ETag
 
     /**
      * Custom constructor to create a Student instance without an id.
@@ -65,4 +73,44 @@ public class Student {
         this.graduationDate = graduationDate;
         this.registerDate = registerDate;
     }
+
+    /**
+     * Returns the search key of the name: lowercased, with accents and other diacritics removed.
+     * It is derived from the name rather than held in a field, and stored as {@code nameKey},
+     * so it cannot go stale on any write path. Prefix searches that ignore case and accents
+     * query this key, which keeps them on an index range scan.
+     *
+     * @return The search key of the name, or null if the name is null.
+     */
+    @AccessType(AccessType.Type.PROPERTY)
+    @JsonIgnore
+    public String getNameKey() {
+        return nameKey(name);
+    }
+
+    /**
+     * Ignores a stored search key when a student is read, since it is derived from the name.
+     *
+     * @param nameKey The stored search key.
+     */
+    @JsonIgnore
+    public void setNameKey(String nameKey) {
+        // Derived from the name
+    }
+
+    /**
+     * Normalizes a name or name prefix for searching.
+     * Compatibility characters are decomposed (e.g. "ﬁ" to "fi", "é" to "e" plus a combining accent),
+     * combining marks are removed, and the result is lowercased.
+     *
+     * @param name The name or prefix to normalize.
+     * @return The normalized key, or null if the name is null.
+     */
+    public static String nameKey(String name) {
+        if (name == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
 }
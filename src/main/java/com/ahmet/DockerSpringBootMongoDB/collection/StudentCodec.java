@@ -0,0 +1,263 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes {@link Student} documents directly, without the reflective MappingMongoConverter.
+ *
+ * When the driver reads a student with this codec, each field goes straight from the BsonReader into
+ * the student, with no intermediate Document and no property lookups. The layout matches what
+ * MappingMongoConverter writes, so both can read each other's documents: the id is stored as an
+ * ObjectId in {@code _id} when it is a valid one, dates are BSON dates in the system time zone,
+ * null fields are omitted, and the derived {@code nameKey} and the {@code _class} type hint are written.
+ * Unknown fields are skipped, and numbers are accepted in any numeric BSON type, as the converter does.
+ */
+public class StudentCodec implements CollectibleCodec<Student> {
+
+    static final String ID = "_id";
+    private static final String TYPE_HINT = "_class";
+    static final String NAME = "name";
+    static final String EMAIL = "email";
+    static final String ADDRESS = "address";
+    static final String AGE = "age";
+    static final String COURSES = "courses";
+    static final String FULL_TIME = "fullTime";
+    static final String GPA = "gpa";
+    static final String GRADUATION_DATE = "graduationDate";
+    static final String REGISTER_DATE = "registerDate";
+    static final String VERSION = "version";
+    private static final String NAME_KEY = "nameKey";
+
+    private final Codec<Address> addressCodec;
+
+    /**
+     * Creates a student codec.
+     *
+     * @param addressCodec The codec of the embedded address.
+     */
+    public StudentCodec(Codec<Address> addressCodec) {
+        this.addressCodec = addressCodec;
+    }
+
+    /**
+     * Writes a student as a document.
+     *
+     * @param writer         The writer.
+     * @param student        The student to write.
+     * @param encoderContext The encoder context.
+     */
+    @Override
+    public void encode(BsonWriter writer, Student student, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (student.getId() != null) {
+            writer.writeName(ID);
+            if (ObjectId.isValid(student.getId())) {
+                writer.writeObjectId(new ObjectId(student.getId()));
+            } else {
+                writer.writeString(student.getId());
+            }
+        }
+        writeString(writer, NAME, student.getName());
+        writeString(writer, EMAIL, student.getEmail());
+        if (student.getAddress() != null) {
+            writer.writeName(ADDRESS);
+            encoderContext.encodeWithChildContext(addressCodec, writer, student.getAddress());
+        }
+        if (student.getAge() != null) {
+            writer.writeInt32(AGE, student.getAge());
+        }
+        if (student.getCourses() != null) {
+            writer.writeStartArray(COURSES);
+            for (String course : student.getCourses()) {
+                if (course == null) {
+                    writer.writeNull();
+                } else {
+                    writer.writeString(course);
+                }
+            }
+            writer.writeEndArray();
+        }
+        if (student.getFullTime() != null) {
+            writer.writeBoolean(FULL_TIME, student.getFullTime());
+        }
+        if (student.getGpa() != null) {
+            writer.writeDouble(GPA, student.getGpa());
+        }
+        writeDate(writer, GRADUATION_DATE, student.getGraduationDate());
+        writeDate(writer, REGISTER_DATE, student.getRegisterDate());
+        if (student.getVersion() != null) {
+            writer.writeInt64(VERSION, student.getVersion());
+        }
+        writeString(writer, NAME_KEY, student.getNameKey());
+        writer.writeString(TYPE_HINT, Student.class.getName());
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Reads a student from a document, or from the fields of it a projection returned.
+     *
+     * @param reader         The reader.
+     * @param decoderContext The decoder context.
+     * @return The student.
+     */
+    @Override
+    public Student decode(BsonReader reader, DecoderContext decoderContext) {
+        Student student = new Student();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ID -> student.setId(reader.getCurrentBsonType() == BsonType.OBJECT_ID
+                        ? reader.readObjectId().toHexString()
+                        : reader.readString());
+                case NAME -> student.setName(reader.readString());
+                case EMAIL -> student.setEmail(reader.readString());
+                case ADDRESS -> student.setAddress(decoderContext.decodeWithChildContext(addressCodec, reader));
+                case AGE -> student.setAge(readInteger(reader));
+                case COURSES -> student.setCourses(readStrings(reader));
+                case FULL_TIME -> student.setFullTime(reader.readBoolean());
+                case GPA -> student.setGpa(readDouble(reader));
+                case GRADUATION_DATE -> student.setGraduationDate(readDate(reader));
+                case REGISTER_DATE -> student.setRegisterDate(readDate(reader));
+                case VERSION -> student.setVersion(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return student;
+    }
+
+    @Override
+    public Class<Student> getEncoderClass() {
+        return Student.class;
+    }
+
+    /**
+     * Assigns a new ObjectId to a student without an id before the driver inserts it.
+     *
+     * @param student The student to insert.
+     * @return The same student.
+     */
+    @Override
+    public Student generateIdIfAbsentFromDocument(Student student) {
+        if (student.getId() == null) {
+            student.setId(new ObjectId().toHexString());
+        }
+        return student;
+    }
+
+    @Override
+    public boolean documentHasId(Student student) {
+        return student.getId() != null;
+    }
+
+    /**
+     * Returns the id of a student as it is stored.
+     *
+     * @param student The student.
+     * @return The id as an ObjectId when it is a valid one, otherwise as a string.
+     * @throws IllegalStateException if the student has no id.
+     */
+    @Override
+    public BsonValue getDocumentId(Student student) {
+        if (student.getId() == null) {
+            throw new IllegalStateException("The student has no id");
+        }
+        return ObjectId.isValid(student.getId())
+                ? new BsonObjectId(new ObjectId(student.getId()))
+                : new BsonString(student.getId());
+    }
+
+    /**
+     * Writes a string field unless it is null.
+     */
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    /**
+     * Reads an integer stored as any numeric type, truncating fractions like the converter.
+     */
+    static Integer readInteger(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT64 -> Math.toIntExact(reader.readInt64());
+            case DOUBLE -> (int) reader.readDouble();
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue().intValue();
+            default -> reader.readInt32();
+        };
+    }
+
+    /**
+     * Reads a long stored as any numeric type.
+     */
+    static Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (long) reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue().longValue();
+            default -> reader.readInt64();
+        };
+    }
+
+    /**
+     * Reads a double stored as any numeric type.
+     */
+    static Double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (double) reader.readInt32();
+            case INT64 -> (double) reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue().doubleValue();
+            default -> reader.readDouble();
+        };
+    }
+
+    private static List<String> readStrings(BsonReader reader) {
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                values.add(null);
+            } else {
+                values.add(reader.readString());
+            }
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    /**
+     * Reads a BSON date as a local date-time in the system time zone, like the converter's default conversion.
+     */
+    static LocalDateTime readDate(BsonReader reader) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault());
+    }
+
+    private static void writeDate(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes student documents read as raw BSON directly as JSON, without decoding them into {@link Student}s.
+ *
+ * The JSON is the same as Jackson writes for the decoded student: {@code _id} becomes {@code id},
+ * dates are ISO local date-times in the system time zone, numbers are coerced to the type of their field
+ * like {@link StudentCodec} does, and null, unknown and internal fields such as {@code nameKey} and
+ * {@code _class} are left out. Fields are written in the order they are stored, which for documents
+ * written by this application is the order of the Student fields.
+ */
+public final class StudentJson {
+
+    private static final String JSON_ID = "id";
+
+    private StudentJson() {
+    }
+
+    /**
+     * Writes a student document as a JSON object.
+     *
+     * @param document  The student document, whole or projected.
+     * @param generator The generator to write to.
+     * @throws IOException if writing fails.
+     */
+    public static void write(RawBsonDocument document, JsonGenerator generator) throws IOException {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            generator.writeStartObject();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                if (reader.getCurrentBsonType() == BsonType.NULL) {
+                    reader.readNull();
+                    continue;
+                }
+                switch (name) {
+                    case StudentCodec.ID -> generator.writeStringField(JSON_ID, readId(reader));
+                    case StudentCodec.NAME, StudentCodec.EMAIL -> generator.writeStringField(name, reader.readString());
+                    case StudentCodec.ADDRESS -> {
+                        generator.writeFieldName(name);
+                        writeAddress(reader, generator);
+                    }
+                    case StudentCodec.AGE -> generator.writeNumberField(name, StudentCodec.readInteger(reader));
+                    case StudentCodec.COURSES -> {
+                        generator.writeFieldName(name);
+                        writeStrings(reader, generator);
+                    }
+                    case StudentCodec.FULL_TIME -> generator.writeBooleanField(name, reader.readBoolean());
+                    case StudentCodec.GPA -> generator.writeNumberField(name, StudentCodec.readDouble(reader));
+                    case StudentCodec.GRADUATION_DATE, StudentCodec.REGISTER_DATE -> generator.writeStringField(name,
+                            DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(StudentCodec.readDate(reader)));
+                    case StudentCodec.VERSION -> generator.writeNumberField(name, StudentCodec.readLong(reader));
+                    default -> reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Returns the id of a student document as the API exposes it.
+     *
+     * @param document The student document.
+     * @return The hex string of an ObjectId id, or the id string itself.
+     */
+    public static String id(RawBsonDocument document) {
+        BsonValue id = document.get(StudentCodec.ID);
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    /**
+     * Returns the version of a student document.
+     *
+     * @param document The student document.
+     * @return The version, or null if the document has none.
+     */
+    public static Long version(RawBsonDocument document) {
+        BsonValue version = document.get(StudentCodec.VERSION);
+        return version == null || !version.isNumber() ? null : version.asNumber().longValue();
+    }
+
+    private static String readId(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.OBJECT_ID
+                ? reader.readObjectId().toHexString()
+                : reader.readString();
+    }
+
+    private static void writeAddress(BsonReader reader, JsonGenerator generator) throws IOException {
+        reader.readStartDocument();
+        generator.writeStartObject();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case AddressCodec.STREET, AddressCodec.CITY -> generator.writeStringField(name, reader.readString());
+                case AddressCodec.POSTCODE -> generator.writeNumberField(name, StudentCodec.readInteger(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(BsonReader reader, JsonGenerator generator) throws IOException {
+        reader.readStartArray();
+        generator.writeStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                generator.writeNull();
+            } else {
+                generator.writeString(reader.readString());
+            }
+        }
+        reader.readEndArray();
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A change to a student waiting in the outbox to be passed on to downstream systems.
+ *
+ * Written by the student services in the same transaction as the change itself, so an event exists
+ * if and only if the change was committed. The outbox relay claims pending events into batches,
+ * hands every batch to the configured sink and removes it afterwards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "student_outbox")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StudentOutboxEvent {
+    @Id
+    private String id;
+    private String type; // saved, updated or deleted
+    private String studentId;
+    private Student student; // The student after the change, absent for deletions
+    private Instant occurredAt;
+    private String batch; // Set once the relay has claimed the event
+    @JsonIgnore
+    private Instant claimedAt;
+}
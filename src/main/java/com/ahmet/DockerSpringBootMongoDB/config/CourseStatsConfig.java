@@ -0,0 +1,48 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.List;
+
+/**
+ * Configuration of the "course_stats" collection, which holds the number of students per course.
+ *
+ * The student services keep the counts up to date on every write. Students written before the
+ * collection existed, or by the data initializer, are not counted, so the counts are rebuilt
+ * from the students at startup while the collection is still empty.
+ */
+@Configuration
+public class CourseStatsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseStatsConfig.class);
+
+    @Value("${students.course-stats.rebuild-if-empty:true}")
+    private boolean rebuildIfEmpty;
+
+    /**
+     * Rebuilds the course statistics if none are stored yet.
+     * Runs after the data initializer, so its students are counted.
+     *
+     * @param studentService The service maintaining the course statistics.
+     * @return The application runner.
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public ApplicationRunner courseStatsInitializer(StudentService studentService) {
+        return args -> {
+            if (rebuildIfEmpty && studentService.getCourseEnrollments().isEmpty()) {
+                List<CourseStats> courses = studentService.rebuildCourseStats();
+                log.info("Rebuilt course statistics for {} courses", courses.size());
+            }
+        };
+    }
+}
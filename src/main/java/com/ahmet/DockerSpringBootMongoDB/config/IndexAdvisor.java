@@ -0,0 +1,199 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares the indexes declared in code with those that exist in MongoDB, and checks
+ * that every query method of a repository has an index supporting its filter and sort.
+ *
+ * An index supports a query if it starts with one of the filtered fields and, when the query
+ * is sorted, starts with the sort fields, so MongoDB neither scans the collection nor sorts in memory.
+ * This is a heuristic: it does not consult the query planner. Text indexes are compared by their
+ * set of fields and only serve {@code $text} queries, so they are not considered for repository methods.
+ */
+final class IndexAdvisor {
+
+    private static final String TEXT_INDEX_KEY = "_ftsx";
+
+    private IndexAdvisor() {
+    }
+
+    /**
+     * Checks the indexes of a collection against its declared indexes and the queries of a repository.
+     *
+     * @param existing       The indexes that exist in MongoDB.
+     * @param declared       The indexes declared in code.
+     * @param repository     The repository interface whose query methods are checked.
+     * @param domainType     The entity type of the repository.
+     * @param mappingContext The mapping context used to resolve property names to field names.
+     * @return One message per missing or undeclared index and per query without a supporting index.
+     */
+    static List<String> advise(List<IndexInfo> existing, List<IndexDefinition> declared, Class<?> repository,
+                               Class<?> domainType, MongoMappingContext mappingContext) {
+        List<String> findings = new ArrayList<>();
+        List<List<String>> existingKeys = existing.stream()
+                .map(index -> keys(index.getIndexFields().stream().map(IndexField::getKey).toList(), isText(index)))
+                .toList();
+        List<List<String>> declaredKeys = declared.stream()
+                .map(index -> keys(List.copyOf(index.getIndexKeys().keySet()), index.getIndexKeys().containsValue("text")))
+                .toList();
+        for (int i = 0; i < declared.size(); i++) {
+            if (!existingKeys.contains(declaredKeys.get(i))) {
+                findings.add(String.format("Declared index %s on %s does not exist",
+                        declared.get(i).getIndexOptions().get("name"), declaredKeys.get(i)));
+            }
+        }
+        for (int i = 0; i < existing.size(); i++) {
+            List<String> keys = existingKeys.get(i);
+            if (!keys.equals(List.of("_id")) && !declaredKeys.contains(keys)) {
+                findings.add(String.format("Index %s on %s is not declared in code; drop it if no query needs it",
+                        existing.get(i).getName(), keys));
+            }
+        }
+        for (Method method : repository.getDeclaredMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            List<String> filter = new ArrayList<>();
+            List<String> sort = new ArrayList<>();
+            if (!queryFields(method, domainType, mappingContext, filter, sort)) {
+                continue;
+            }
+            boolean supported = false;
+            for (int i = 0; i < existing.size() && !supported; i++) {
+                supported = !isText(existing.get(i)) && supports(existingKeys.get(i), filter, sort);
+            }
+            if (!supported) {
+                findings.add(String.format("%s.%s filters on %s%s but no index supports it",
+                        repository.getSimpleName(), method.getName(), filter,
+                        sort.isEmpty() ? "" : " and sorts on " + sort));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Checks whether an existing index is a text index.
+     *
+     * @param index The index.
+     * @return true if any of its fields is a text field.
+     */
+    private static boolean isText(IndexInfo index) {
+        return index.getIndexFields().stream().anyMatch(IndexField::isText);
+    }
+
+    /**
+     * Returns the fields of an index for comparison. The fields of a text index are unordered, so they are sorted,
+     * and the {@code _ftsx} key MongoDB lists for every text index is not a field of the collection, so it is dropped.
+     *
+     * @param keys The fields of the index.
+     * @param text Whether the index is a text index.
+     * @return The fields to compare.
+     */
+    private static List<String> keys(List<String> keys, boolean text) {
+        return text ? keys.stream().filter(key -> !TEXT_INDEX_KEY.equals(key)).sorted().toList() : keys;
+    }
+
+    /**
+     * Checks whether an index supports a query.
+     *
+     * @param keys   The fields of the index, in order.
+     * @param filter The filtered fields of the query.
+     * @param sort   The sort fields of the query, in order.
+     * @return true if the index starts with a filtered field and, if the query is sorted, with the sort fields.
+     */
+    private static boolean supports(List<String> keys, List<String> filter, List<String> sort) {
+        if (!sort.isEmpty()) {
+            return keys.size() >= sort.size() && keys.subList(0, sort.size()).equals(sort)
+                    && (filter.isEmpty() || filter.contains(keys.get(0)));
+        }
+        return filter.isEmpty() || filter.contains(keys.get(0));
+    }
+
+    /**
+     * Collects the filtered and sorted fields of a query method, either from its {@code @Query}
+     * annotation or from its derived name.
+     *
+     * @param method         The repository method.
+     * @param domainType     The entity type of the repository.
+     * @param mappingContext The mapping context used to resolve property names to field names.
+     * @param filter         Receives the filtered fields.
+     * @param sort           Receives the sort fields, in order.
+     * @return false if the method is not a query whose fields can be determined.
+     */
+    private static boolean queryFields(Method method, Class<?> domainType, MongoMappingContext mappingContext,
+                                       List<String> filter, List<String> sort) {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null) {
+            Set<String> fields = new LinkedHashSet<>();
+            collectFields(Document.parse(withoutPlaceholders(query.value())), fields);
+            filter.addAll(fields);
+            if (!query.sort().isEmpty()) {
+                sort.addAll(Document.parse(query.sort()).keySet());
+            }
+            return true;
+        }
+        PartTree tree;
+        try {
+            tree = new PartTree(method.getName(), domainType);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        for (Part part : tree.getParts()) {
+            String field = fieldName(part.getProperty(), mappingContext);
+            if (!filter.contains(field)) {
+                filter.add(field);
+            }
+        }
+        for (Sort.Order order : tree.getSort()) {
+            sort.add(fieldName(PropertyPath.from(order.getProperty(), domainType), mappingContext));
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the parameter placeholders of a string query, such as {@code ?0}, with values so it parses as JSON.
+     */
+    private static String withoutPlaceholders(String query) {
+        return query.replaceAll("\\?\\d+", "0");
+    }
+
+    /**
+     * Collects the field names of a filter, including those nested in {@code $and}, {@code $or} and {@code $nor}.
+     */
+    private static void collectFields(Document filter, Set<String> fields) {
+        filter.forEach((key, value) -> {
+            if (!key.startsWith("$")) {
+                fields.add(key);
+            } else if (value instanceof List<?> clauses) {
+                clauses.stream()
+                        .filter(Document.class::isInstance)
+                        .forEach(clause -> collectFields((Document) clause, fields));
+            }
+        });
+    }
+
+    /**
+     * Resolves a property path to the dotted field name stored in MongoDB, e.g. {@code id} to {@code _id}.
+     */
+    private static String fieldName(PropertyPath path, MongoMappingContext mappingContext) {
+        return mappingContext.getPersistentPropertyPath(path).toDotPath(MongoPersistentProperty::getFieldName);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for application metrics.
+ *
+ * Spring Boot already times HTTP requests ({@code http.server.requests}), repository invocations
+ * ({@code spring.data.repository.invocations}) and MongoDB driver commands ({@code mongodb.driver.commands}),
+ * and registers gauges for the driver's connection pools ({@code mongodb.driver.pool.*}).
+ * This class adds the aspect that times methods annotated with {@code @Timed}, which covers the service layer.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Creates the aspect that records a timer for every call to a method or class annotated with {@code @Timed}.
+     *
+     * @param meterRegistry The registry the timers are recorded in.
+     * @return The timed aspect.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,195 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tuning of the MongoClient, bound from the {@code students.mongo.*} properties.
+ *
+ * Connection details such as the host and database stay under {@code spring.data.mongodb.*}.
+ * These properties control how the client uses its connections: pool sizing, timeouts,
+ * write concern and wire compression. {@link MongoDbConfig} turns them into
+ * {@code MongoClientSettings}. Unset values keep the driver defaults. The list read preference
+ * only applies to list, search and statistics queries; every other read goes to the primary.
+ */
+@ConfigurationProperties(prefix = "students.mongo")
+public class MongoClientProperties {
+
+    private final Pool pool = new Pool();
+    private final WriteConcern writeConcern = new WriteConcern();
+    private Duration connectTimeout;
+    private Duration socketTimeout;
+    private Duration serverSelectionTimeout;
+    private String listReadPreference;
+    private List<String> compressors = new ArrayList<>();
+
+    // Getters and Setters
+    public Pool getPool() {
+        return pool;
+    }
+
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public void setSocketTimeout(Duration socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    public Duration getServerSelectionTimeout() {
+        return serverSelectionTimeout;
+    }
+
+    public void setServerSelectionTimeout(Duration serverSelectionTimeout) {
+        this.serverSelectionTimeout = serverSelectionTimeout;
+    }
+
+    public String getListReadPreference() {
+        return listReadPreference;
+    }
+
+    public void setListReadPreference(String listReadPreference) {
+        this.listReadPreference = listReadPreference;
+    }
+
+    public List<String> getCompressors() {
+        return compressors;
+    }
+
+    public void setCompressors(List<String> compressors) {
+        this.compressors = compressors;
+    }
+
+    /**
+     * Connection pool sizing. On virtual threads, the {@code virtual-threads} values replace
+     * {@code max-size} and {@code max-wait-time}.
+     */
+    public static class Pool {
+        private int minSize;
+        private int maxSize = 100;
+        private int maxConnecting = 2;
+        private Duration maxWaitTime = Duration.ofMinutes(2);
+        private Duration maxIdleTime;
+        private final VirtualThreads virtualThreads = new VirtualThreads();
+
+        // Getters and Setters
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getMaxConnecting() {
+            return maxConnecting;
+        }
+
+        public void setMaxConnecting(int maxConnecting) {
+            this.maxConnecting = maxConnecting;
+        }
+
+        public Duration getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        public void setMaxWaitTime(Duration maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public VirtualThreads getVirtualThreads() {
+            return virtualThreads;
+        }
+    }
+
+    /**
+     * Pool sizing used when {@code spring.threads.virtual.enabled=true} is in effect.
+     */
+    public static class VirtualThreads {
+        private int maxSize = 500;
+        private Duration maxWaitTime = Duration.ofSeconds(5);
+
+        // Getters and Setters
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        public void setMaxWaitTime(Duration maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+        }
+    }
+
+    /**
+     * Default write concern: the number or tag of members that must acknowledge a write
+     * ({@code w}, e.g. {@code 1} or {@code majority}), whether it must be journaled, and how long to wait.
+     */
+    public static class WriteConcern {
+        private String w;
+        private Boolean journal;
+        private Duration timeout;
+
+        // Getters and Setters
+        public String getW() {
+            return w;
+        }
+
+        public void setW(String w) {
+            this.w = w;
+        }
+
+        public Boolean getJournal() {
+            return journal;
+        }
+
+        public void setJournal(Boolean journal) {
+            this.journal = journal;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
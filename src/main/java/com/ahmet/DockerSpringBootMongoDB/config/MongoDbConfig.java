@@ -1,32 +1,266 @@
 package com.ahmet.DockerSpringBootMongoDB.config;
 
+import com.ahmet.DockerSpringBootMongoDB.collection.AddressCodec;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentCodec;
+import com.ahmet.DockerSpringBootMongoDB.repository.ReactiveStudentRepository;
+import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for MongoDB.
  *
  * This class is annotated with @Configuration to indicate that it is a source of bean definitions.
- * It provides the MongoTemplate bean configured with the MongoClient and the database name.
+ * It provides the MongoTemplate bean configured with the MongoClient and the database name,
+ * applies the {@code students.mongo.*} tuning properties to the MongoClient, and registers
+ * the student codecs with it.
+ *
+ * The MongoClient and the primary templates read from the primary. List, search and statistics
+ * reads go through separate templates and repositories reading with {@code students.mongo.list-read-preference},
+ * so they can be moved to secondaries while point reads, version checks and transactions stay on the primary.
  */
 @Configuration
+@EnableConfigurationProperties(MongoClientProperties.class)
 public class MongoDbConfig {
-        @Autowired
-        private MongoClient mongoClient;
 
     /**
      * Creates a MongoTemplate bean.
      *
      * MongoTemplate is the central class of the Spring Data MongoDB module.
      * It simplifies the use of MongoDB operations like find, update, and delete operations.
+     * The MongoClient is passed in rather than autowired into this class, because the client
+     * itself depends on the settings customizer defined here.
      *
+     * @param mongoClient The auto-configured MongoClient.
      * @return A new instance of MongoTemplate configured with the MongoClient and the database name "school".
      */
-        @Bean
-        public MongoTemplate mongoTemplate() {
-            return new MongoTemplate(mongoClient, "school");
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoClient mongoClient) {
+        return new MongoTemplate(mongoClient, "school");
+    }
+
+    /**
+     * Creates the MongoTemplate for list, search and statistics reads, reading with
+     * {@code students.mongo.list-read-preference}.
+     * A client reading from a secondary may not see its own latest writes, so this template is
+     * never used for point reads, for reads following a write, or in transactions.
+     *
+     * @param mongoClient The auto-configured MongoClient.
+     * @param properties  The bound tuning properties.
+     * @return A MongoTemplate for the database "school" with the list read preference.
+     */
+    @Bean
+    public MongoTemplate listMongoTemplate(MongoClient mongoClient, MongoClientProperties properties) {
+        MongoTemplate template = new MongoTemplate(mongoClient, "school");
+        template.setReadPreference(listReadPreference(properties));
+        return template;
+    }
+
+    /**
+     * Creates a StudentRepository running its queries on {@link #listMongoTemplate}, for the list queries
+     * the services run through the repository. The scanned repository stays the primary one.
+     *
+     * @param listMongoTemplate The MongoTemplate for list reads.
+     * @return The repository.
+     */
+    @Bean
+    public StudentRepository listStudentRepository(@Qualifier("listMongoTemplate") MongoTemplate listMongoTemplate) {
+        return new MongoRepositoryFactory(listMongoTemplate).getRepository(StudentRepository.class);
+    }
+
+    /**
+     * Creates the ReactiveMongoTemplate of the reactive stack, reading from the primary.
+     * Declared here instead of by Spring Boot, which backs off as soon as {@link #listReactiveMongoTemplate} exists.
+     *
+     * @param databaseFactory The auto-configured reactive database factory.
+     * @param converter       The auto-configured converter.
+     * @return The ReactiveMongoTemplate.
+     */
+    @Bean
+    @Primary
+    @Profile("reactive")
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory databaseFactory, MongoConverter converter) {
+        return new ReactiveMongoTemplate(databaseFactory, converter);
+    }
+
+    /**
+     * Creates the ReactiveMongoTemplate for list, search and statistics reads of the reactive stack,
+     * reading with {@code students.mongo.list-read-preference}.
+     *
+     * @param databaseFactory The auto-configured reactive database factory.
+     * @param converter       The auto-configured converter.
+     * @param properties      The bound tuning properties.
+     * @return The ReactiveMongoTemplate with the list read preference.
+     */
+    @Bean
+    @Profile("reactive")
+    public ReactiveMongoTemplate listReactiveMongoTemplate(ReactiveMongoDatabaseFactory databaseFactory,
+                                                           MongoConverter converter, MongoClientProperties properties) {
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(databaseFactory, converter);
+        template.setReadPreference(listReadPreference(properties));
+        return template;
+    }
+
+    /**
+     * Creates a ReactiveStudentRepository running its queries on {@link #listReactiveMongoTemplate}.
+     *
+     * @param listReactiveMongoTemplate The ReactiveMongoTemplate for list reads.
+     * @return The repository.
+     */
+    @Bean
+    @Profile("reactive")
+    public ReactiveStudentRepository listReactiveStudentRepository(
+            @Qualifier("listReactiveMongoTemplate") ReactiveMongoTemplate listReactiveMongoTemplate) {
+        return new ReactiveMongoRepositoryFactory(listReactiveMongoTemplate).getRepository(ReactiveStudentRepository.class);
+    }
+
+    /**
+     * Applies the {@code students.mongo.*} properties to the settings of the auto-configured MongoClient.
+     *
+     * On platform threads, Tomcat's request thread pool bounds the number of concurrent driver calls.
+     * With {@code spring.threads.virtual.enabled=true} on Java 21, every request gets its own virtual
+     * thread, so the connection pool becomes the only bound. The pool is then sized with the
+     * {@code students.mongo.pool.virtual-threads.*} properties: it is larger, and a request gives up
+     * on a connection after a short wait instead of queueing behind thousands of others.
+     * Timeouts and write concern are only applied when set, so options given in
+     * {@code spring.data.mongodb.uri} still take effect otherwise.
+     * The codec registry is extended with {@link StudentCodec} and {@link AddressCodec}, which the services
+     * use to read large result sets without going through MongoTemplate's converter.
+     *
+     * @param properties  The bound tuning properties.
+     * @param environment The environment used to detect whether virtual threads are active.
+     * @return A customizer applying the properties.
+     * @throws IllegalArgumentException if the write concern or a compressor is not recognised.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientSettingsCustomizer(MongoClientProperties properties,
+                                                                              Environment environment) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        int maxSize = virtualThreads ? pool.getVirtualThreads().getMaxSize() : pool.getMaxSize();
+        Duration maxWaitTime = virtualThreads ? pool.getVirtualThreads().getMaxWaitTime() : pool.getMaxWaitTime();
+        WriteConcern writeConcern = writeConcern(properties.getWriteConcern());
+        List<MongoCompressor> compressors = properties.getCompressors().stream().map(MongoDbConfig::compressor).toList();
+        return settings -> {
+            settings.applyToConnectionPoolSettings(builder -> {
+                builder.minSize(pool.getMinSize())
+                        .maxSize(maxSize)
+                        .maxConnecting(pool.getMaxConnecting())
+                        .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS);
+                if (pool.getMaxIdleTime() != null) {
+                    builder.maxConnectionIdleTime(pool.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            });
+            settings.applyToSocketSettings(builder -> {
+                if (properties.getConnectTimeout() != null) {
+                    builder.connectTimeout(properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (properties.getSocketTimeout() != null) {
+                    builder.readTimeout(properties.getSocketTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            });
+            if (properties.getServerSelectionTimeout() != null) {
+                settings.applyToClusterSettings(builder -> builder.serverSelectionTimeout(
+                        properties.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+            }
+            if (writeConcern != null) {
+                settings.writeConcern(writeConcern);
+            }
+            if (!compressors.isEmpty()) {
+                settings.compressorList(compressors);
+            }
+            settings.codecRegistry(studentCodecRegistry());
+        };
+    }
+
+    /**
+     * Builds the driver's default codec registry extended with the student codecs.
+     *
+     * @return The codec registry.
+     */
+    private static CodecRegistry studentCodecRegistry() {
+        AddressCodec addressCodec = new AddressCodec();
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new StudentCodec(addressCodec), addressCodec),
+                MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    /**
+     * Reads the read preference of list, search and statistics queries.
+     *
+     * @param properties The bound tuning properties.
+     * @return The read preference, primary if none is set.
+     * @throws IllegalArgumentException if the read preference is not recognised.
+     */
+    private static ReadPreference listReadPreference(MongoClientProperties properties) {
+        return properties.getListReadPreference() == null
+                ? ReadPreference.primary() : ReadPreference.valueOf(properties.getListReadPreference());
+    }
+
+    /**
+     * Builds the default write concern from its properties.
+     *
+     * @param properties The write concern properties.
+     * @return The write concern, or null if none of its properties is set.
+     */
+    private static WriteConcern writeConcern(MongoClientProperties.WriteConcern properties) {
+        if (properties.getW() == null && properties.getJournal() == null && properties.getTimeout() == null) {
+            return null;
+        }
+        WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+        if (properties.getW() != null) {
+            String w = properties.getW();
+            writeConcern = w.chars().allMatch(Character::isDigit)
+                    ? writeConcern.withW(Integer.parseInt(w))
+                    : writeConcern.withW(w);
         }
+        if (properties.getJournal() != null) {
+            writeConcern = writeConcern.withJournal(properties.getJournal());
+        }
+        if (properties.getTimeout() != null) {
+            writeConcern = writeConcern.withWTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return writeConcern;
+    }
+
+    /**
+     * Creates a wire compressor by name. The server picks the first one in the list it also supports.
+     *
+     * @param name The compressor name: {@code zstd}, {@code snappy} or {@code zlib}.
+     * @return The compressor.
+     */
+    private static MongoCompressor compressor(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            default -> throw new IllegalArgumentException("Unknown MongoDB compressor: " + name);
+        };
     }
+}
@@ -0,0 +1,29 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration for the reactive stack.
+ *
+ * Tomcat stays on the classpath for the servlet stack and would otherwise be preferred by
+ * Spring Boot, so the "reactive" profile selects Reactor Netty explicitly. Its event loop
+ * serves all requests with a small, fixed number of threads.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    /**
+     * Creates the Reactor Netty server factory used instead of Tomcat.
+     * Server properties such as {@code server.port} are still applied to it.
+     *
+     * @return A new Netty server factory.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,76 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import com.ahmet.DockerSpringBootMongoDB.service.StudentCache;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+/**
+ * Configuration for keeping the student cache coherent across nodes.
+ *
+ * Enabled with {@code students.cache.change-stream.enabled=true}. It opens a change stream on the
+ * "students" collection and evicts every student that is written or deleted, including writes made
+ * by other nodes. Change streams require MongoDB to run as a replica set or sharded cluster.
+ */
+@Configuration
+@ConditionalOnProperty(name = "students.cache.change-stream.enabled", havingValue = "true")
+public class StudentCacheConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentCacheConfig.class);
+
+    /**
+     * Creates the listener container that feeds change stream events into the student cache.
+     * The container is started and stopped with the application context.
+     *
+     * @param mongoTemplate The MongoTemplate used to open the change stream.
+     * @param studentCache  The cache to invalidate.
+     * @return The started message listener container.
+     */
+    @Bean
+    public MessageListenerContainer studentCacheInvalidationContainer(MongoTemplate mongoTemplate, StudentCache studentCache) {
+        MessageListenerContainer container = new DefaultMessageListenerContainer(mongoTemplate);
+        MessageListener<ChangeStreamDocument<Document>, Document> listener =
+                message -> invalidate(studentCache, message.getRaw());
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.<Document>builder()
+                .collection("students")
+                .publishTo(listener)
+                .build();
+        container.register(request, Document.class, error -> {
+            log.warn("Student change stream failed, clearing the student cache", error);
+            studentCache.invalidateAll();
+        });
+        return container;
+    }
+
+    /**
+     * Evicts the student a change event refers to, or the whole cache for collection-level events.
+     *
+     * @param studentCache The cache to invalidate.
+     * @param event        The raw change stream event.
+     */
+    private static void invalidate(StudentCache studentCache, ChangeStreamDocument<Document> event) {
+        BsonDocument documentKey = event.getDocumentKey();
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (event.getOperationType() == OperationType.INVALIDATE || id == null) {
+            studentCache.invalidateAll();
+        } else if (id.isObjectId()) {
+            studentCache.invalidate(id.asObjectId().getValue().toHexString());
+        } else if (id.isString()) {
+            studentCache.invalidate(id.asString().getValue());
+        } else {
+            studentCache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Configuration of the indexes on the "students" collection.
+ *
+ * The indexes are declared here rather than with {@code @Indexed} on {@link Student}, because most of them
+ * are compound indexes matching the sort order of the paged queries. They are created at startup with
+ * {@code spring.data.mongodb.auto-index-creation} turned off. Afterwards, the query methods of
+ * {@link StudentRepository} are checked against the indexes that actually exist.
+ */
+@Configuration
+public class StudentIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentIndexConfig.class);
+
+    /**
+     * The indexes on the "students" collection.
+     * Name searches and age ranges are paged by {@code (name, _id)} and {@code (age, _id)}, so these
+     * indexes serve both the range and the sort. {@code (name, age)} serves a name prefix combined with an age filter,
+     * and {@code (nameKey, _id)} the prefix searches that ignore case and accents. The text index serves
+     * full-text search; it indexes terms without stemming or stop words, since most of them are names.
+     */
+    static final List<IndexDefinition> STUDENT_INDEXES = List.of(
+            new Index().on("email", Sort.Direction.ASC).unique().named("email"),
+            new Index().on("name", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("name_id"),
+            new Index().on("age", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("age_id"),
+            new Index().on("name", Sort.Direction.ASC).on("age", Sort.Direction.ASC).named("name_age"),
+            new Index().on("nameKey", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("nameKey_id"),
+            new TextIndexDefinition.TextIndexDefinitionBuilder()
+                    .onField("name", 3F)
+                    .onField("courses", 2F)
+                    .onField("address.city")
+                    .withDefaultLanguage("none")
+                    .named("student_text")
+                    .build());
+
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+
+    @Value("${students.indexes.create:true}")
+    private boolean createIndexes;
+
+    @Value("${students.indexes.check:true}")
+    private boolean checkIndexes;
+
+    /**
+     * Creates the declared indexes, stores the normalized name of students written before it existed,
+     * and reports repository queries without a supporting index.
+     * Runs before the data initializer, so the unique index on email is in place before the first insert.
+     * Creating an index that already exists does nothing.
+     *
+     * @param mongoTemplate  The MongoTemplate used to manage the indexes.
+     * @param mappingContext The mapping context used to resolve property names to field names.
+     * @return The application runner.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ApplicationRunner studentIndexInitializer(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        return args -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(Student.class);
+            if (createIndexes) {
+                STUDENT_INDEXES.forEach(indexOps::ensureIndex);
+            }
+            backfillNameKeys(mongoTemplate);
+            if (checkIndexes) {
+                List<String> findings = IndexAdvisor.advise(indexOps.getIndexInfo(), STUDENT_INDEXES,
+                        StudentRepository.class, Student.class, mappingContext);
+                findings.forEach(log::warn);
+                if (findings.isEmpty()) {
+                    log.info("All indexes are in place and every StudentRepository query has a supporting index");
+                }
+            }
+        };
+    }
+
+    /**
+     * Sets {@code nameKey} on students stored before it was introduced, in unordered bulk updates.
+     * Students written since carry it already, so this finds nothing after the first run.
+     *
+     * @param mongoTemplate The MongoTemplate used to read and update the students.
+     */
+    private static void backfillNameKeys(MongoTemplate mongoTemplate) {
+        Query missing = Query.query(Criteria.where("nameKey").exists(false).and("name").type(JsonSchemaObject.Type.STRING));
+        missing.fields().include("name");
+        long updated = 0;
+        List<Student> chunk = new ArrayList<>(BACKFILL_CHUNK_SIZE);
+        try (Stream<Student> students = mongoTemplate.stream(missing, Student.class)) {
+            Iterator<Student> iterator = students.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == BACKFILL_CHUNK_SIZE || !iterator.hasNext()) {
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class);
+                    chunk.forEach(student -> bulk.updateOne(Query.query(Criteria.where("id").is(student.getId())),
+                            Update.update("nameKey", student.getNameKey())));
+                    updated += bulk.execute().getModifiedCount();
+                    chunk.clear();
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Stored the normalized name of {} existing students", updated);
+        }
+    }
+}
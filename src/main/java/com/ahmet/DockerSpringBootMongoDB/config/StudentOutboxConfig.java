@@ -0,0 +1,79 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import com.ahmet.DockerSpringBootMongoDB.service.FileStudentOutboxSink;
+import com.ahmet.DockerSpringBootMongoDB.service.LogStudentOutboxSink;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentOutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the student outbox.
+ *
+ * Provides the transaction managers the student services write their changes and outbox events with,
+ * and the sink the outbox relay delivers to, chosen with {@code students.outbox.sink}: {@code log} or {@code file}.
+ * With any other value no built-in sink is created, and the application declares its own {@link StudentOutboxSink} bean.
+ */
+@Configuration
+public class StudentOutboxConfig {
+
+    /**
+     * Creates the transaction manager of the blocking stack.
+     * It is bound to the database factory of the MongoTemplate, so the template and the repositories
+     * take part in its transactions.
+     *
+     * @param mongoTemplate The MongoTemplate.
+     * @return A new transaction manager.
+     */
+    @Bean
+    public MongoTransactionManager transactionManager(MongoTemplate mongoTemplate) {
+        return new MongoTransactionManager(mongoTemplate.getMongoDatabaseFactory());
+    }
+
+    /**
+     * Creates the transaction manager of the reactive stack.
+     *
+     * @param mongoTemplate The ReactiveMongoTemplate.
+     * @return A new reactive transaction manager.
+     */
+    @Bean
+    @Profile("reactive")
+    public ReactiveMongoTransactionManager reactiveTransactionManager(ReactiveMongoTemplate mongoTemplate) {
+        return new ReactiveMongoTransactionManager(mongoTemplate.getMongoDatabaseFactory());
+    }
+
+    /**
+     * Creates the sink logging the events, the default when {@code students.outbox.sink} is not set.
+     *
+     * @param objectMapper The ObjectMapper serializing the events.
+     * @return The sink.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "students.outbox.sink", havingValue = "log", matchIfMissing = true)
+    public StudentOutboxSink logStudentOutboxSink(ObjectMapper objectMapper) {
+        return new LogStudentOutboxSink(objectMapper);
+    }
+
+    /**
+     * Creates the sink writing a file per batch, when {@code students.outbox.sink} is {@code file}.
+     *
+     * @param directory    The directory of the files written by the sink.
+     * @param objectMapper The ObjectMapper serializing the events.
+     * @return The sink.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "students.outbox.sink", havingValue = "file")
+    public StudentOutboxSink fileStudentOutboxSink(@Value("${students.outbox.file.directory:outbox}") String directory,
+                                                   ObjectMapper objectMapper) {
+        return new FileStudentOutboxSink(Path.of(directory), objectMapper);
+    }
+}
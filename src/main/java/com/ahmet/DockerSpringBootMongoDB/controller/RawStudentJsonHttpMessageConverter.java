@@ -0,0 +1,78 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentJson;
+import com.ahmet.DockerSpringBootMongoDB.dto.RawStudentPage;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.RawBsonDocument;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Writes raw student documents as JSON by transcoding their BSON with {@link StudentJson},
+ * so the pass-through reads of {@link StudentController} never build Students.
+ * A single {@link RawBsonDocument} is written as a JSON object, a {@link RawStudentPage} as a JSON array
+ * of its documents; its continuation token is sent in a header by the controller.
+ * Registered ahead of Jackson's converter by Spring Boot, and only ever writes these two types.
+ */
+@Component
+@Profile("!reactive")
+public class RawStudentJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates the converter.
+     * @param objectMapper The application's object mapper, whose factory creates the JSON generators.
+     */
+    public RawStudentJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RawBsonDocument.class.isAssignableFrom(clazz) || RawStudentPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Raw student documents are only written", inputMessage);
+    }
+
+    /**
+     * Writes a raw student document or a page of them to the response body.
+     * @param body The RawBsonDocument or RawStudentPage to write.
+     * @param outputMessage The response.
+     * @throws IOException if writing to the response fails.
+     */
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (body instanceof RawStudentPage page) {
+                generator.writeStartArray();
+                for (RawBsonDocument document : page.getDocuments()) {
+                    StudentJson.write(document, generator);
+                }
+                generator.writeEndArray();
+            } else {
+                StudentJson.write((RawBsonDocument) body, generator);
+            }
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkDeleteResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
+import com.ahmet.DockerSpringBootMongoDB.dto.PartialUpdateStudentResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentChange;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchHit;
+import com.ahmet.DockerSpringBootMongoDB.dto.UpdateStudentResponse;
+import com.ahmet.DockerSpringBootMongoDB.exception.ResourceNotFoundException;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentChangeFeed;
+import com.ahmet.DockerSpringBootMongoDB.service.ReactiveStudentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking controller for handling student-related operations.
+ * It serves the same routes as {@link StudentController} on WebFlux and is only active under the
+ * "reactive" profile. No request holds a thread while waiting on MongoDB, and list results are
+ * written as they are read from the cursor, at the pace the client consumes them.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/students")
+public class ReactiveStudentController {
+    @Autowired
+    private ReactiveStudentService studentService;
+    @Autowired
+    private StudentChangeFeed studentChangeFeed;
+
+    @Value("${students.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${students.changes.heartbeat:15s}")
+    private Duration changesHeartbeat;
+
+    /**
+     * Creates a new student in the database.
+     * @param student The student to be created.
+     * @return A ResponseEntity with a message including the new student's ID.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<String>> save(@RequestBody Student student) {
+        return studentService.save(student)
+                .map(id -> ResponseEntity.status(HttpStatus.CREATED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(String.format("{\"message\": \"A new student is successfully created with ID: %s\"}", id)));
+    }
+
+    /**
+     * Creates many students in one request.
+     * The body is either a JSON array or newline-delimited JSON and is decoded element by element
+     * as the service asks for more, so the whole batch is never held in memory.
+     * @param students The students decoded from the request body.
+     * @return A ResponseEntity with the number of inserted students and the error of every rejected one.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BulkInsertResponse>> bulkInsert(@RequestBody Flux<Student> students) {
+        return studentService.bulkInsert(students).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Retrieves all students from the database.
+     * Without paging parameters, the students are written as a JSON array while the cursor is read.
+     * @param limit The maximum number of students per page.
+     * @param pageToken The token returned with the previous page.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return A ResponseEntity containing all students, or one page of students.
+     */
+    @GetMapping("/all")
+    public Mono<ResponseEntity<Flux<Student>>> findAll(@RequestParam(value = "limit", required = false) Integer limit,
+                                                       @RequestParam(value = "pageToken", required = false) String pageToken,
+                                                       @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (isPaged(limit, pageToken)) {
+            return studentService.findAll(pageToken, pageSize(limit), fields).map(page -> toResponse(page, false));
+        }
+        return Mono.just(ResponseEntity.ok(studentService.findAll(fields)));
+    }
+
+    /**
+     * Streams all students as newline-delimited JSON.
+     * Each student is written as soon as it is read, and the cursor only fetches the next batch
+     * once the client has consumed the previous one.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return The students, one JSON object per line.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Student> streamAll(@RequestParam(value = "fields", required = false) List<String> fields) {
+        return studentService.findAll(fields);
+    }
+
+    /**
+     * Finds a student by their ID.
+     * The student's version is returned as the ETag, so a request with a matching
+     * If-None-Match header is answered with 304 Not Modified and no body.
+     * @param id The ID of the student to find.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return A ResponseEntity containing the found student, or a 404 status if not found.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Student>> findById(@PathVariable String id,
+                                                  @RequestParam(value = "fields", required = false) List<String> fields) {
+        return studentService.findById(id, fields)
+                .map(student -> StudentETags.withETag(ResponseEntity.ok(), student).body(student));
+    }
+
+    /**
+     * Finds students whose names start with a given prefix.
+     * @param name The prefix to match against student names.
+     * @param ignoreCase Whether to ignore case and accents when matching.
+     * @param limit The maximum number of students per page.
+     * @param pageToken The token returned with the previous page.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return A ResponseEntity containing the matching students, or a 204 status if none found.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<Student>>> getStudentStartWith(@RequestParam("name") String name,
+                                                                   @RequestParam(value = "ignoreCase", defaultValue = "false") boolean ignoreCase,
+                                                                   @RequestParam(value = "limit", required = false) Integer limit,
+                                                                   @RequestParam(value = "pageToken", required = false) String pageToken,
+                                                                   @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (isPaged(limit, pageToken)) {
+            Mono<StudentPage> page = ignoreCase
+                    ? studentService.getStudentStartWithIgnoreCase(name, pageToken, pageSize(limit), fields)
+                    : studentService.getStudentStartWith(name, pageToken, pageSize(limit), fields);
+            return page.map(students -> toResponse(students, true));
+        }
+        return okOrNoContent(ignoreCase
+                ? studentService.getStudentStartWithIgnoreCase(name, fields)
+                : studentService.getStudentStartWith(name, fields));
+    }
+
+    /**
+     * Searches students by free text in their name, courses and address city, most relevant first.
+     * @param q The search terms.
+     * @param limit The maximum number of hits per page.
+     * @param pageToken The token returned with the previous page.
+     * @return A ResponseEntity containing the hits with their scores, or a 204 status if none found.
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<StudentSearchHit>>> search(@RequestParam("q") String q,
+                                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                                               @RequestParam(value = "pageToken", required = false) String pageToken) {
+        if (q.isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return studentService.search(q, pageToken, pageSize(limit)).map(page -> {
+            if (page.getHits().isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextPageToken() != null) {
+                response.header(StudentController.NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+            }
+            return response.body(page.getHits());
+        });
+    }
+
+    /**
+     * Counts students per course, with the full-time share and the average GPA and age of each course.
+     * @return A ResponseEntity containing the statistics per course, largest first, or a 204 status if there are no students.
+     */
+    @GetMapping("/stats/courses")
+    public Mono<ResponseEntity<List<StudentGroupStats>>> statsByCourse() {
+        return studentService.statsByCourse().map(ReactiveStudentController::okOrNoContent);
+    }
+
+    /**
+     * Counts students per address city, with the full-time share and the average GPA and age in each city.
+     * @return A ResponseEntity containing the statistics per city, largest first, or a 204 status if there are no students.
+     */
+    @GetMapping("/stats/cities")
+    public Mono<ResponseEntity<List<StudentGroupStats>>> statsByCity() {
+        return studentService.statsByCity().map(ReactiveStudentController::okOrNoContent);
+    }
+
+    /**
+     * Compares full-time with part-time students by count and average GPA and age.
+     * @return A ResponseEntity containing the statistics per value of fullTime, or a 204 status if there are no students.
+     */
+    @GetMapping("/stats/full-time")
+    public Mono<ResponseEntity<List<StudentGroupStats>>> statsByFullTime() {
+        return studentService.statsByFullTime().map(ReactiveStudentController::okOrNoContent);
+    }
+
+    /**
+     * Counts students per age range.
+     * @param boundaries The ascending range boundaries, or the configured defaults if omitted.
+     * @return The buckets, one per range.
+     */
+    @GetMapping("/stats/ages")
+    public Mono<List<HistogramBucket>> ageHistogram(@RequestParam(value = "boundaries", required = false) List<Integer> boundaries) {
+        return studentService.ageHistogram(boundaries);
+    }
+
+    /**
+     * Counts students per GPA range.
+     * @param boundaries The ascending range boundaries, or the configured defaults if omitted.
+     * @return The buckets, one per range.
+     */
+    @GetMapping("/stats/gpa")
+    public Mono<List<HistogramBucket>> gpaHistogram(@RequestParam(value = "boundaries", required = false) List<Double> boundaries) {
+        return studentService.gpaHistogram(boundaries);
+    }
+
+    /**
+     * Lists the number of students per course, as kept up to date on every write.
+     * @return A ResponseEntity containing the enrollments per course, largest first, or a 204 status if there are none.
+     */
+    @GetMapping("/stats/enrollments")
+    public Mono<ResponseEntity<List<CourseStats>>> getCourseEnrollments() {
+        return studentService.getCourseEnrollments().map(ReactiveStudentController::okOrNoContent);
+    }
+
+    /**
+     * Recomputes the number of students per course from the students, repairing counts that drifted.
+     * @return The rebuilt enrollments per course, largest first.
+     */
+    @PostMapping("/stats/enrollments/rebuild")
+    public Mono<List<CourseStats>> rebuildCourseStats() {
+        return studentService.rebuildCourseStats();
+    }
+
+    /**
+     * Streams the changes to students as server-sent events.
+     * @param lastEventId The resume token of the last event received, sent by EventSource on reconnection.
+     * @param resumeAfter The resume token of the last event received, for clients that cannot set headers.
+     * @return The stream of change events.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<StudentChange>> changes(@RequestHeader(value = StudentChangeEvents.LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+                                                        @RequestParam(value = "resumeAfter", required = false) String resumeAfter) {
+        return StudentChangeEvents.toServerSentEvents(
+                studentChangeFeed.changes(StudentChangeEvents.resumeToken(lastEventId, resumeAfter)), changesHeartbeat);
+    }
+
+    /**
+     * Finds students within a specified age range.
+     * @param minAge The minimum age of students to find.
+     * @param maxAge The maximum age of students to find.
+     * @param limit The maximum number of students per page.
+     * @param pageToken The token returned with the previous page.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return A ResponseEntity containing the students within the age range, or a 204 status if none found.
+     */
+    @GetMapping("/age")
+    public Mono<ResponseEntity<Flux<Student>>> getByPersonAge(@RequestParam("minAge") int minAge, @RequestParam("maxAge") int maxAge,
+                                                              @RequestParam(value = "limit", required = false) Integer limit,
+                                                              @RequestParam(value = "pageToken", required = false) String pageToken,
+                                                              @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (isPaged(limit, pageToken)) {
+            return studentService.getByPersonAge(minAge, maxAge, pageToken, pageSize(limit), fields).map(page -> toResponse(page, true));
+        }
+        return okOrNoContent(studentService.getByPersonAge(minAge, maxAge, fields));
+    }
+
+    /**
+     * Partially updates a student by their ID with the provided student information.
+     * With an If-Match header, the update is only applied if the student is still at that version.
+     * @param id The ID of the student to update.
+     * @param ifMatch The ETag the client last saw, if any.
+     * @param student The student information to update.
+     * @return A ResponseEntity containing the response of the partial update operation.
+     */
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<PartialUpdateStudentResponse>> partiallyUpdateStudent(@PathVariable String id,
+                                                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                                     @RequestBody Student student) {
+        return studentService.partiallyUpdateStudent(id, student, StudentETags.parseIfMatch(id, ifMatch))
+                .map(updatedStudent -> StudentETags.withETag(ResponseEntity.ok(), updatedStudent).body(new PartialUpdateStudentResponse(
+                        "Student partially updated successfully with ID: " + id, updatedStudent)));
+    }
+
+    /**
+     * Deletes a student by their ID.
+     * With an If-Match header, the student is only deleted if it is still at that version.
+     * @param id The ID of the student to delete.
+     * @param ifMatch The ETag the client last saw, if any.
+     * @return A ResponseEntity with a 204 status code if the deletion was successful, or a 404 status if not found.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteById(@PathVariable String id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return studentService.deleteById(id, StudentETags.parseIfMatch(id, ifMatch))
+                .map(deleted -> deleted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * Deletes every student matching all of the given criteria in one operation.
+     * At least one criterion is required.
+     * @param ids The IDs of the students to delete.
+     * @param namePrefix The prefix the names of the students to delete start with.
+     * @param minAge The minimum age of the students to delete.
+     * @param maxAge The maximum age of the students to delete.
+     * @return A ResponseEntity with the number of deleted students, or a 400 status if no criterion is given.
+     */
+    @DeleteMapping
+    public Mono<ResponseEntity<BulkDeleteResponse>> deleteMany(@RequestParam(value = "ids", required = false) List<String> ids,
+                                                               @RequestParam(value = "namePrefix", required = false) String namePrefix,
+                                                               @RequestParam(value = "minAge", required = false) Integer minAge,
+                                                               @RequestParam(value = "maxAge", required = false) Integer maxAge) {
+        boolean hasCriterion = (ids != null && !ids.isEmpty()) || (namePrefix != null && !namePrefix.isEmpty())
+                || minAge != null || maxAge != null;
+        if (!hasCriterion) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return studentService.deleteMany(ids, namePrefix, minAge, maxAge)
+                .map(deleted -> ResponseEntity.ok(new BulkDeleteResponse(deleted)));
+    }
+
+    /**
+     * Updates an existing student with the provided student information.
+     * With an If-Match header, the update is only applied if the student is still at that version.
+     * @param id The ID of the student to update.
+     * @param ifMatch The ETag the client last saw, if any.
+     * @param student The new student information.
+     * @return A ResponseEntity containing the response of the update operation.
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UpdateStudentResponse>> updateStudent(@PathVariable String id,
+                                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                     @RequestBody Student student) {
+        student.setId(id); // Ensure the student's ID is set to the path variable
+        return studentService.updateStudentDetails(id, student, StudentETags.parseIfMatch(id, ifMatch))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Student", "id", id)))
+                .map(body -> StudentETags.withETag(ResponseEntity.ok(), body).body(
+                        new UpdateStudentResponse("Student updated successfully with ID: " + id, body)));
+    }
+
+    /**
+     * Checks whether a list request asks for keyset pagination.
+     * @param limit The requested page size, if any.
+     * @param pageToken The requested page token, if any.
+     * @return true if either paging parameter is present.
+     */
+    private boolean isPaged(Integer limit, String pageToken) {
+        return limit != null || pageToken != null;
+    }
+
+    /**
+     * Resolves the requested page size, falling back to {@code students.page.default-size}.
+     * @param limit The requested page size, if any.
+     * @return The page size to request from the service.
+     */
+    private int pageSize(Integer limit) {
+        return limit != null ? limit : defaultPageSize;
+    }
+
+    /**
+     * Builds the response for one page of students.
+     * The continuation token, if any, is sent in the {@value StudentController#NEXT_PAGE_TOKEN_HEADER} header.
+     * @param page The page of students.
+     * @param noContentWhenEmpty Whether an empty page is answered with a 204 status.
+     * @return A ResponseEntity containing the students of the page.
+     */
+    private ResponseEntity<Flux<Student>> toResponse(StudentPage page, boolean noContentWhenEmpty) {
+        if (noContentWhenEmpty && page.getStudents().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            response.header(StudentController.NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return response.body(Flux.fromIterable(page.getStudents()));
+    }
+
+    /**
+     * Answers with the students, or with a 204 status if there are none.
+     * Only the first student is awaited before the status is decided; the rest are still
+     * written as they arrive.
+     * @param students The students to return.
+     * @return A ResponseEntity streaming the students, or a 204 status if there are none.
+     */
+    private Mono<ResponseEntity<Flux<Student>>> okOrNoContent(Flux<Student> students) {
+        return students.switchOnFirst((first, all) -> {
+            if (first.isOnError()) {
+                return Mono.<ResponseEntity<Flux<Student>>>error(first.getThrowable());
+            }
+            if (!first.hasValue()) {
+                return Mono.just(ResponseEntity.noContent().<Flux<Student>>build());
+            }
+            return Mono.just(ResponseEntity.ok(all));
+        }, false).single();
+    }
+
+    private static <T> ResponseEntity<List<T>> okOrNoContent(List<T> body) {
+        return body.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.dto.SlowQuery;
+import com.ahmet.DockerSpringBootMongoDB.service.SlowQueryDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint at {@code /actuator/slowqueries} listing the most recent slow MongoDB queries
+ * with their winning plans.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    @Autowired
+    private SlowQueryDetector slowQueryDetector;
+
+    /**
+     * Returns the recorded slow queries, most recent first.
+     *
+     * @return The slow queries.
+     */
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return slowQueryDetector.getSlowQueries();
+    }
+
+    /**
+     * Removes all recorded slow queries, e.g. after adding an index.
+     */
+    @DeleteOperation
+    public void clear() {
+        slowQueryDetector.clear();
+    }
+}
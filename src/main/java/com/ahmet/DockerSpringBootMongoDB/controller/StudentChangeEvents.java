@@ -0,0 +1,52 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentChange;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Conversion of student changes into server-sent events, shared by the servlet and the reactive controllers.
+ */
+final class StudentChangeEvents {
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private StudentChangeEvents() {
+    }
+
+    /**
+     * Turns changes into server-sent events named after the operation, with the resume token as event id,
+     * so a client that reconnects sends the token back in the {@value #LAST_EVENT_ID_HEADER} header.
+     * While the changes are open, a comment is sent whenever the heartbeat interval passes, so idle
+     * connections are kept open by proxies and closed connections are noticed.
+     * @param changes The changes to send.
+     * @param heartbeat The interval between heartbeat comments.
+     * @return The events.
+     */
+    static Flux<ServerSentEvent<StudentChange>> toServerSentEvents(Flux<StudentChange> changes, Duration heartbeat) {
+        return changes.publish(shared -> Flux.merge(
+                shared.map(change -> ServerSentEvent.builder(change)
+                        .id(change.getResumeToken())
+                        .event(change.getOperation())
+                        .build()),
+                Flux.interval(heartbeat)
+                        .map(tick -> ServerSentEvent.<StudentChange>builder().comment("heartbeat").build())
+                        .takeUntilOther(shared.then())));
+    }
+
+    /**
+     * Picks the resume token from the {@value #LAST_EVENT_ID_HEADER} header sent on reconnection,
+     * or else from the request parameter.
+     * @param lastEventId The Last-Event-ID header value, if any.
+     * @param resumeAfter The resumeAfter parameter value, if any.
+     * @return The resume token, or null to start with new changes.
+     */
+    static String resumeToken(String lastEventId, String resumeAfter) {
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            return lastEventId.trim();
+        }
+        return resumeAfter == null || resumeAfter.isBlank() ? null : resumeAfter.trim();
+    }
+}
@@ -1,32 +1,80 @@
 package com.ahmet.DockerSpringBootMongoDB.controller;
 
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
 import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentJson;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkDeleteResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
 import com.ahmet.DockerSpringBootMongoDB.dto.PartialUpdateStudentResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.RawStudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentChange;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchHit;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
 import com.ahmet.DockerSpringBootMongoDB.dto.UpdateStudentResponse;
 import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentChangeFeed;
 import com.ahmet.DockerSpringBootMongoDB.service.StudentService;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidBulkInputException;
+import com.ahmet.DockerSpringBootMongoDB.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.bson.RawBsonDocument;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Controller for handling student-related operations.
  * This controller provides endpoints for CRUD operations on students.
+ * It serves the servlet stack and is replaced by {@link ReactiveStudentController} under the "reactive" profile.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/students")
 public class StudentController {
     @Autowired
     private StudentService studentService;
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private StudentChangeFeed studentChangeFeed;
+
+    @Value("${students.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${students.changes.heartbeat:15s}")
+    private Duration changesHeartbeat;
+
+    @Value("${students.json.pass-through.enabled:false}")
+    private boolean passThrough;
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
 
     /**
      * Creates a new student in the database.
@@ -37,7 +85,8 @@ public class StudentController {
     @Operation(summary = "Create a new student")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Student created successfully"),
-            @ApiResponse(responseCode = "400", description = "Bad Request")
+            @ApiResponse(responseCode = "400", description = "Bad Request"),
+            @ApiResponse(responseCode = "412", description = "Student is not at the given version")
     })
     public ResponseEntity<String> save(@RequestBody Student student) {
         String result = studentService.save(student);
@@ -47,53 +96,183 @@ public class StudentController {
                 .body(message);
     }
 
+    /**
+     * Creates many students in one request.
+     * The body is either a JSON array or newline-delimited JSON and is parsed incrementally,
+     * so the whole batch is never held in memory.
+     * @param body The request body stream.
+     * @return A ResponseEntity with the number of inserted students and the error of every rejected one.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    @Operation(summary = "Create many students in unordered bulk writes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bulk insert completed, possibly with rejected students"),
+            @ApiResponse(responseCode = "400", description = "Malformed request body")
+    })
+    public ResponseEntity<BulkInsertResponse> bulkInsert(InputStream body) throws IOException {
+        try (MappingIterator<Student> students = objectMapper.readerFor(Student.class).readValues(body)) {
+            return ResponseEntity.ok(studentService.bulkInsert(failOnMalformedInput(students)));
+        }
+    }
+
     /**
      * Retrieves all students from the database.
-     * @return A ResponseEntity containing a list of all students.
+     * When {@code limit} or {@code pageToken} is given, a single page ordered by id is returned
+     * and the token for the next page is sent in the {@value #NEXT_PAGE_TOKEN_HEADER} header.
+     * With {@code students.json.pass-through.enabled}, the documents are transcoded from BSON to JSON
+     * without being read into students.
+     * @param limit The maximum number of students per page.
+     * @param pageToken The token returned with the previous page.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return A ResponseEntity containing a list of all students, or of one page of students.
      */
     @GetMapping("/all")
     @Operation(summary = "Find all students in the database")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully found students"),
-            @ApiResponse(responseCode = "204", description = "No students found")
+            @ApiResponse(responseCode = "204", description = "No students found"),
+            @ApiResponse(responseCode = "400", description = "Invalid page token or unknown field")
     })
-    public ResponseEntity<List<Student>> findAll() {
-        List<Student> students = studentService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "limit", required = false) Integer limit,
+                                     @RequestParam(value = "pageToken", required = false) String pageToken,
+                                     @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (passThrough) {
+            RawStudentPage page = isPaged(limit, pageToken)
+                    ? studentService.findAllRaw(pageToken, pageSize(limit), fields)
+                    : new RawStudentPage(studentService.findAllRaw(fields), null);
+            return toResponse(page, false);
+        }
+        if (isPaged(limit, pageToken)) {
+            StudentPage page = fields == null
+                    ? studentService.findAll(pageToken, pageSize(limit))
+                    : studentService.findAll(pageToken, pageSize(limit), fields);
+            return toResponse(page, false);
+        }
+        List<Student> students = fields == null ? studentService.findAll() : studentService.findAll(fields);
         return ResponseEntity.ok(students);
     }
 
+    /**
+     * Streams all students as newline-delimited JSON.
+     * Each document is written to the response as soon as it is read from the cursor,
+     * so memory use stays flat regardless of the collection size.
+     * @param fields The fields to return, or all fields if omitted.
+     * @return A ResponseEntity whose body writes one student JSON object per line.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Stream all students as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed students"),
+            @ApiResponse(responseCode = "400", description = "Unknown field")
+    })
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(value = "fields", required = false) List<String> fields) {
+        ObjectWriter writer = objectMapper.writerFor(Student.class);
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Student> students = fields == null ? studentService.streamAll() : studentService.streamAll(fields)) {
+                writeNdjson(students.iterator(), writer, outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Writes each student as a single JSON line to the given output stream.
+     * @param students The students to write.
+     * @param writer The Jackson writer used to serialize each student.
+     * @param outputStream The response output stream.
+     * @throws IOException if writing to the response fails.
+     */
+    private void writeNdjson(Iterator<Student> students, ObjectWriter writer, OutputStream outputStream) throws IOException {
+        while (students.hasNext()) {
+            outputStream.write(writer.writeValueAsBytes(students.next()));
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+    }
+
     /**
      * Finds a student by their ID.
+     * The student's version is returned as the ETag, so a request with a matching
+     * If-None-Match header is answered with 304 Not Modified and no body.
+     * With {@code students.json.pass-through.enabled}, the document is transcoded from BSON to JSON
+     * without being read into a student, and the student cache is not used.
      * @param id The ID of the student to find.
+     * @param fields The fields to return, or all fields if omitted.
      * @return A ResponseEntity containing the found student or a 404 status if not found.
      */
     @GetMapping("/{id}")
     @Operation(summary = "Find a student by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully found the student"),
+            @ApiResponse(responseCode = "304", description = "Student not modified since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Unknown field"),
             @ApiResponse(responseCode = "404", description = "Student not found")
     })
-    public ResponseEntity<Student> findById(@PathVariable String id) {
-        Student student = studentService.findById(id);
+    public ResponseEntity<?> findById(@PathVariable String id,
+                                      @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (passThrough) {
+            RawBsonDocument document = studentService.findRawById(id, fields);
+            return StudentETags.withETag(ResponseEntity.ok(), StudentJson.version(document)).body(document);
+        }
+        Student student = fields == null ? studentService.findById(id) : studentService.findById(id, fields);
         if (student == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(student);
+        return StudentETags.withETag(ResponseEntity.ok(), student).body(student);
     }
 
     /**
      * Finds students whose names start with a given prefix.
+     * When {@code limit} or {@code pageToken} is given, a single page ordered by name and id is returned.
+     * With {@code ignoreCase=true}, case and accents are ignored, so "flying" finds "Flying Dutchman".
+     * With {@code students.json.pass-through.enabled}, the documents are transcoded from BSON to JSON.
      * @param name The prefix to match against student names.
+     * @param ignoreCase Whether to ignore case and accents when matching.
+     * @param limit The maximum number of students per page.
+     * @param pageToken The token returned with the previous page.
+     * @param fields The fields to return, or all fields if omitted.
      * @return A ResponseEntity containing a list of matching students or a 204 status if none found.
      */
     @GetMapping
     @Operation(summary = "Find students starting with a given name")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully found students"),
-            @ApiResponse(responseCode = "204", description = "No students found")
+            @ApiResponse(responseCode = "204", description = "No students found"),
+            @ApiResponse(responseCode = "400", description = "Invalid page token or unknown field")
     })
-    public ResponseEntity<List<Student>> getStudentStartWith(@RequestParam("name") String name) {
-        List<Student> students = studentService.getStudentStartWith(name);
+    public ResponseEntity<?> getStudentStartWith(@RequestParam("name") String name,
+                                                 @RequestParam(value = "ignoreCase", defaultValue = "false") boolean ignoreCase,
+                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                 @RequestParam(value = "pageToken", required = false) String pageToken,
+                                                 @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (passThrough) {
+            RawStudentPage page = isPaged(limit, pageToken)
+                    ? studentService.getStudentStartWithRaw(name, ignoreCase, pageToken, pageSize(limit), fields)
+                    : new RawStudentPage(studentService.getStudentStartWithRaw(name, ignoreCase, fields), null);
+            return toResponse(page, true);
+        }
+        if (isPaged(limit, pageToken)) {
+            StudentPage page;
+            if (ignoreCase) {
+                page = studentService.getStudentStartWithIgnoreCase(name, pageToken, pageSize(limit), fields);
+            } else {
+                page = fields == null
+                        ? studentService.getStudentStartWith(name, pageToken, pageSize(limit))
+                        : studentService.getStudentStartWith(name, pageToken, pageSize(limit), fields);
+            }
+            return toResponse(page, true);
+        }
+        List<Student> students;
+        if (ignoreCase) {
+            students = studentService.getStudentStartWithIgnoreCase(name, fields);
+        } else {
+            students = fields == null
+                    ? studentService.getStudentStartWith(name)
+                    : studentService.getStudentStartWith(name, fields);
+        }
         if (students.isEmpty()) {
             return ResponseEntity.noContent().build();
         } else {
@@ -101,20 +280,197 @@ public class StudentController {
         }
     }
 
+    /**
+     * Searches students by free text in their name, courses and address city, most relevant first.
+     * Results are always paged; the token for the next page is sent in the {@value #NEXT_PAGE_TOKEN_HEADER} header.
+     * @param q The search terms. Quoted phrases and terms prefixed with {@code -} are supported.
+     * @param limit The maximum number of hits per page.
+     * @param pageToken The token returned with the previous page.
+     * @return A ResponseEntity containing the hits with their scores, or a 204 status if none found.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search students by name, courses and city")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully found students"),
+            @ApiResponse(responseCode = "204", description = "No students found"),
+            @ApiResponse(responseCode = "400", description = "Missing search terms or invalid page token")
+    })
+    public ResponseEntity<List<StudentSearchHit>> search(@RequestParam("q") String q,
+                                                         @RequestParam(value = "limit", required = false) Integer limit,
+                                                         @RequestParam(value = "pageToken", required = false) String pageToken) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        StudentSearchPage page = studentService.search(q, pageToken, pageSize(limit));
+        if (page.getHits().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            response.header(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return response.body(page.getHits());
+    }
+
+    /**
+     * Counts students per course, with the full-time share and the average GPA and age of each course.
+     * A student taking several courses is counted in each of them.
+     * @return A ResponseEntity containing the statistics per course, largest first, or a 204 status if there are no students.
+     */
+    @GetMapping("/stats/courses")
+    @Operation(summary = "Get student statistics per course")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed statistics"),
+            @ApiResponse(responseCode = "204", description = "No students found")
+    })
+    public ResponseEntity<List<StudentGroupStats>> statsByCourse() {
+        return okOrNoContent(studentService.statsByCourse());
+    }
+
+    /**
+     * Counts students per address city, with the full-time share and the average GPA and age in each city.
+     * @return A ResponseEntity containing the statistics per city, largest first, or a 204 status if there are no students.
+     */
+    @GetMapping("/stats/cities")
+    @Operation(summary = "Get student statistics per city")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed statistics"),
+            @ApiResponse(responseCode = "204", description = "No students found")
+    })
+    public ResponseEntity<List<StudentGroupStats>> statsByCity() {
+        return okOrNoContent(studentService.statsByCity());
+    }
+
+    /**
+     * Compares full-time with part-time students by count and average GPA and age.
+     * @return A ResponseEntity containing the statistics per value of fullTime, or a 204 status if there are no students.
+     */
+    @GetMapping("/stats/full-time")
+    @Operation(summary = "Get statistics of full-time and part-time students")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed statistics"),
+            @ApiResponse(responseCode = "204", description = "No students found")
+    })
+    public ResponseEntity<List<StudentGroupStats>> statsByFullTime() {
+        return okOrNoContent(studentService.statsByFullTime());
+    }
+
+    /**
+     * Counts students per age range.
+     * @param boundaries The ascending range boundaries, or the configured defaults if omitted.
+     * @return A ResponseEntity containing one bucket per range.
+     */
+    @GetMapping("/stats/ages")
+    @Operation(summary = "Get the age histogram of students")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the histogram"),
+            @ApiResponse(responseCode = "400", description = "Fewer than two or unordered boundaries")
+    })
+    public ResponseEntity<List<HistogramBucket>> ageHistogram(@RequestParam(value = "boundaries", required = false) List<Integer> boundaries) {
+        return ResponseEntity.ok(studentService.ageHistogram(boundaries));
+    }
+
+    /**
+     * Counts students per GPA range.
+     * @param boundaries The ascending range boundaries, or the configured defaults if omitted.
+     * @return A ResponseEntity containing one bucket per range.
+     */
+    @GetMapping("/stats/gpa")
+    @Operation(summary = "Get the GPA histogram of students")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the histogram"),
+            @ApiResponse(responseCode = "400", description = "Fewer than two or unordered boundaries")
+    })
+    public ResponseEntity<List<HistogramBucket>> gpaHistogram(@RequestParam(value = "boundaries", required = false) List<Double> boundaries) {
+        return ResponseEntity.ok(studentService.gpaHistogram(boundaries));
+    }
+
+    /**
+     * Lists the number of students per course, as kept up to date on every write.
+     * Unlike the course statistics, this does not aggregate the students and is cheap to call often.
+     * @return A ResponseEntity containing the enrollments per course, largest first, or a 204 status if there are none.
+     */
+    @GetMapping("/stats/enrollments")
+    @Operation(summary = "Get the number of students per course")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved enrollments"),
+            @ApiResponse(responseCode = "204", description = "No enrollments found")
+    })
+    public ResponseEntity<List<CourseStats>> getCourseEnrollments() {
+        return okOrNoContent(studentService.getCourseEnrollments());
+    }
+
+    /**
+     * Recomputes the number of students per course from the students, repairing counts that drifted.
+     * @return A ResponseEntity containing the rebuilt enrollments per course, largest first.
+     */
+    @PostMapping("/stats/enrollments/rebuild")
+    @Operation(summary = "Rebuild the number of students per course")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Enrollments rebuilt successfully")
+    })
+    public ResponseEntity<List<CourseStats>> rebuildCourseStats() {
+        return ResponseEntity.ok(studentService.rebuildCourseStats());
+    }
+
+    /**
+     * Streams the changes to students as server-sent events, so clients no longer need to poll for them.
+     * Each event is named after the operation and carries the resume token as its id. Inserts carry the student,
+     * updates only the updated and removed fields, and deletions only the ID. A client reconnecting with the
+     * Last-Event-ID header, or the resumeAfter parameter, receives the changes it missed first.
+     * @param lastEventId The resume token of the last event received, sent by EventSource on reconnection.
+     * @param resumeAfter The resume token of the last event received, for clients that cannot set headers.
+     * @return The stream of change events.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream student changes as server-sent events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming changes"),
+            @ApiResponse(responseCode = "400", description = "Invalid resume token")
+    })
+    public Flux<ServerSentEvent<StudentChange>> changes(@RequestHeader(value = StudentChangeEvents.LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+                                                        @RequestParam(value = "resumeAfter", required = false) String resumeAfter) {
+        return StudentChangeEvents.toServerSentEvents(
+                studentChangeFeed.changes(StudentChangeEvents.resumeToken(lastEventId, resumeAfter)), changesHeartbeat);
+    }
+
     /**
      * Finds students within a specified age range.
+     * When {@code limit} or {@code pageToken} is given, a single page ordered by age and id is returned.
+     * With {@code students.json.pass-through.enabled}, the documents are transcoded from BSON to JSON.
      * @param minAge The minimum age of students to find.
      * @param maxAge The maximum age of students to find.
+     * @param limit The maximum number of students per page.
+     * @param pageToken The token returned with the previous page.
+     * @param fields The fields to return, or all fields if omitted.
      * @return A ResponseEntity containing a list of students within the age range or a 204 status if none found.
      */
     @GetMapping("/age")
     @Operation(summary = "Find students by age range")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully found students"),
-            @ApiResponse(responseCode = "204", description = "No students found")
+            @ApiResponse(responseCode = "204", description = "No students found"),
+            @ApiResponse(responseCode = "400", description = "Invalid page token or unknown field")
     })
-    public ResponseEntity<List<Student>> getByPersonAge(@RequestParam("minAge") int minAge, @RequestParam("maxAge") int maxAge) {
-        List<Student> students = studentService.getByPersonAge(minAge, maxAge);
+    public ResponseEntity<?> getByPersonAge(@RequestParam("minAge") int minAge, @RequestParam("maxAge") int maxAge,
+                                            @RequestParam(value = "limit", required = false) Integer limit,
+                                            @RequestParam(value = "pageToken", required = false) String pageToken,
+                                            @RequestParam(value = "fields", required = false) List<String> fields) {
+        if (passThrough) {
+            RawStudentPage page = isPaged(limit, pageToken)
+                    ? studentService.getByPersonAgeRaw(minAge, maxAge, pageToken, pageSize(limit), fields)
+                    : new RawStudentPage(studentService.getByPersonAgeRaw(minAge, maxAge, fields), null);
+            return toResponse(page, true);
+        }
+        if (isPaged(limit, pageToken)) {
+            StudentPage page = fields == null
+                    ? studentService.getByPersonAge(minAge, maxAge, pageToken, pageSize(limit))
+                    : studentService.getByPersonAge(minAge, maxAge, pageToken, pageSize(limit), fields);
+            return toResponse(page, true);
+        }
+        List<Student> students = fields == null
+                ? studentService.getByPersonAge(minAge, maxAge)
+                : studentService.getByPersonAge(minAge, maxAge, fields);
         if (students.isEmpty()) {
             return ResponseEntity.noContent().build();
         } else {
@@ -124,7 +480,9 @@ public class StudentController {
 
     /**
      * Partially updates a student by their ID with the provided student information.
+     * With an If-Match header, the update is only applied if the student is still at that version.
      * @param id The ID of the student to update.
+     * @param ifMatch The ETag the client last saw, if any.
      * @param student The student information to update.
      * @return A ResponseEntity containing the response of the partial update operation.
      */
@@ -132,41 +490,77 @@ public class StudentController {
     @Operation(summary = "Partially update a student by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Student partially updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Student not found")
+            @ApiResponse(responseCode = "404", description = "Student not found"),
+            @ApiResponse(responseCode = "412", description = "Student was modified since the given ETag")
     })
-    public ResponseEntity<PartialUpdateStudentResponse> partiallyUpdateStudent(@PathVariable String id, @RequestBody Student student) {
-        Student updatedStudent = studentService.partiallyUpdateStudent(id, student);
+    public ResponseEntity<PartialUpdateStudentResponse> partiallyUpdateStudent(@PathVariable String id,
+                                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                               @RequestBody Student student) {
+        Student updatedStudent = studentService.partiallyUpdateStudent(id, student, StudentETags.parseIfMatch(id, ifMatch));
         if (updatedStudent == null) {
             return ResponseEntity.notFound().build();
         } else {
             PartialUpdateStudentResponse response = new PartialUpdateStudentResponse(
                     "Student partially updated successfully with ID: " + id, updatedStudent);
-            return ResponseEntity.ok(response);
+            return StudentETags.withETag(ResponseEntity.ok(), updatedStudent).body(response);
         }
     }
 
     /**
      * Deletes a student by their ID.
+     * With an If-Match header, the student is only deleted if it is still at that version.
      * @param id The ID of the student to delete.
+     * @param ifMatch The ETag the client last saw, if any.
      * @return A ResponseEntity with a 204 status code if the deletion was successful.
      */
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a student by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Student deleted successfully"),
-            @ApiResponse(responseCode = "404", description = "Student not found")
+            @ApiResponse(responseCode = "404", description = "Student not found"),
+            @ApiResponse(responseCode = "412", description = "Student was modified since the given ETag")
     })
-    public ResponseEntity<Void> deleteById(@PathVariable String id) {
-        if (!studentService.existsById(id)) {
+    public ResponseEntity<Void> deleteById(@PathVariable String id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!studentService.deleteById(id, StudentETags.parseIfMatch(id, ifMatch))) {
             return ResponseEntity.notFound().build();
         }
-        studentService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes every student matching all of the given criteria in one operation.
+     * At least one criterion is required.
+     * @param ids The IDs of the students to delete.
+     * @param namePrefix The prefix the names of the students to delete start with.
+     * @param minAge The minimum age of the students to delete.
+     * @param maxAge The maximum age of the students to delete.
+     * @return A ResponseEntity with the number of deleted students, or a 400 status if no criterion is given.
+     */
+    @DeleteMapping
+    @Operation(summary = "Delete students by IDs, name prefix and/or age range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching students deleted"),
+            @ApiResponse(responseCode = "400", description = "No delete criterion given")
+    })
+    public ResponseEntity<BulkDeleteResponse> deleteMany(@RequestParam(value = "ids", required = false) List<String> ids,
+                                                         @RequestParam(value = "namePrefix", required = false) String namePrefix,
+                                                         @RequestParam(value = "minAge", required = false) Integer minAge,
+                                                         @RequestParam(value = "maxAge", required = false) Integer maxAge) {
+        boolean hasCriterion = (ids != null && !ids.isEmpty()) || (namePrefix != null && !namePrefix.isEmpty())
+                || minAge != null || maxAge != null;
+        if (!hasCriterion) {
+            return ResponseEntity.badRequest().build();
+        }
+        long deleted = studentService.deleteMany(ids, namePrefix, minAge, maxAge);
+        return ResponseEntity.ok(new BulkDeleteResponse(deleted));
+    }
+
     /**
      * Updates an existing student with the provided student information.
+     * With an If-Match header, the update is only applied if the student is still at that version.
      * @param id The ID of the student to update.
+     * @param ifMatch The ETag the client last saw, if any.
      * @param student The new student information.
      * @return A ResponseEntity containing the response of the update operation.
      */
@@ -174,12 +568,107 @@ public class StudentController {
     @Operation(summary = "Update an existing student")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Student updated successfully"),
-            @ApiResponse(responseCode = "400", description = "Bad Request")
+            @ApiResponse(responseCode = "400", description = "Bad Request"),
+            @ApiResponse(responseCode = "404", description = "Student not found"),
+            @ApiResponse(responseCode = "412", description = "Student was modified since the given ETag")
     })
-    public ResponseEntity<?> updateStudent(@PathVariable String id, @RequestBody Student student) {
+    public ResponseEntity<?> updateStudent(@PathVariable String id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody Student student) {
         student.setId(id); // Ensure the student's ID is set to the path variable
-        studentService.updateStudentDetails(id, student); // Corrected method call
-        UpdateStudentResponse response = new UpdateStudentResponse("Student updated successfully with ID: " + id, student);
-        return ResponseEntity.ok(response); // You might want to return the updated student or a custom response
+        Student body = studentService.updateStudentDetails(id, student, StudentETags.parseIfMatch(id, ifMatch))
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", id));
+        UpdateStudentResponse response = new UpdateStudentResponse("Student updated successfully with ID: " + id, body);
+        return StudentETags.withETag(ResponseEntity.ok(), body).body(response);
+    }
+
+    /**
+     * Checks whether a list request asks for keyset pagination.
+     * @param limit The requested page size, if any.
+     * @param pageToken The requested page token, if any.
+     * @return true if either paging parameter is present.
+     */
+    private boolean isPaged(Integer limit, String pageToken) {
+        return limit != null || pageToken != null;
+    }
+
+    /**
+     * Resolves the requested page size, falling back to {@code students.page.default-size}.
+     * @param limit The requested page size, if any.
+     * @return The page size to request from the service.
+     */
+    private int pageSize(Integer limit) {
+        return limit != null ? limit : defaultPageSize;
+    }
+
+    /**
+     * Builds the response for one page of students.
+     * The continuation token, if any, is sent in the {@value #NEXT_PAGE_TOKEN_HEADER} header.
+     * @param page The page of students.
+     * @param noContentWhenEmpty Whether an empty page is answered with a 204 status.
+     * @return A ResponseEntity containing the students of the page.
+     */
+    private ResponseEntity<List<Student>> toResponse(StudentPage page, boolean noContentWhenEmpty) {
+        if (noContentWhenEmpty && page.getStudents().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            response.header(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return response.body(page.getStudents());
+    }
+
+    /**
+     * Builds the response for a page of raw student documents, which is written as a JSON array.
+     * The continuation token, if any, is sent in the {@value #NEXT_PAGE_TOKEN_HEADER} header.
+     * @param page The page of student documents.
+     * @param noContentWhenEmpty Whether an empty page is answered with a 204 status.
+     * @return A ResponseEntity containing the page.
+     */
+    private ResponseEntity<RawStudentPage> toResponse(RawStudentPage page, boolean noContentWhenEmpty) {
+        if (noContentWhenEmpty && page.getDocuments().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            response.header(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Wraps a parsed request body so that malformed elements are reported as a bad request.
+     * @param students The iterator over the parsed request body.
+     * @return An iterator that throws InvalidBulkInputException on a malformed element.
+     */
+    private Iterator<Student> failOnMalformedInput(MappingIterator<Student> students) {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return students.hasNextValue();
+                } catch (IOException e) {
+                    throw new InvalidBulkInputException(index, e);
+                }
+            }
+
+            @Override
+            public Student next() {
+                try {
+                    return students.nextValue();
+                } catch (IOException e) {
+                    throw new InvalidBulkInputException(index, e);
+                } finally {
+                    index++;
+                }
+            }
+        };
+    }
+
+    private static <T> ResponseEntity<List<T>> okOrNoContent(List<T> body) {
+        return body.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(body);
     }
 }
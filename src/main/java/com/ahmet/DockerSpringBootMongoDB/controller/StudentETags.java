@@ -0,0 +1,59 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.exception.PreconditionFailedException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Conversion between student versions and HTTP entity tags, shared by the servlet and the reactive controllers.
+ */
+final class StudentETags {
+
+    private StudentETags() {
+    }
+
+    /**
+     * Adds the student's version as a strong ETag, if the student has a version.
+     * @param response The response to add the header to.
+     * @param student The student the response represents.
+     * @return The same response builder.
+     */
+    static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Student student) {
+        return withETag(response, student.getVersion());
+    }
+
+    /**
+     * Adds a student version as a strong ETag, if there is one.
+     * @param response The response to add the header to.
+     * @param version The version of the student the response represents, or null.
+     * @return The same response builder.
+     */
+    static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Long version) {
+        if (version != null) {
+            response.eTag(String.valueOf(version));
+        }
+        return response;
+    }
+
+    /**
+     * Extracts the expected version from an If-Match header.
+     * @param id The ID of the student the request targets.
+     * @param ifMatch The If-Match header value, if any.
+     * @return The expected version, or null if the header is absent or "*".
+     * @throws PreconditionFailedException if the header is not a strong ETag issued by this API.
+     */
+    static Long parseIfMatch(String id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException("Student", id, tag);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Student", id, tag);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+public class BulkDeleteResponse {
+    private long deleted;
+
+    public BulkDeleteResponse(long deleted) {
+        this.deleted = deleted;
+    }
+
+    // Getters and Setters
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+}
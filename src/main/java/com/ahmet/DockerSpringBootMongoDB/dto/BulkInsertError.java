@@ -0,0 +1,48 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+public class BulkInsertError {
+    private int index;
+    private String email;
+    private int code;
+    private String message;
+
+    public BulkInsertError(int index, String email, int code, String message) {
+        this.index = index;
+        this.email = email;
+        this.code = code;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public void setCode(int code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
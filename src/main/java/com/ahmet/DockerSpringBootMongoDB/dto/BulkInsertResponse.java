@@ -0,0 +1,50 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import java.util.List;
+
+public class BulkInsertResponse {
+    private int received;
+    private int inserted;
+    private int duplicates;
+    private List<BulkInsertError> errors;
+
+    public BulkInsertResponse(int received, int inserted, int duplicates, List<BulkInsertError> errors) {
+        this.received = received;
+        this.inserted = inserted;
+        this.duplicates = duplicates;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public List<BulkInsertError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkInsertError> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+public class HistogramBucket {
+    private Number lowerBound;
+    private Number upperBound;
+    private long students;
+
+    public HistogramBucket(Number lowerBound, Number upperBound, long students) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.students = students;
+    }
+
+    // Getters and Setters
+    public Number getLowerBound() {
+        return lowerBound;
+    }
+
+    public void setLowerBound(Number lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    public Number getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(Number upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    public long getStudents() {
+        return students;
+    }
+
+    public void setStudents(long students) {
+        this.students = students;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import org.bson.RawBsonDocument;
+
+import java.util.List;
+
+public class RawStudentPage {
+    private List<RawBsonDocument> documents;
+    private String nextPageToken;
+
+    public RawStudentPage(List<RawBsonDocument> documents, String nextPageToken) {
+        this.documents = documents;
+        this.nextPageToken = nextPageToken;
+    }
+
+    // Getters and Setters
+    public List<RawBsonDocument> getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(List<RawBsonDocument> documents) {
+        this.documents = documents;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
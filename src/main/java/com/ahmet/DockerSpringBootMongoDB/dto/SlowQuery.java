@@ -0,0 +1,108 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SlowQuery {
+    private Instant timestamp;
+    private String collection;
+    private String command;
+    private String shape;
+    private long durationMillis;
+    private String plan;
+    private Long keysExamined;
+    private Long docsExamined;
+    private Long returned;
+    private String explainError;
+
+    public SlowQuery(Instant timestamp, String collection, String command, String shape, long durationMillis) {
+        this.timestamp = timestamp;
+        this.collection = collection;
+        this.command = command;
+        this.shape = shape;
+        this.durationMillis = durationMillis;
+    }
+
+    // Getters and Setters
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public void setShape(String shape) {
+        this.shape = shape;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    public Long getKeysExamined() {
+        return keysExamined;
+    }
+
+    public void setKeysExamined(Long keysExamined) {
+        this.keysExamined = keysExamined;
+    }
+
+    public Long getDocsExamined() {
+        return docsExamined;
+    }
+
+    public void setDocsExamined(Long docsExamined) {
+        this.docsExamined = docsExamined;
+    }
+
+    public Long getReturned() {
+        return returned;
+    }
+
+    public void setReturned(Long returned) {
+        this.returned = returned;
+    }
+
+    public String getExplainError() {
+        return explainError;
+    }
+
+    public void setExplainError(String explainError) {
+        this.explainError = explainError;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StudentChange {
+    private String resumeToken;
+    private String operation;
+    private String id;
+    private Instant timestamp;
+    private Student student;
+    private Map<String, Object> updatedFields;
+    private List<String> removedFields;
+
+    public StudentChange(String resumeToken, String operation, String id, Instant timestamp, Student student,
+                         Map<String, Object> updatedFields, List<String> removedFields) {
+        this.resumeToken = resumeToken;
+        this.operation = operation;
+        this.id = id;
+        this.timestamp = timestamp;
+        this.student = student;
+        this.updatedFields = updatedFields;
+        this.removedFields = removedFields;
+    }
+
+    // Getters and Setters
+    @JsonIgnore
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public void setResumeToken(String resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public void setStudent(Student student) {
+        this.student = student;
+    }
+
+    public Map<String, Object> getUpdatedFields() {
+        return updatedFields;
+    }
+
+    public void setUpdatedFields(Map<String, Object> updatedFields) {
+        this.updatedFields = updatedFields;
+    }
+
+    public List<String> getRemovedFields() {
+        return removedFields;
+    }
+
+    public void setRemovedFields(List<String> removedFields) {
+        this.removedFields = removedFields;
+    }
+}
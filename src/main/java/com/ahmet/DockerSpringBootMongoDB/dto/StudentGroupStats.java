@@ -0,0 +1,68 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+public class StudentGroupStats {
+    private Object key;
+    private long students;
+    private long fullTime;
+    private double fullTimeRatio;
+    private Double averageGpa;
+    private Double averageAge;
+
+    public StudentGroupStats(Object key, long students, long fullTime, double fullTimeRatio, Double averageGpa, Double averageAge) {
+        this.key = key;
+        this.students = students;
+        this.fullTime = fullTime;
+        this.fullTimeRatio = fullTimeRatio;
+        this.averageGpa = averageGpa;
+        this.averageAge = averageAge;
+    }
+
+    // Getters and Setters
+    public Object getKey() {
+        return key;
+    }
+
+    public void setKey(Object key) {
+        this.key = key;
+    }
+
+    public long getStudents() {
+        return students;
+    }
+
+    public void setStudents(long students) {
+        this.students = students;
+    }
+
+    public long getFullTime() {
+        return fullTime;
+    }
+
+    public void setFullTime(long fullTime) {
+        this.fullTime = fullTime;
+    }
+
+    public double getFullTimeRatio() {
+        return fullTimeRatio;
+    }
+
+    public void setFullTimeRatio(double fullTimeRatio) {
+        this.fullTimeRatio = fullTimeRatio;
+    }
+
+    public Double getAverageGpa() {
+        return averageGpa;
+    }
+
+    public void setAverageGpa(Double averageGpa) {
+        this.averageGpa = averageGpa;
+    }
+
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public void setAverageAge(Double averageAge) {
+        this.averageAge = averageAge;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+
+import java.util.List;
+
+public class StudentPage {
+    private List<Student> students;
+    private String nextPageToken;
+
+    public StudentPage(List<Student> students, String nextPageToken) {
+        this.students = students;
+        this.nextPageToken = nextPageToken;
+    }
+
+    // Getters and Setters
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<Student> students) {
+        this.students = students;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+
+public class StudentSearchHit {
+    private double score;
+    private Student student;
+
+    public StudentSearchHit(double score, Student student) {
+        this.score = score;
+        this.student = student;
+    }
+
+    // Getters and Setters
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public void setStudent(Student student) {
+        this.student = student;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ahmet.DockerSpringBootMongoDB.dto;
+
+import java.util.List;
+
+public class StudentSearchPage {
+    private List<StudentSearchHit> hits;
+    private String nextPageToken;
+
+    public StudentSearchPage(List<StudentSearchHit> hits, String nextPageToken) {
+        this.hits = hits;
+        this.nextPageToken = nextPageToken;
+    }
+
+    // Getters and Setters
+    public List<StudentSearchHit> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<StudentSearchHit> hits) {
+        this.hits = hits;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
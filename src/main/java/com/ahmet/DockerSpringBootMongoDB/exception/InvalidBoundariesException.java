@@ -0,0 +1,17 @@
+package com.ahmet.DockerSpringBootMongoDB.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.util.List;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBoundariesException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public InvalidBoundariesException(List<? extends Number> boundaries) {
+        super(String.format("Histogram boundaries must be at least two ascending values: %s", boundaries));
+    }
+}
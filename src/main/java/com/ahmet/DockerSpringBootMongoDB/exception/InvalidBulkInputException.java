@@ -0,0 +1,16 @@
+package com.ahmet.DockerSpringBootMongoDB.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkInputException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public InvalidBulkInputException(int index, Throwable cause) {
+        super(String.format("Malformed student at index %d; earlier students may already be inserted", index), cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ahmet.DockerSpringBootMongoDB.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidStudentIdException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public InvalidStudentIdException(String id) {
+        super(String.format("Invalid student id: %s; ids must be 24-digit hexadecimal ObjectIds", id));
+    }
+}
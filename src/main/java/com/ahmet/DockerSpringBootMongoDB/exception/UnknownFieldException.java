@@ -0,0 +1,16 @@
+package com.ahmet.DockerSpringBootMongoDB.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownFieldException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public UnknownFieldException(String fieldName) {
+        super(String.format("Unknown field: %s", fieldName));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ahmet.DockerSpringBootMongoDB.repository;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * ReactiveStudentRepository interface for accessing Student data in MongoDB without blocking.
+ * The non-blocking counterpart of {@link StudentRepository}, backed by the reactive streams driver.
+ * It is only created when the "reactive" profile is active. It is the primary ReactiveStudentRepository;
+ * {@code MongoDbConfig} declares a second one for list queries.
+ */
+@Primary
+@Repository
+public interface ReactiveStudentRepository extends ReactiveMongoRepository<Student, String> {
+
+    /**
+     * Finds students whose names start with the specified prefix.
+     *
+     * @param name The prefix to match at the start of student names.
+     * @return The students with names starting with the specified prefix.
+     */
+    Flux<Student> findByNameStartsWith(String name);
+
+    /**
+     * Finds students whose normalized names fall in the range {@code [from, to)}.
+     *
+     * @param from The inclusive lower bound, i.e. the normalized prefix.
+     * @param to   The exclusive upper bound.
+     * @return The matching students.
+     */
+    @Query("{ 'nameKey': { $gte: ?0, $lt: ?1 } }")
+    Flux<Student> findByNameKeyRange(String from, String to);
+
+    /**
+     * Finds students within a specified age range. Both bounds are exclusive.
+     *
+     * @param minAge The minimum age of students to find.
+     * @param maxAge The maximum age of students to find.
+     * @return The students whose ages fall within the specified range.
+     */
+    Flux<Student> findByAgeBetween(int minAge, int maxAge);
+
+    /**
+     * Finds the next page of students ordered by id, starting after the given id.
+     *
+     * @param lastId The id of the last student on the previous page.
+     * @param limit  The maximum number of students to return.
+     * @return The students with ids greater than {@code lastId}, in ascending id order.
+     */
+    Flux<Student> findByIdGreaterThanOrderByIdAsc(ObjectId lastId, Limit limit);
+
+    /**
+     * Finds the next page of students whose names fall in the range {@code [from, to)},
+     * ordered by name and id, starting after the given name and id.
+     *
+     * @param from     The inclusive lower bound of the name range, i.e. the prefix.
+     * @param to       The exclusive upper bound of the name range.
+     * @param lastName The name of the last student on the previous page.
+     * @param lastId   The id of the last student on the previous page.
+     * @param limit    The maximum number of students to return.
+     * @return The matching students in ascending name and id order.
+     */
+    @Query(value = "{ 'name': { $gte: ?0, $lt: ?1 }, $or: [ { 'name': { $gt: ?2 } }, { 'name': ?2, '_id': { $gt: ?3 } } ] }",
+            sort = "{ 'name': 1, '_id': 1 }")
+    Flux<Student> findByNameRangeAfter(String from, String to, String lastName, ObjectId lastId, Limit limit);
+
+    /**
+     * Finds the next page of students whose normalized names fall in the range {@code [from, to)},
+     * ordered by normalized name and id, starting after the given normalized name and id.
+     *
+     * @param from        The inclusive lower bound, i.e. the normalized prefix.
+     * @param to          The exclusive upper bound.
+     * @param lastNameKey The normalized name of the last student on the previous page.
+     * @param lastId      The id of the last student on the previous page.
+     * @param limit       The maximum number of students to return.
+     * @return The matching students in ascending normalized name and id order.
+     */
+    @Query(value = "{ 'nameKey': { $gte: ?0, $lt: ?1 }, $or: [ { 'nameKey': { $gt: ?2 } }, { 'nameKey': ?2, '_id': { $gt: ?3 } } ] }",
+            sort = "{ 'nameKey': 1, '_id': 1 }")
+    Flux<Student> findByNameKeyRangeAfter(String from, String to, String lastNameKey, ObjectId lastId, Limit limit);
+
+    /**
+     * Finds the next page of students within a specified age range, ordered by age and id,
+     * starting after the given age and id. Both bounds are exclusive.
+     *
+     * @param minAge  The exclusive minimum age of students to find.
+     * @param maxAge  The exclusive maximum age of students to find.
+     * @param lastAge The age of the last student on the previous page.
+     * @param lastId  The id of the last student on the previous page.
+     * @param limit   The maximum number of students to return.
+     * @return The matching students in ascending age and id order.
+     */
+    @Query(value = "{ 'age': { $gt: ?0, $lt: ?1 }, $or: [ { 'age': { $gt: ?2 } }, { 'age': ?2, '_id': { $gt: ?3 } } ] }",
+            sort = "{ 'age': 1, '_id': 1 }")
+    Flux<Student> findByAgeBetweenAfter(int minAge, int maxAge, int lastAge, ObjectId lastId, Limit limit);
+
+    /**
+     * Checks if a student with the specified email exists.
+     *
+     * @param email The email to check for existence.
+     * @return true if a student with the specified email exists, false otherwise.
+     */
+    Mono<Boolean> existsByEmail(String email);
+
+}
@@ -1,7 +1,11 @@
 package com.ahmet.DockerSpringBootMongoDB.repository;
 
 import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,7 +14,9 @@ import java.util.List;
 /**
  * StudentRepository interface for accessing Student data in MongoDB.
  * Extends MongoRepository to provide CRUD operations and custom query methods for Student entities.
+ * It is the primary StudentRepository; {@code MongoDbConfig} declares a second one for list queries.
  */
+@Primary
 @Repository
 public interface StudentRepository extends MongoRepository<Student, String> {
 
@@ -22,6 +28,17 @@ public interface StudentRepository extends MongoRepository<Student, String> {
      */
     List<Student> findByNameStartsWith(String name);
 
+    /**
+     * Finds students whose normalized names fall in the range {@code [from, to)}.
+     * Used for prefix searches that ignore case and accents; the range is served by the index on {@code nameKey}.
+     *
+     * @param from The inclusive lower bound, i.e. the normalized prefix.
+     * @param to   The exclusive upper bound.
+     * @return A list of matching students.
+     */
+    @Query("{ 'nameKey': { $gte: ?0, $lt: ?1 } }")
+    List<Student> findByNameKeyRange(String from, String to);
+
     /**
      * Finds students within a specified age range.
      *
@@ -31,6 +48,61 @@ public interface StudentRepository extends MongoRepository<Student, String> {
      */
     List<Student> findByAgeBetween(int minAge, int maxAge);
 
+    /**
+     * Finds the next page of students ordered by id, starting after the given id.
+     *
+     * @param lastId The id of the last student on the previous page.
+     * @param limit  The maximum number of students to return.
+     * @return A list of students with ids greater than {@code lastId}, in ascending id order.
+     */
+    List<Student> findByIdGreaterThanOrderByIdAsc(ObjectId lastId, Limit limit);
+
+    /**
+     * Finds the next page of students whose names fall in the range {@code [from, to)},
+     * ordered by name and id, starting after the given name and id.
+     * The range bounds and the ordering are served by the index on {@code (name, _id)}.
+     *
+     * @param from     The inclusive lower bound of the name range, i.e. the prefix.
+     * @param to       The exclusive upper bound of the name range.
+     * @param lastName The name of the last student on the previous page.
+     * @param lastId   The id of the last student on the previous page.
+     * @param limit    The maximum number of students to return.
+     * @return A list of matching students in ascending name and id order.
+     */
+    @Query(value = "{ 'name': { $gte: ?0, $lt: ?1 }, $or: [ { 'name': { $gt: ?2 } }, { 'name': ?2, '_id': { $gt: ?3 } } ] }",
+            sort = "{ 'name': 1, '_id': 1 }")
+    List<Student> findByNameRangeAfter(String from, String to, String lastName, ObjectId lastId, Limit limit);
+
+    /**
+     * Finds the next page of students whose normalized names fall in the range {@code [from, to)},
+     * ordered by normalized name and id, starting after the given normalized name and id.
+     *
+     * @param from        The inclusive lower bound, i.e. the normalized prefix.
+     * @param to          The exclusive upper bound.
+     * @param lastNameKey The normalized name of the last student on the previous page.
+     * @param lastId      The id of the last student on the previous page.
+     * @param limit       The maximum number of students to return.
+     * @return A list of matching students in ascending normalized name and id order.
+     */
+    @Query(value = "{ 'nameKey': { $gte: ?0, $lt: ?1 }, $or: [ { 'nameKey': { $gt: ?2 } }, { 'nameKey': ?2, '_id': { $gt: ?3 } } ] }",
+            sort = "{ 'nameKey': 1, '_id': 1 }")
+    List<Student> findByNameKeyRangeAfter(String from, String to, String lastNameKey, ObjectId lastId, Limit limit);
+
+    /**
+     * Finds the next page of students within a specified age range, ordered by age and id,
+     * starting after the given age and id. Like {@link #findByAgeBetween(int, int)}, both bounds are exclusive.
+     *
+     * @param minAge  The exclusive minimum age of students to find.
+     * @param maxAge  The exclusive maximum age of students to find.
+     * @param lastAge The age of the last student on the previous page.
+     * @param lastId  The id of the last student on the previous page.
+     * @param limit   The maximum number of students to return.
+     * @return A list of matching students in ascending age and id order.
+     */
+    @Query(value = "{ 'age': { $gt: ?0, $lt: ?1 }, $or: [ { 'age': { $gt: ?2 } }, { 'age': ?2, '_id': { $gt: ?3 } } ] }",
+            sort = "{ 'age': 1, '_id': 1 }")
+    List<Student> findByAgeBetweenAfter(int minAge, int maxAge, int lastAge, ObjectId lastId, Limit limit);
+
     /**
      * Checks if a student with the specified email exists.
      *
@@ -0,0 +1,141 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the writes that keep the {@code course_stats} collection in line with the students,
+ * shared by the blocking and the reactive services.
+ *
+ * A student counts once per distinct course. Every write computes the change in enrollments per
+ * course from the courses before and after it, and applies it with {@code $inc}, so concurrent
+ * writes never overwrite each other's counts. Courses whose count drops to zero are removed.
+ */
+final class CourseEnrollments {
+
+    private static final String STUDENTS = "students";
+    private static final String COURSES = "courses";
+
+    private CourseEnrollments() {
+    }
+
+    /**
+     * Computes the change in enrollments when a student's courses change.
+     *
+     * @param before The courses before the write, or null if the student did not exist.
+     * @param after  The courses after the write, or null if the student was deleted or has none.
+     * @return The change per course, without courses that did not change.
+     */
+    static Map<String, Long> delta(Collection<String> before, Collection<String> after) {
+        Map<String, Long> delta = new HashMap<>();
+        add(delta, before, -1);
+        add(delta, after, 1);
+        delta.values().removeIf(change -> change == 0);
+        return delta;
+    }
+
+    /**
+     * Computes the change in enrollments when students are added or removed.
+     *
+     * @param students The students.
+     * @param sign     1 if the students were added, -1 if they were removed.
+     * @return The change per course.
+     */
+    static Map<String, Long> deltaOf(List<Student> students, long sign) {
+        Map<String, Long> delta = new HashMap<>();
+        for (Student student : students) {
+            add(delta, student.getCourses(), sign);
+        }
+        return delta;
+    }
+
+    /**
+     * Builds one upsert per changed course, incrementing its count by the change.
+     *
+     * @param delta The change per course.
+     * @return The query and update of every upsert.
+     */
+    static List<Pair<Query, Update>> increments(Map<String, Long> delta) {
+        List<Pair<Query, Update>> increments = new ArrayList<>(delta.size());
+        delta.forEach((course, change) -> increments.add(Pair.of(
+                Query.query(Criteria.where("course").is(course)),
+                new Update().inc(STUDENTS, change))));
+        return increments;
+    }
+
+    /**
+     * Checks whether applying a change may leave courses without students.
+     *
+     * @param delta The change per course.
+     * @return true if any course lost students.
+     */
+    static boolean removesEnrollments(Map<String, Long> delta) {
+        return delta.values().stream().anyMatch(change -> change < 0);
+    }
+
+    /**
+     * Builds the query for courses nobody is enrolled in any more.
+     *
+     * @return The query.
+     */
+    static Query emptyCourses() {
+        return Query.query(Criteria.where(STUDENTS).lte(0));
+    }
+
+    /**
+     * Builds the query listing courses by number of students, largest first.
+     *
+     * @return The query.
+     */
+    static Query byEnrollments() {
+        return new Query().with(Sort.by(Sort.Direction.DESC, STUDENTS).and(Sort.by("course")));
+    }
+
+    /**
+     * Builds the aggregation recomputing every count from the students and replacing the
+     * course statistics collection with the result in one step.
+     *
+     * @param collection The name of the course statistics collection.
+     * @return The aggregation.
+     */
+    static Aggregation rebuild(String collection) {
+        List<AggregationOperation> stages = new ArrayList<>(countPerCourse());
+        stages.add(Aggregation.out(collection));
+        return Aggregation.newAggregation(stages);
+    }
+
+    private static List<AggregationOperation> countPerCourse() {
+        return List.of(
+                Aggregation.stage(new Document("$project", new Document(COURSES,
+                        new Document("$setUnion", List.of(new Document("$ifNull", List.of("$" + COURSES, List.of()))))))),
+                Aggregation.stage(new Document("$unwind", "$" + COURSES)),
+                Aggregation.stage(new Document("$match", new Document(COURSES, new Document("$type", "string")))),
+                Aggregation.stage(new Document("$group", new Document("_id", "$" + COURSES)
+                        .append(STUDENTS, new Document("$sum", 1)))));
+    }
+
+    private static void add(Map<String, Long> delta, Collection<String> courses, long sign) {
+        if (courses == null) {
+            return;
+        }
+        for (String course : new LinkedHashSet<>(courses)) {
+            if (course != null) {
+                delta.merge(course, sign, Long::sum);
+            }
+        }
+    }
+}
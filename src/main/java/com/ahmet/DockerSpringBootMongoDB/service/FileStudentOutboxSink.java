@@ -0,0 +1,57 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Writes every batch of outbox events to its own newline-delimited JSON file, {@code students-<batch>.ndjson},
+ * in the directory given by {@code students.outbox.file.directory}.
+ *
+ * A batch is written to a temporary file, flushed to disk and then renamed, so a file is either complete
+ * or absent. A batch delivered again finds its file already there and is skipped, so every event is written
+ * exactly once. Files sort in the order the batches were claimed; whoever loads them deletes them when done.
+ */
+public class FileStudentOutboxSink implements StudentOutboxSink {
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public FileStudentOutboxSink(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void deliver(String batch, List<StudentOutboxEvent> events) {
+        Path file = directory.resolve("students-" + batch + ".ndjson");
+        if (Files.exists(file)) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temporary = directory.resolve(".students-" + batch + ".ndjson.tmp");
+            try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+                 OutputStream out = new BufferedOutputStream(stream)) {
+                for (StudentOutboxEvent event : events) {
+                    out.write(objectMapper.writeValueAsBytes(event));
+                    out.write('\n');
+                }
+                out.flush();
+                stream.getChannel().force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write outbox batch " + batch + " to " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes outbox events to the log as JSON, one line per event, under the {@code students.outbox} logger.
+ *
+ * Intended for development. The log keeps no record of the batches it has written, so a batch delivered
+ * again after a failure appears twice.
+ */
+public class LogStudentOutboxSink implements StudentOutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger("students.outbox");
+
+    private final ObjectMapper objectMapper;
+
+    public LogStudentOutboxSink(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void deliver(String batch, List<StudentOutboxEvent> events) {
+        try {
+            for (StudentOutboxEvent event : events) {
+                log.info("{}", objectMapper.writeValueAsString(event));
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidPageTokenException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ *
+ * A token holds the {@code _id} of the last student on a page and, for queries ordered by
+ * another field first, that field's value. Clients only ever see the Base64 encoded form.
+ */
+final class PageToken {
+
+    /**
+     * Lowest possible ObjectId, used as the lower bound when no token is given.
+     */
+    static final ObjectId MIN_ID = new ObjectId(new byte[12]);
+
+    private static final char SEPARATOR = ':';
+
+    private final String token;
+    private final ObjectId lastId;
+    private final String lastKey;
+
+    private PageToken(String token, ObjectId lastId, String lastKey) {
+        this.token = token;
+        this.lastId = lastId;
+        this.lastKey = lastKey;
+    }
+
+    ObjectId getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Returns the leading sort key of this token.
+     *
+     * @return The sort key.
+     * @throws InvalidPageTokenException if the token carries no sort key.
+     */
+    String getLastKey() {
+        if (lastKey == null) {
+            throw new InvalidPageTokenException(token);
+        }
+        return lastKey;
+    }
+
+    /**
+     * Encodes the position after the given student id and sort key.
+     *
+     * @param lastId  The id of the last student on the page.
+     * @param lastKey The leading sort key of the last student, or null when ordering by id only.
+     * @return The opaque token.
+     */
+    static String encode(String lastId, Object lastKey) {
+        String raw = lastKey == null ? lastId : lastId + SEPARATOR + lastKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode(String, Object)}.
+     *
+     * @param token The opaque token.
+     * @return The decoded position.
+     * @throws InvalidPageTokenException if the token is malformed.
+     */
+    static PageToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            String id = separator < 0 ? raw : raw.substring(0, separator);
+            String key = separator < 0 ? null : raw.substring(separator + 1);
+            return new PageToken(token, new ObjectId(id), key);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
+
+    /**
+     * Returns the leading sort key of this token as an integer.
+     *
+     * @return The sort key as an integer.
+     * @throws InvalidPageTokenException if the key is missing or not a number.
+     */
+    int getLastKeyAsInt() {
+        try {
+            return Integer.parseInt(getLastKey());
+        } catch (NumberFormatException e) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
+
+    /**
+     * Returns the leading sort key of this token as a double, such as a text search score.
+     *
+     * @return The sort key as a double.
+     * @throws InvalidPageTokenException if the key is missing or not a number.
+     */
+    double getLastKeyAsDouble() {
+        try {
+            return Double.parseDouble(getLastKey());
+        } catch (NumberFormatException e) {
+            throw new InvalidPageTokenException(token);
+        }
+    }
+}
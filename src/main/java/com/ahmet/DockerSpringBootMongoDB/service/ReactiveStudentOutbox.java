@@ -0,0 +1,80 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of {@link StudentOutbox}, writing outbox events together with the student
+ * changes of the reactive service. It is only created when the "reactive" profile is active.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveStudentOutbox {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final boolean enabled;
+    private final int transactionRetries;
+
+    public ReactiveStudentOutbox(ReactiveMongoTemplate mongoTemplate,
+                                 ReactiveMongoTransactionManager transactionManager,
+                                 @Value("${students.outbox.enabled:false}") boolean enabled,
+                                 @Value("${students.outbox.transaction-retries:3}") int transactionRetries) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.enabled = enabled;
+        this.transactionRetries = transactionRetries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs a change in a transaction if the outbox is enabled, or directly otherwise.
+     * The change is subscribed to again when its transaction is aborted by a write conflict,
+     * so it must be deferred and must not depend on state changed by an earlier attempt.
+     *
+     * @param change The change, writing its events with {@link #record}.
+     * @return The result of the change.
+     */
+    public <T> Mono<T> inTransaction(Mono<T> change) {
+        if (!enabled) {
+            return change;
+        }
+        return transactionalOperator.transactional(change)
+                .retryWhen(Retry.max(transactionRetries).filter(StudentOutboxEvents::isTransient));
+    }
+
+    /**
+     * Adds events to the outbox in the current transaction. Does nothing if the outbox is disabled.
+     *
+     * @param events The events to add.
+     * @return Empty once the events are written.
+     */
+    public Mono<Void> record(Collection<StudentOutboxEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate.insert(events, StudentOutboxEvent.class).then();
+    }
+
+    /**
+     * Adds an event to the outbox in the current transaction. Does nothing if the outbox is disabled.
+     *
+     * @param event The event to add.
+     * @return Empty once the event is written.
+     */
+    public Mono<Void> record(StudentOutboxEvent event) {
+        return enabled ? mongoTemplate.insert(event).then() : Mono.empty();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveStudentService {
+    Mono<String> save(Student student);
+
+    Mono<BulkInsertResponse> bulkInsert(Flux<Student> students);
+
+    Flux<Student> findAll(List<String> fields);
+
+    Mono<StudentPage> findAll(String pageToken, int limit, List<String> fields);
+
+    Mono<Student> findById(String id, List<String> fields);
+
+    Flux<Student> getStudentStartWith(String name, List<String> fields);
+
+    Mono<StudentPage> getStudentStartWith(String name, String pageToken, int limit, List<String> fields);
+
+    Flux<Student> getStudentStartWithIgnoreCase(String name, List<String> fields);
+
+    Mono<StudentPage> getStudentStartWithIgnoreCase(String name, String pageToken, int limit, List<String> fields);
+
+    Mono<StudentSearchPage> search(String text, String pageToken, int limit);
+
+    Mono<List<StudentGroupStats>> statsByCourse();
+
+    Mono<List<StudentGroupStats>> statsByCity();
+
+    Mono<List<StudentGroupStats>> statsByFullTime();
+
+    Mono<List<HistogramBucket>> ageHistogram(List<Integer> boundaries);
+
+    Mono<List<HistogramBucket>> gpaHistogram(List<Double> boundaries);
+
+    Mono<List<CourseStats>> getCourseEnrollments();
+
+    Mono<List<CourseStats>> rebuildCourseStats();
+
+    Flux<Student> getByPersonAge(Integer minAge, Integer maxAge, List<String> fields);
+
+    Mono<StudentPage> getByPersonAge(Integer minAge, Integer maxAge, String pageToken, int limit, List<String> fields);
+
+    Mono<Boolean> deleteById(String id, Long expectedVersion);
+
+    Mono<Long> deleteMany(List<String> ids, String namePrefix, Integer minAge, Integer maxAge);
+
+    Mono<Student> partiallyUpdateStudent(String id, Student student, Long expectedVersion);
+
+    Mono<Student> updateStudentDetails(String id, Student student, Long expectedVersion);
+}
@@ -0,0 +1,857 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertError;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidBulkInputException;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidStudentIdException;
+import com.ahmet.DockerSpringBootMongoDB.exception.PreconditionFailedException;
+import com.ahmet.DockerSpringBootMongoDB.exception.ResourceNotFoundException;
+import com.ahmet.DockerSpringBootMongoDB.repository.ReactiveStudentRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+
+/**
+ * Non-blocking service implementation for managing students.
+ * Runs the same queries as {@link StudentServiceImp} through the reactive streams driver,
+ * so no thread waits on MongoDB. Results are emitted as they arrive from the cursor and
+ * further batches are only requested as the subscriber asks for more.
+ * It is only created when the "reactive" profile is active and does not use the student cache.
+ * Writes record their outbox events through the {@link ReactiveStudentOutbox} and update the course enrollments
+ * in the same transaction. List, search and statistics queries read through the list template and repository,
+ * with the configured {@code students.mongo.list-read-preference}; every other read goes to the primary.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveStudentServiceImp implements ReactiveStudentService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveStudentServiceImp.class);
+
+    @Autowired
+    private ReactiveStudentRepository studentRepository;
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+    @Autowired
+    @Qualifier("listReactiveMongoTemplate")
+    private ReactiveMongoTemplate listMongoTemplate;
+    @Autowired
+    @Qualifier("listReactiveStudentRepository")
+    private ReactiveStudentRepository listStudentRepository;
+    @Autowired
+    private ReactiveStudentOutbox studentOutbox;
+
+    @Value("${students.stream.batch-size:500}")
+    private int streamBatchSize;
+
+    @Value("${students.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${students.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${students.bulk.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    @Value("${students.stats.allow-disk-use:true}")
+    private boolean statsAllowDiskUse;
+
+    @Value("${students.stats.max-time:30s}")
+    private Duration statsMaxTime;
+
+    @Value("${students.stats.age-boundaries:0,18,21,25,30,40,150}")
+    private List<Integer> ageBoundaries;
+
+    @Value("${students.stats.gpa-boundaries:0,1,2,2.5,3,3.5,5}")
+    private List<Double> gpaBoundaries;
+
+    @Value("${students.codec.enabled:true}")
+    private boolean codecEnabled;
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    /**
+     * Saves a student entity to the database.
+     * A student without an id is inserted. A student with an id but without a version replaces the stored
+     * student with that id, whatever its version, or is inserted if there is none.
+     * A student with an id and a version only replaces the stored student if it is still at that version.
+     * When the student replaces an existing one, its previous courses are read first,
+     * so the course enrollments can be adjusted by the difference.
+     *
+     * @param student The student entity to save.
+     * @return The ID of the saved student, an InvalidStudentIdException if the student has an id
+     * that is not an ObjectId, or a PreconditionFailedException if the student has a version
+     * and is not stored at that version.
+     */
+    @Override
+    public Mono<String> save(Student student) {
+        try {
+            StudentFields.requireObjectId(student.getId());
+        } catch (InvalidStudentIdException e) {
+            return Mono.error(e);
+        }
+        if (student.getId() != null && student.getVersion() == null) {
+            return replace(student);
+        }
+        String givenId = student.getId();
+        Long givenVersion = student.getVersion();
+        Mono<Student> previous = givenId == null ? Mono.empty() : findCourses(givenId);
+        Mono<String> write = previous.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(before -> Mono.defer(() -> {
+                            // A retried transaction starts again from the student as given
+                            student.setId(givenId);
+                            student.setVersion(givenVersion);
+                            return studentRepository.save(student);
+                        })
+                        .flatMap(saved -> studentOutbox.record(StudentOutboxEvents.saved(saved))
+                                .then(updateCourseStats(CourseEnrollments.delta(
+                                        before.map(Student::getCourses).orElse(null), saved.getCourses())))
+                                .thenReturn(saved.getId())));
+        return studentOutbox.inTransaction(write)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new PreconditionFailedException("Student", givenId, givenVersion));
+    }
+
+    /**
+     * Replaces the stored student with the id of {@code student}, or inserts it if there is none,
+     * with a single atomic upsert. MongoTemplate increments the version of the student as part of the upsert.
+     * The upsert returns the previous courses, so the course enrollments can be adjusted by the difference,
+     * and the saved student is read in a second round trip to be recorded in the outbox in the same transaction.
+     *
+     * @param student The student to store, with an id and without a version.
+     * @return The ID of the saved student.
+     */
+    private Mono<String> replace(Student student) {
+        String id = student.getId();
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("courses");
+        Update update = StudentFields.toReplaceUpdate(student);
+        Mono<String> write = mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().returnNew(false).upsert(true), Student.class)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(before -> (studentOutbox.isEnabled()
+                        ? mongoTemplate.findById(id, Student.class)
+                                .flatMap(saved -> studentOutbox.record(StudentOutboxEvents.saved(saved)))
+                        : Mono.<Void>empty())
+                        .then(updateCourseStats(CourseEnrollments.delta(
+                                before.map(Student::getCourses).orElse(null), student.getCourses())))
+                        .thenReturn(id));
+        return studentOutbox.inTransaction(write);
+    }
+
+    /**
+     * Inserts students in unordered bulk writes of {@code students.bulk.chunk-size} documents.
+     * The next chunk is only requested from the request body once the previous one is written,
+     * so a fast client cannot make the server buffer more than a single chunk.
+     *
+     * @param students The students to insert, in request order.
+     * @return A summary with the number of inserted students and the error of every rejected one,
+     * or an InvalidBulkInputException if a student has an id that is not an ObjectId.
+     */
+    @Override
+    public Mono<BulkInsertResponse> bulkInsert(Flux<Student> students) {
+        return Mono.defer(() -> {
+            AtomicInteger received = new AtomicInteger();
+            List<BulkInsertError> errors = Collections.synchronizedList(new ArrayList<>());
+            return students.index()
+                    .map(indexed -> {
+                        try {
+                            StudentFields.requireObjectId(indexed.getT2().getId());
+                        } catch (InvalidStudentIdException e) {
+                            throw new InvalidBulkInputException(indexed.getT1().intValue(), e);
+                        }
+                        return indexed.getT2();
+                    })
+                    .buffer(bulkChunkSize)
+                    .concatMap(chunk -> insertChunk(chunk, received.getAndAdd(chunk.size()), errors))
+                    .reduce(0, Integer::sum)
+                    .map(inserted -> {
+                        int duplicates = (int) errors.stream().filter(error -> error.getCode() == DUPLICATE_KEY_ERROR).count();
+                        return new BulkInsertResponse(received.get(), inserted, duplicates, errors);
+                    });
+        });
+    }
+
+    /**
+     * Inserts one chunk of students with a single unordered bulk write.
+     *
+     * @param chunk  The students to insert.
+     * @param offset The position of the first student of the chunk within the whole request.
+     * @param errors The list to add an entry to for every rejected student.
+     * @return The number of inserted students.
+     */
+    private Mono<Integer> insertChunk(List<Student> chunk, int offset, List<BulkInsertError> errors) {
+        if (studentOutbox.isEnabled()) {
+            // The IDs are needed for the outbox events, and bulk writes do not set them on the students
+            chunk.stream().filter(student -> student.getId() == null)
+                    .forEach(student -> student.setId(new ObjectId().toHexString()));
+        }
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class)
+                .insert(chunk)
+                .execute()
+                .map(BulkWriteResult::getInsertedCount)
+                .onErrorResume(this::isBulkWriteFailure, e -> Mono.just(recordRejected(e, chunk, offset, errors)))
+                .flatMap(inserted -> {
+                    List<Student> insertedStudents = insertedStudents(chunk, offset, errors);
+                    return updateCourseStats(CourseEnrollments.deltaOf(insertedStudents, 1))
+                            .then(studentOutbox.record(insertedStudents.stream().map(StudentOutboxEvents::saved).toList()))
+                            .thenReturn(inserted);
+                });
+    }
+
+    /**
+     * Lists the students of a chunk that were not rejected by its bulk write.
+     *
+     * @param chunk  The students of the bulk write.
+     * @param offset The position of the first student of the chunk within the whole request.
+     * @param errors The rejected students of the whole request so far.
+     * @return The inserted students.
+     */
+    private static List<Student> insertedStudents(List<Student> chunk, int offset, List<BulkInsertError> errors) {
+        Set<Integer> rejectedIndexes;
+        synchronized (errors) {
+            rejectedIndexes = errors.stream()
+                    .map(error -> error.getIndex() - offset)
+                    .collect(Collectors.toSet());
+        }
+        return IntStream.range(0, chunk.size())
+                .filter(index -> !rejectedIndexes.contains(index))
+                .mapToObj(chunk::get)
+                .toList();
+    }
+
+    /**
+     * Checks whether an error is a bulk write that was partially rejected by the server.
+     *
+     * @param error The error raised by the bulk write.
+     * @return true if the error carries per-document write errors.
+     */
+    private boolean isBulkWriteFailure(Throwable error) {
+        return error instanceof BulkOperationException || bulkWriteException(error) != null;
+    }
+
+    /**
+     * Records the rejected students of a partially failed bulk write.
+     *
+     * @param error  The error raised by the bulk write.
+     * @param chunk  The students of the bulk write.
+     * @param offset The position of the first student of the chunk within the whole request.
+     * @param errors The list to add an entry to for every rejected student.
+     * @return The number of students that were inserted despite the error.
+     */
+    private int recordRejected(Throwable error, List<Student> chunk, int offset, List<BulkInsertError> errors) {
+        List<BulkWriteError> writeErrors;
+        BulkWriteResult result;
+        if (error instanceof BulkOperationException bulkOperationException) {
+            writeErrors = bulkOperationException.getErrors();
+            result = bulkOperationException.getResult();
+        } else {
+            MongoBulkWriteException bulkWriteException = bulkWriteException(error);
+            writeErrors = bulkWriteException.getWriteErrors();
+            result = bulkWriteException.getWriteResult();
+        }
+        for (BulkWriteError writeError : writeErrors) {
+            Student rejected = chunk.get(writeError.getIndex());
+            errors.add(new BulkInsertError(offset + writeError.getIndex(), rejected.getEmail(), writeError.getCode(), writeError.getMessage()));
+        }
+        return result.getInsertedCount();
+    }
+
+    /**
+     * Finds the driver's bulk write exception in the cause chain of a translated exception.
+     *
+     * @param error The error raised by the bulk write.
+     * @return The bulk write exception, or null if there is none.
+     */
+    private MongoBulkWriteException bulkWriteException(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkWriteException) {
+                return bulkWriteException;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves all students from the database as they are read from the cursor.
+     * Documents are fetched in batches of {@code students.stream.batch-size}
+     * and decoded with the student codec unless {@code students.codec.enabled} is false.
+     *
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return All students with only the requested fields set.
+     */
+    @Override
+    public Flux<Student> findAll(List<String> fields) {
+        Query query = new Query().cursorBatchSize(streamBatchSize);
+        if (fields != null) {
+            StudentQueries.project(query, fields);
+        }
+        return findDecoded(query);
+    }
+
+    /**
+     * Retrieves one page of students ordered by id.
+     *
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of students and the token for the next page.
+     */
+    @Override
+    public Mono<StudentPage> findAll(String pageToken, int limit, List<String> fields) {
+        return Mono.defer(() -> {
+            ObjectId lastId = pageToken == null ? PageToken.MIN_ID : PageToken.decode(pageToken).getLastId();
+            int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+            Query query = StudentQueries.idPage(lastId, pageSize);
+            Flux<Student> students;
+            if (fields == null && !codecEnabled) {
+                students = listStudentRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize + 1));
+            } else {
+                students = findDecoded(fields == null ? query : StudentQueries.project(query, fields));
+            }
+            return students.collectList().map(page -> StudentQueries.toPage(page, pageSize, null));
+        });
+    }
+
+    /**
+     * Finds a student by their ID.
+     *
+     * @param id     The ID of the student to find.
+     * @param fields The fields to fetch, or null to fetch the whole student.
+     * @return The found student entity, or a ResourceNotFoundException if no student is found with the given ID.
+     */
+    @Override
+    public Mono<Student> findById(String id, List<String> fields) {
+        Mono<Student> student = fields == null
+                ? studentRepository.findById(id)
+                : Mono.defer(() -> mongoTemplate.findOne(
+                        StudentQueries.project(Query.query(Criteria.where("id").is(id)), fields), Student.class));
+        return student.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Student", "id", id)));
+    }
+
+    /**
+     * Retrieves the students whose names start with the specified prefix.
+     *
+     * @param name   The prefix to match student names against.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return The matching students.
+     */
+    @Override
+    public Flux<Student> getStudentStartWith(String name, List<String> fields) {
+        if (fields == null) {
+            return listStudentRepository.findByNameStartsWith(name);
+        }
+        return Flux.defer(() -> listMongoTemplate.find(
+                StudentQueries.project(Query.query(StudentQueries.nameRange(name)), fields), Student.class));
+    }
+
+    /**
+     * Retrieves one page of students whose names start with the specified prefix, ordered by name and id.
+     *
+     * @param name      The prefix to match student names against.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public Mono<StudentPage> getStudentStartWith(String name, String pageToken, int limit, List<String> fields) {
+        return Mono.defer(() -> {
+            String lastName = name;
+            ObjectId lastId = PageToken.MIN_ID;
+            if (pageToken != null) {
+                PageToken token = PageToken.decode(pageToken);
+                lastName = token.getLastKey();
+                lastId = token.getLastId();
+            }
+            int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+            Flux<Student> students = fields == null
+                    ? listStudentRepository.findByNameRangeAfter(name, StudentQueries.prefixUpperBound(name), lastName, lastId, Limit.of(pageSize + 1))
+                    : listMongoTemplate.find(StudentQueries.project(
+                            StudentQueries.namePage(name, lastName, lastId, pageSize), fields, "name"), Student.class);
+            return students.collectList().map(page -> StudentQueries.toPage(page, pageSize, Student::getName));
+        });
+    }
+
+    /**
+     * Retrieves the students whose names start with the specified prefix, ignoring case and accents.
+     * The prefix is matched against the stored {@code nameKey}, so the query remains an index range scan.
+     *
+     * @param name   The prefix to match student names against.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return The matching students.
+     */
+    @Override
+    public Flux<Student> getStudentStartWithIgnoreCase(String name, List<String> fields) {
+        if (fields == null) {
+            String key = Student.nameKey(name);
+            return listStudentRepository.findByNameKeyRange(key, StudentQueries.prefixUpperBound(key));
+        }
+        return Flux.defer(() -> listMongoTemplate.find(
+                StudentQueries.project(Query.query(StudentQueries.nameKeyRange(name)), fields), Student.class));
+    }
+
+    /**
+     * Retrieves one page of students whose names start with the specified prefix, ignoring case and accents,
+     * ordered by normalized name and id.
+     *
+     * @param name      The prefix to match student names against.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public Mono<StudentPage> getStudentStartWithIgnoreCase(String name, String pageToken, int limit, List<String> fields) {
+        return Mono.defer(() -> {
+            String key = Student.nameKey(name);
+            String lastNameKey = key;
+            ObjectId lastId = PageToken.MIN_ID;
+            if (pageToken != null) {
+                PageToken token = PageToken.decode(pageToken);
+                lastNameKey = token.getLastKey();
+                lastId = token.getLastId();
+            }
+            int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+            Flux<Student> students = fields == null
+                    ? listStudentRepository.findByNameKeyRangeAfter(key, StudentQueries.prefixUpperBound(key), lastNameKey, lastId, Limit.of(pageSize + 1))
+                    : listMongoTemplate.find(StudentQueries.project(
+                            StudentQueries.nameKeyPage(name, lastNameKey, lastId, pageSize), fields, "name"), Student.class);
+            return students.collectList().map(page -> StudentQueries.toPage(page, pageSize, Student::getNameKey));
+        });
+    }
+
+    /**
+     * Searches students by free text in their name, courses and address city, most relevant first.
+     *
+     * @param text      The search terms.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of hits to return, capped at {@code students.page.max-size}.
+     * @return The page of hits with their scores and the token for the next page.
+     */
+    @Override
+    public Mono<StudentSearchPage> search(String text, String pageToken, int limit) {
+        return Mono.defer(() -> {
+            Double lastScore = null;
+            ObjectId lastId = null;
+            if (pageToken != null) {
+                PageToken token = PageToken.decode(pageToken);
+                lastScore = token.getLastKeyAsDouble();
+                lastId = token.getLastId();
+            }
+            int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+            return listMongoTemplate.aggregate(StudentQueries.textSearch(text, lastScore, lastId, pageSize),
+                            listMongoTemplate.getCollectionName(Student.class), Document.class)
+                    .collectList()
+                    .map(documents -> StudentQueries.toSearchPage(documents, pageSize, listMongoTemplate.getConverter()));
+        });
+    }
+
+    /**
+     * Counts students per course, with the full-time share and the average GPA and age of each course.
+     *
+     * @return The statistics per course, largest course first.
+     */
+    @Override
+    public Mono<List<StudentGroupStats>> statsByCourse() {
+        return Mono.defer(() -> groupStats(StudentStatistics.byCourse(statsOptions())));
+    }
+
+    /**
+     * Counts students per address city, with the full-time share and the average GPA and age in each city.
+     *
+     * @return The statistics per city, largest city first.
+     */
+    @Override
+    public Mono<List<StudentGroupStats>> statsByCity() {
+        return Mono.defer(() -> groupStats(StudentStatistics.byCity(statsOptions())));
+    }
+
+    /**
+     * Compares full-time with part-time students by count and average GPA and age.
+     *
+     * @return The statistics per value of {@code fullTime}.
+     */
+    @Override
+    public Mono<List<StudentGroupStats>> statsByFullTime() {
+        return Mono.defer(() -> groupStats(StudentStatistics.byFullTime(statsOptions())));
+    }
+
+    /**
+     * Counts students per age range.
+     *
+     * @param boundaries The ascending range boundaries, or null for {@code students.stats.age-boundaries}.
+     * @return One bucket per range, including empty ones.
+     */
+    @Override
+    public Mono<List<HistogramBucket>> ageHistogram(List<Integer> boundaries) {
+        return Mono.defer(() -> histogram("age", boundaries == null ? ageBoundaries : boundaries));
+    }
+
+    /**
+     * Counts students per GPA range.
+     *
+     * @param boundaries The ascending range boundaries, or null for {@code students.stats.gpa-boundaries}.
+     * @return One bucket per range, including empty ones.
+     */
+    @Override
+    public Mono<List<HistogramBucket>> gpaHistogram(List<Double> boundaries) {
+        return Mono.defer(() -> histogram("gpa", boundaries == null ? gpaBoundaries : boundaries));
+    }
+
+    private Mono<List<StudentGroupStats>> groupStats(Aggregation aggregation) {
+        return listMongoTemplate.aggregate(aggregation, listMongoTemplate.getCollectionName(Student.class), Document.class)
+                .map(StudentStatistics::toGroupStats)
+                .collectList();
+    }
+
+    private Mono<List<HistogramBucket>> histogram(String field, List<? extends Number> boundaries) {
+        return listMongoTemplate.aggregate(StudentStatistics.histogram(field, boundaries, statsOptions()),
+                        listMongoTemplate.getCollectionName(Student.class), Document.class)
+                .collectList()
+                .map(buckets -> StudentStatistics.toHistogram(buckets, boundaries));
+    }
+
+    private AggregationOptions statsOptions() {
+        return AggregationOptions.builder().allowDiskUse(statsAllowDiskUse).maxTime(statsMaxTime).build();
+    }
+
+    /**
+     * Lists the number of students per course from the {@code course_stats} collection.
+     *
+     * @return The enrollments per course, largest course first.
+     */
+    @Override
+    public Mono<List<CourseStats>> getCourseEnrollments() {
+        return listMongoTemplate.find(CourseEnrollments.byEnrollments(), CourseStats.class).collectList();
+    }
+
+    /**
+     * Recomputes the {@code course_stats} collection from the students, replacing it in one step.
+     *
+     * @return The enrollments per course after the rebuild, largest course first.
+     */
+    @Override
+    public Mono<List<CourseStats>> rebuildCourseStats() {
+        return Mono.defer(() -> mongoTemplate.aggregate(
+                        CourseEnrollments.rebuild(mongoTemplate.getCollectionName(CourseStats.class)).withOptions(statsOptions()),
+                        mongoTemplate.getCollectionName(Student.class), Document.class)
+                .then(mongoTemplate.find(CourseEnrollments.byEnrollments(), CourseStats.class).collectList()));
+    }
+
+    /**
+     * Applies a change in enrollments to the {@code course_stats} collection with one unordered bulk write
+     * of {@code $inc} upserts, and removes the courses left without students.
+     *
+     * @param delta The change per course.
+     * @return Empty once the change is applied.
+     */
+    private Mono<Void> updateCourseStats(Map<String, Long> delta) {
+        if (delta.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseStats.class);
+        CourseEnrollments.increments(delta).forEach(increment -> bulkOperations.upsert(increment.getFirst(), increment.getSecond()));
+        Mono<Void> increments = bulkOperations.execute().then();
+        return CourseEnrollments.removesEnrollments(delta)
+                ? increments.then(mongoTemplate.remove(CourseEnrollments.emptyCourses(), CourseStats.class)).then()
+                : increments;
+    }
+
+    private Mono<Student> findCourses(String id) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("courses");
+        return mongoTemplate.findOne(query, Student.class);
+    }
+
+    /**
+     * Retrieves the students within a specified age range.
+     *
+     * @param minAge The exclusive minimum age of students to retrieve.
+     * @param maxAge The exclusive maximum age of students to retrieve.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return The students within the specified age range.
+     */
+    @Override
+    public Flux<Student> getByPersonAge(Integer minAge, Integer maxAge, List<String> fields) {
+        if (fields == null && !codecEnabled) {
+            return listStudentRepository.findByAgeBetween(minAge, maxAge);
+        }
+        return Flux.defer(() -> {
+            Query query = Query.query(StudentQueries.ageRange(minAge, maxAge));
+            return findDecoded(fields == null ? query : StudentQueries.project(query, fields));
+        });
+    }
+
+    /**
+     * Retrieves one page of students within a specified age range, ordered by age and id.
+     *
+     * @param minAge    The exclusive minimum age of students to retrieve.
+     * @param maxAge    The exclusive maximum age of students to retrieve.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public Mono<StudentPage> getByPersonAge(Integer minAge, Integer maxAge, String pageToken, int limit, List<String> fields) {
+        return Mono.defer(() -> {
+            int lastAge = minAge;
+            ObjectId lastId = PageToken.MIN_ID;
+            if (pageToken != null) {
+                PageToken token = PageToken.decode(pageToken);
+                lastAge = token.getLastKeyAsInt();
+                lastId = token.getLastId();
+            }
+            int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+            Query query = StudentQueries.agePage(minAge, maxAge, lastAge, lastId, pageSize);
+            Flux<Student> students;
+            if (fields == null && !codecEnabled) {
+                students = listStudentRepository.findByAgeBetweenAfter(minAge, maxAge, lastAge, lastId, Limit.of(pageSize + 1));
+            } else {
+                students = findDecoded(fields == null ? query : StudentQueries.project(query, fields, "age"));
+            }
+            return students.collectList().map(page -> StudentQueries.toPage(page, pageSize, Student::getAge));
+        });
+    }
+
+    /**
+     * Runs a student query on the driver, which decodes each document straight into a Student with the
+     * student codec, instead of into a Document that the template's converter then maps reflectively.
+     * Runs it on the ReactiveMongoTemplate when {@code students.codec.enabled} is false.
+     *
+     * @param query The query, with field names as the template accepts them.
+     * @return The matching students.
+     */
+    private Flux<Student> findDecoded(Query query) {
+        if (!codecEnabled) {
+            return listMongoTemplate.find(query, Student.class);
+        }
+        StudentCodecQuery codecQuery = new StudentCodecQuery(query, listMongoTemplate.getConverter());
+        return listMongoTemplate.execute(Student.class, codecQuery::find);
+    }
+
+    /**
+     * Deletes a student by their ID if it is still at the expected version.
+     *
+     * @param id              The ID of the student to delete.
+     * @param expectedVersion The version the client last saw, or null to delete unconditionally.
+     * @return true if the student was deleted, false if no student exists with the given ID,
+     *         or a PreconditionFailedException if the student exists at a different version.
+     */
+    @Override
+    public Mono<Boolean> deleteById(String id, Long expectedVersion) {
+        return Mono.defer(() -> {
+            Query query = StudentQueries.versioned(id, expectedVersion);
+            query.fields().include("courses");
+            return studentOutbox.inTransaction(mongoTemplate.findAndRemove(query, Student.class)
+                            .flatMap(deleted -> studentOutbox.record(StudentOutboxEvents.deleted(List.of(id)))
+                                    .then(updateCourseStats(CourseEnrollments.delta(deleted.getCourses(), null)))
+                                    .thenReturn(true)))
+                    .switchIfEmpty(requireVersionMatchIfExists(id, expectedVersion).thenReturn(false));
+        });
+    }
+
+    /**
+     * Deletes every student matching all of the given criteria.
+     * The matching students are read and deleted at the versions they were read at, in batches of up to
+     * {@code students.bulk.delete-batch-size} until no student matches, each in its own transaction with its own
+     * outbox events. The enrollments removed and the outbox events are those of the students actually deleted.
+     *
+     * @param ids        The IDs of the students to delete, or null.
+     * @param namePrefix The prefix the names of the students to delete start with, or null.
+     * @param minAge     The exclusive minimum age of the students to delete, or null.
+     * @param maxAge     The exclusive maximum age of the students to delete, or null.
+     * @return The number of deleted students, or an IllegalArgumentException if no criterion is given.
+     */
+    @Override
+    public Mono<Long> deleteMany(List<String> ids, String namePrefix, Integer minAge, Integer maxAge) {
+        return Mono.defer(() -> {
+            Query matching = Query.query(StudentQueries.deleteMany(ids, namePrefix, minAge, maxAge));
+            matching.fields().include("id").include("version").include("courses");
+            matching.limit(deleteBatchSize);
+            return deleteMatching(matching);
+        });
+    }
+
+    /**
+     * Deletes the students matching a query one batch after another until none matches,
+     * each batch in its own transaction.
+     *
+     * @param matching The query for a batch of the students to delete, projecting their ID, version and courses.
+     * @return The number of deleted students.
+     */
+    private Mono<Long> deleteMatching(Query matching) {
+        return studentOutbox.inTransaction(mongoTemplate.find(matching, Student.class)
+                        .collectList()
+                        .flatMap(students -> students.isEmpty() ? Mono.<Long>empty() : deleteAtVersions(students)))
+                .flatMap(deleted -> deleteMatching(matching).map(rest -> deleted + rest))
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Deletes the given students if each is still at the version it was read at, removes their enrollments
+     * from the course statistics and records their outbox events.
+     * Without a transaction, the students another request wrote or deleted in between are handled as by
+     * the blocking service.
+     *
+     * @param students The students to delete, with their ID, version and courses.
+     * @return The number of deleted students.
+     */
+    private Mono<Long> deleteAtVersions(List<Student> students) {
+        return mongoTemplate.remove(StudentQueries.atVersions(students), Student.class)
+                .map(DeleteResult::getDeletedCount)
+                .flatMap(removed -> findDeleted(students, removed)
+                        .flatMap(deleted -> updateCourseStats(CourseEnrollments.deltaOf(deleted, -1))
+                                .then(studentOutbox.record(StudentOutboxEvents.deleted(deleted.stream().map(Student::getId).toList()))))
+                        .thenReturn(removed));
+    }
+
+    /**
+     * Tells which of the students a version-guarded delete was run for are gone, when it deleted fewer of them.
+     *
+     * @param students The students the delete was run for.
+     * @param removed  The number of students it deleted.
+     * @return The students deleted, or empty if another request deleted some of them at the same time,
+     *         so the deleted ones cannot be told apart.
+     */
+    private Mono<List<Student>> findDeleted(List<Student> students, long removed) {
+        if (removed == students.size()) {
+            return Mono.just(students);
+        }
+        Query stored = Query.query(Criteria.where("id").in(students.stream().map(Student::getId).toList()));
+        stored.fields().include("id");
+        return mongoTemplate.find(stored, Student.class)
+                .map(Student::getId)
+                .collect(Collectors.toSet())
+                .flatMap(remaining -> {
+                    List<Student> deleted = students.stream().filter(student -> !remaining.contains(student.getId())).toList();
+                    if (deleted.size() == removed) {
+                        return Mono.just(deleted);
+                    }
+                    log.warn("{} of {} students deleted by another request at the same time, course statistics may need a rebuild",
+                            deleted.size() - removed, deleted.size());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Partially updates a student with new information if it is still at the expected version.
+     *
+     * @param id              The ID of the student to update.
+     * @param student         The new information for the student.
+     * @param expectedVersion The version the client last saw, or null to update unconditionally.
+     * @return The partially updated student entity, a ResourceNotFoundException if no student is found
+     *         with the given ID, or a PreconditionFailedException if it exists at a different version.
+     */
+    @Override
+    public Mono<Student> partiallyUpdateStudent(String id, Student student, Long expectedVersion) {
+        return setNonNullFields(id, student, expectedVersion, true)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Student", "id", id)));
+    }
+
+    /**
+     * Updates non-null fields of a student if it is still at the expected version.
+     *
+     * @param id              The ID of the student to update.
+     * @param student         The student data to update with.
+     * @param expectedVersion The version the client last saw, or null to update unconditionally.
+     * @return The updated student, empty if not found, or a PreconditionFailedException if it exists at a different version.
+     */
+    @Override
+    public Mono<Student> updateStudentDetails(String id, Student student, Long expectedVersion) {
+        return setNonNullFields(id, student, expectedVersion, false);
+    }
+
+    /**
+     * Sets the non-null fields of {@code student} on the stored student with a single atomic {@code findAndModify}.
+     * The updated student is recorded in the outbox in the same transaction as the update.
+     *
+     * @param id              The ID of the student to update.
+     * @param student         The student data to update with.
+     * @param expectedVersion The version the client last saw, or null to update unconditionally.
+     * @param mergeNested     Whether a given address is merged into the stored one instead of replacing it.
+     * @return The student as stored after the update, or empty if not found.
+     */
+    private Mono<Student> setNonNullFields(String id, Student student, Long expectedVersion, boolean mergeNested) {
+        return Mono.defer(() -> {
+            Query query = StudentQueries.versioned(id, expectedVersion);
+            Update update = StudentFields.toSetUpdate(student, mergeNested);
+            Mono<Student> result;
+            if (update.getUpdateObject().isEmpty()) {
+                result = mongoTemplate.findOne(query, Student.class);
+            } else if (student.getCourses() != null) {
+                query.fields().include("courses");
+                result = studentOutbox.inTransaction(mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Student.class)
+                        .flatMap(previous -> mongoTemplate.findById(id, Student.class)
+                                .flatMap(updated -> studentOutbox.record(StudentOutboxEvents.updated(updated))
+                                        .then(updateCourseStats(CourseEnrollments.delta(previous.getCourses(), student.getCourses())))
+                                        .thenReturn(updated))));
+            } else {
+                result = studentOutbox.inTransaction(mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Student.class)
+                        .flatMap(updated -> studentOutbox.record(StudentOutboxEvents.updated(updated)).thenReturn(updated)));
+            }
+            return result.switchIfEmpty(requireVersionMatchIfExists(id, expectedVersion).then(Mono.empty()));
+        });
+    }
+
+    /**
+     * Tells a version mismatch apart from a missing student after a versioned write matched nothing.
+     *
+     * @param id              The ID of the student.
+     * @param expectedVersion The expected version, or null if the write was unconditional.
+     * @return Empty, or a PreconditionFailedException if the student exists, so its version must have differed.
+     */
+    private Mono<Void> requireVersionMatchIfExists(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return studentRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? Mono.error(new PreconditionFailedException("Student", id, expectedVersion))
+                        : Mono.empty());
+    }
+}
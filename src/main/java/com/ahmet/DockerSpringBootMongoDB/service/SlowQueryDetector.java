@@ -0,0 +1,342 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.dto.SlowQuery;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Detects slow MongoDB queries and records why they were slow.
+ *
+ * Registered as a command listener on every MongoClient the application builds, so it sees queries
+ * from the repositories and from MongoTemplate alike. A query that takes at least
+ * {@code students.slow-query.threshold} is logged with its shape, the query with every value replaced by
+ * {@code "?"}. Its {@code explain("executionStats")} is then run on a background thread, and the winning
+ * plan together with the number of keys and documents examined is kept with the last
+ * {@code students.slow-query.capacity} slow queries. A plan without {@code IXSCAN} means a collection scan.
+ */
+@Component
+public class SlowQueryDetector implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryDetector.class);
+
+    private static final Set<String> QUERY_COMMANDS =
+            Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    private static final Set<String> FILTER_FIELDS = Set.of("filter", "query", "pipeline", "updates", "deletes");
+    private static final Set<String> SHAPE_FIELDS = Set.of("sort", "projection", "fields", "key", "hint", "limit");
+    private static final Set<String> EXPLAIN_FIELDS = Set.of("update", "remove", "upsert", "new", "collation", "let", "cursor");
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explain;
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final Map<Integer, BsonDocument> startedCommands = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryDetector(@Value("${students.slow-query.enabled:true}") boolean enabled,
+                             @Value("${students.slow-query.threshold:100ms}") Duration threshold,
+                             @Value("${students.slow-query.capacity:50}") int capacity,
+                             @Value("${students.slow-query.explain:true}") boolean explain,
+                             ObjectProvider<MongoTemplate> mongoTemplate) {
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.explain = explain;
+        this.mongoTemplate = mongoTemplate;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Registers this detector as a command listener of the MongoClient being built.
+     *
+     * @param settings The settings builder of the MongoClient.
+     */
+    @Override
+    public void customize(MongoClientSettings.Builder settings) {
+        if (enabled) {
+            settings.addCommandListener(this);
+        }
+    }
+
+    /**
+     * Keeps a copy of the parts of every query command that its shape and explain need, because the driver's
+     * command document is only valid during this call. Session, transaction and write concern fields,
+     * and any other field the plan does not depend on, are neither copied nor kept.
+     *
+     * @param event The started event.
+     */
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (QUERY_COMMANDS.contains(event.getCommandName())) {
+            startedCommands.put(event.getRequestId(), retain(event.getCommandName(), event.getCommand()));
+        }
+    }
+
+    /**
+     * Records the query if it was slow.
+     *
+     * @param event The succeeded event.
+     */
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Records the query if it was slow, for example because it ran into {@code maxTimeMS}.
+     *
+     * @param event The failed event.
+     */
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Returns the recorded slow queries, most recent first.
+     *
+     * @return A copy of the recorded slow queries.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    /**
+     * Removes all recorded slow queries.
+     */
+    public void clear() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Stops the explain thread when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    /**
+     * Checks a completed command against the threshold and schedules its explain if it was slow.
+     *
+     * @param event        The completed event.
+     * @param elapsedNanos   The time the command took.
+     */
+    private void completed(CommandEvent event, long elapsedNanos) {
+        BsonDocument command = startedCommands.remove(event.getRequestId());
+        if (command == null || elapsedNanos < thresholdNanos) {
+            return;
+        }
+        BsonValue target = command.get(event.getCommandName());
+        SlowQuery slowQuery = new SlowQuery(Instant.now(),
+                target != null && target.isString() ? target.asString().getValue() : null,
+                event.getCommandName(), shape(command).toJson(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        log.warn("Slow query on {}.{} took {} ms: {} {}", event.getDatabaseName(), slowQuery.getCollection(),
+                slowQuery.getDurationMillis(), slowQuery.getCommand(), slowQuery.getShape());
+        if (!explain) {
+            record(slowQuery);
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> {
+                explain(event.getDatabaseName(), command, slowQuery);
+                record(slowQuery);
+            });
+        } catch (RejectedExecutionException e) {
+            slowQuery.setExplainError("Explain queue is full");
+            record(slowQuery);
+        }
+    }
+
+    /**
+     * Runs the query again as {@code explain} with {@code executionStats} verbosity and copies
+     * the winning plan and its statistics into the slow query.
+     *
+     * @param database  The database the query ran against.
+     * @param command   The query command.
+     * @param slowQuery The slow query to complete.
+     */
+    private void explain(String database, BsonDocument command, SlowQuery slowQuery) {
+        MongoTemplate template = mongoTemplate.getIfAvailable();
+        if (template == null) {
+            slowQuery.setExplainError("No MongoTemplate available");
+            return;
+        }
+        try {
+            Document result = template.getMongoDatabaseFactory().getMongoDatabase(database).runCommand(
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("executionStats")));
+            Document queryPlanner = result.get("queryPlanner", Document.class);
+            Document stats = result.get("executionStats", Document.class);
+            List<Document> stages = result.getList("stages", Document.class);
+            if (queryPlanner == null && stages != null && !stages.isEmpty()
+                    && stages.get(0).get("$cursor") instanceof Document cursor) {
+                queryPlanner = cursor.get("queryPlanner", Document.class);
+                stats = cursor.get("executionStats", Document.class);
+            }
+            if (queryPlanner != null) {
+                Document winningPlan = queryPlanner.get("winningPlan", Document.class);
+                if (winningPlan != null && winningPlan.get("queryPlan") instanceof Document queryPlan) {
+                    winningPlan = queryPlan;
+                }
+                slowQuery.setPlan(winningPlan == null ? null : describe(winningPlan));
+            }
+            if (stats != null) {
+                slowQuery.setReturned(asLong(stats.get("nReturned")));
+                slowQuery.setKeysExamined(asLong(stats.get("totalKeysExamined")));
+                slowQuery.setDocsExamined(asLong(stats.get("totalDocsExamined")));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Explain of slow query failed", e);
+            slowQuery.setExplainError(e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the fields of a query command that its shape and explain need: the command name with its
+     * collection, the filters, the fields that influence the plan, and the options explain requires.
+     * Only those values are deep-copied out of the driver's buffer.
+     *
+     * @param commandName The name of the command.
+     * @param command     The query command, only valid during the started event.
+     * @return The copy.
+     */
+    static BsonDocument retain(String commandName, BsonDocument command) {
+        BsonDocument retained = new BsonDocument();
+        command.forEach((name, value) -> {
+            if (name.equals(commandName) || FILTER_FIELDS.contains(name) || SHAPE_FIELDS.contains(name)
+                    || EXPLAIN_FIELDS.contains(name)) {
+                retained.put(name, copy(value));
+            }
+        });
+        return retained;
+    }
+
+    /**
+     * Adds a slow query to the ring buffer, dropping the oldest one when it is full.
+     *
+     * @param slowQuery The slow query.
+     */
+    private void record(SlowQuery slowQuery) {
+        synchronized (slowQueries) {
+            if (slowQueries.size() >= capacity) {
+                slowQueries.removeLast();
+            }
+            slowQueries.addFirst(slowQuery);
+        }
+    }
+
+    /**
+     * Reduces a query command to its shape: filters and pipelines with every value replaced by {@code "?"},
+     * plus sort, projection and other fields that influence the plan as they are.
+     *
+     * @param command The query command.
+     * @return The shape of the query.
+     */
+    static BsonDocument shape(BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        command.forEach((name, value) -> {
+            if (FILTER_FIELDS.contains(name)) {
+                shape.put(name, placeholders(value));
+            } else if (SHAPE_FIELDS.contains(name)) {
+                shape.put(name, value);
+            }
+        });
+        return shape;
+    }
+
+    /**
+     * Replaces every value in a filter with {@code "?"}, keeping field names, operators and nested clauses.
+     *
+     * @param value The filter or a part of it.
+     * @return The value with placeholders.
+     */
+    private static BsonValue placeholders(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument document = new BsonDocument();
+            value.asDocument().forEach((name, nested) -> document.put(name, placeholders(nested)));
+            return document;
+        }
+        if (value.isArray() && !value.asArray().isEmpty()
+                && value.asArray().stream().allMatch(BsonValue::isDocument)) {
+            return new BsonArray(value.asArray().stream().map(SlowQueryDetector::placeholders).toList());
+        }
+        return PLACEHOLDER;
+    }
+
+    /**
+     * Describes a plan as its stages from the last to the first, e.g. {@code FETCH <- IXSCAN {"name": 1}}.
+     *
+     * @param stage The root stage of the plan.
+     * @return The description.
+     */
+    private static String describe(Document stage) {
+        StringBuilder description = new StringBuilder(stage.getString("stage"));
+        if (stage.get("keyPattern") instanceof Document keyPattern) {
+            description.append(' ').append(keyPattern.toJson());
+        }
+        if (stage.get("inputStage") instanceof Document input) {
+            description.append(" <- ").append(describe(input));
+        }
+        List<Document> inputs = stage.getList("inputStages", Document.class);
+        if (inputs != null) {
+            description.append(" <- (")
+                    .append(inputs.stream().map(SlowQueryDetector::describe).collect(Collectors.joining(", ")))
+                    .append(')');
+        }
+        return description.toString();
+    }
+
+    private static BsonValue copy(BsonValue value) {
+        if (value.isDocument()) {
+            return value.asDocument().clone();
+        }
+        return value.isArray() ? value.asArray().clone() : value;
+    }
+
+    private static Long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
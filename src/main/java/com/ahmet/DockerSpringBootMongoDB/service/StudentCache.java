@@ -0,0 +1,124 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process read-through cache of students by ID.
+ *
+ * Backed by Caffeine, whose W-TinyLFU policy keeps frequently read students resident.
+ * Entries are weighed by their approximate heap size, so the bound is on memory rather than
+ * on entry count. The cache is local to each node: writes through this node evict their students,
+ * but writes through other nodes are only seen once the entry expires after {@code students.cache.ttl},
+ * unless {@code students.cache.change-stream.enabled} evicts them as they happen. The short default
+ * TTL bounds how stale a student read on one node can be after a write on another.
+ * Hit, miss, eviction and size metrics are published as {@code cache.*} meters tagged {@code cache=students}.
+ */
+@Component
+public class StudentCache {
+
+    private static final String CACHE_NAME = "students";
+
+    private final boolean enabled;
+    private final Cache<String, Student> cache;
+
+    public StudentCache(@Value("${students.cache.enabled:true}") boolean enabled,
+                        @Value("${students.cache.maximum-weight-bytes:67108864}") long maximumWeightBytes,
+                        @Value("${students.cache.ttl:5s}") Duration ttl,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher((String id, Student student) -> estimateSize(student))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    /**
+     * Returns the cached student with the given ID, loading and caching it on a miss.
+     * Concurrent misses for the same ID share a single load.
+     *
+     * @param id     The ID of the student.
+     * @param loader Loads the student from the database.
+     * @return The student, or empty if it does not exist. Absent students are not cached.
+     */
+    public Optional<Student> get(String id, Function<String, Optional<Student>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Checks whether a student with the given ID is currently cached.
+     *
+     * @param id The ID of the student.
+     * @return true if the student is cached, false if it is unknown to the cache.
+     */
+    public boolean contains(String id) {
+        return enabled && cache.getIfPresent(id) != null;
+    }
+
+    /**
+     * Removes the student with the given ID from the cache.
+     *
+     * @param id The ID of the student.
+     */
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Removes all students from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Estimates the retained heap size of a student in bytes.
+     *
+     * @param student The student to weigh.
+     * @return The approximate size in bytes.
+     */
+    static int estimateSize(Student student) {
+        int size = 128; // object header, references and boxed scalar fields
+        size += sizeOf(student.getId()) + sizeOf(student.getName()) + sizeOf(student.getEmail());
+        Address address = student.getAddress();
+        if (address != null) {
+            size += 32 + sizeOf(address.getStreet()) + sizeOf(address.getCity());
+        }
+        List<String> courses = student.getCourses();
+        if (courses != null) {
+            size += 32;
+            for (String course : courses) {
+                size += 8 + sizeOf(course);
+            }
+        }
+        if (student.getGraduationDate() != null) {
+            size += 48;
+        }
+        if (student.getRegisterDate() != null) {
+            size += 48;
+        }
+        return size;
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+}
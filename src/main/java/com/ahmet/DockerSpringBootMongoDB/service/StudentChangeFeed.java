@@ -0,0 +1,266 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentChange;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidResumeTokenException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Publishes the changes to the "students" collection to any number of subscribers.
+ *
+ * All subscribers share a single change stream cursor per node. It is opened for the first subscriber
+ * and closed after the last one leaves. Inserts and replacements carry the stored student, updates only
+ * the updated and removed fields, and deletions only the student's id, so no document is looked up again.
+ *
+ * Every change carries the change stream's resume token. The last {@code students.changes.replay-capacity}
+ * changes are kept, so a subscriber that reconnects with the token of the last change it received is
+ * first sent the changes it missed. An older token, or one from another node, gets a cursor of its own
+ * resuming after that token, which MongoDB serves for as long as the change is in its oplog. Every
+ * subscriber buffers up to {@code students.changes.subscriber-buffer} changes; one that falls further behind
+ * is disconnected and can reconnect with its last token. Change streams require MongoDB to run as a
+ * replica set or sharded cluster.
+ */
+@Service
+public class StudentChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentChangeFeed.class);
+
+    private static final String COLLECTION = "students";
+    private static final Pattern RESUME_TOKEN = Pattern.compile("[0-9A-Fa-f]{1,4096}");
+    private static final Set<String> HIDDEN_FIELDS = Set.of("nameKey", "_class");
+
+    private final MongoTemplate mongoTemplate;
+    private final int replayCapacity;
+    private final int subscriberBuffer;
+    private final MessageListenerContainer container;
+    private final Object lock = new Object();
+    private final Deque<StudentChange> recentChanges = new ArrayDeque<>();
+    private final Set<Sinks.Many<StudentChange>> subscribers = new LinkedHashSet<>();
+    private Subscription sharedCursor;
+
+    public StudentChangeFeed(MongoTemplate mongoTemplate,
+                             @Value("${students.changes.replay-capacity:1000}") int replayCapacity,
+                             @Value("${students.changes.subscriber-buffer:1000}") int subscriberBuffer) {
+        this.mongoTemplate = mongoTemplate;
+        this.replayCapacity = replayCapacity;
+        this.subscriberBuffer = subscriberBuffer;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+        this.container.start();
+    }
+
+    /**
+     * Subscribes to the changes made from now on, or after a given change.
+     *
+     * @param resumeAfter The resume token of the last change the subscriber received, or null for new changes only.
+     * @return The changes, in the order MongoDB applied them. Completes when the collection is dropped or
+     * renamed, and fails if the change stream fails or the subscriber falls too far behind.
+     * @throws InvalidResumeTokenException if the resume token is malformed.
+     */
+    public Flux<StudentChange> changes(String resumeAfter) {
+        if (resumeAfter != null && !RESUME_TOKEN.matcher(resumeAfter).matches()) {
+            throw new InvalidResumeTokenException(resumeAfter);
+        }
+        return Flux.defer(() -> {
+            Sinks.Many<StudentChange> subscriber = Sinks.many().unicast()
+                    .onBackpressureBuffer(new ArrayBlockingQueue<>(subscriberBuffer));
+            Subscription ownCursor = null;
+            synchronized (lock) {
+                List<StudentChange> missed = resumeAfter == null ? List.of() : changesAfter(resumeAfter);
+                if (missed == null) {
+                    ownCursor = openCursor(new BsonDocument("_data", new BsonString(resumeAfter)),
+                            event -> {
+                                if (emit(subscriber, toChange(event)) && event.getOperationType() == OperationType.INVALIDATE) {
+                                    subscriber.tryEmitComplete();
+                                }
+                            },
+                            error -> subscriber.tryEmitError(error));
+                } else {
+                    missed.forEach(change -> emit(subscriber, change));
+                    subscribers.add(subscriber);
+                    if (sharedCursor == null) {
+                        recentChanges.clear();
+                        sharedCursor = openCursor(null, this::publish, this::sharedCursorFailed);
+                    }
+                }
+            }
+            Subscription cursor = ownCursor;
+            return subscriber.asFlux().doFinally(signal -> unsubscribe(subscriber, cursor));
+        });
+    }
+
+    /**
+     * Stops all change stream cursors.
+     */
+    @PreDestroy
+    public void stop() {
+        container.stop();
+    }
+
+    /**
+     * Passes a change from the shared cursor to every subscriber and keeps it for replay.
+     * Subscribers that cannot take it are disconnected.
+     *
+     * @param event The raw change stream event.
+     */
+    private void publish(ChangeStreamDocument<Document> event) {
+        StudentChange change = toChange(event);
+        synchronized (lock) {
+            recentChanges.addLast(change);
+            if (recentChanges.size() > replayCapacity) {
+                recentChanges.removeFirst();
+            }
+            subscribers.removeIf(subscriber -> !emit(subscriber, change));
+            if (event.getOperationType() == OperationType.INVALIDATE) {
+                subscribers.forEach(Sinks.Many::tryEmitComplete);
+                subscribers.clear();
+                closeSharedCursor();
+            }
+        }
+    }
+
+    /**
+     * Fails every subscriber of the shared cursor, so they reconnect with their last resume token.
+     *
+     * @param error The error raised by the change stream.
+     */
+    private void sharedCursorFailed(Throwable error) {
+        synchronized (lock) {
+            log.warn("Student change stream failed, disconnecting {} subscribers", subscribers.size(), error);
+            subscribers.forEach(subscriber -> subscriber.tryEmitError(error));
+            subscribers.clear();
+            closeSharedCursor();
+        }
+    }
+
+    private void unsubscribe(Sinks.Many<StudentChange> subscriber, Subscription ownCursor) {
+        if (ownCursor != null) {
+            container.remove(ownCursor);
+            return;
+        }
+        synchronized (lock) {
+            subscribers.remove(subscriber);
+            if (subscribers.isEmpty()) {
+                closeSharedCursor();
+            }
+        }
+    }
+
+    /**
+     * Closes the shared cursor. The replay buffer is cleared when the next one opens, because
+     * the changes in between are not seen.
+     */
+    private void closeSharedCursor() {
+        if (sharedCursor != null) {
+            container.remove(sharedCursor);
+            sharedCursor = null;
+        }
+    }
+
+    /**
+     * Looks up the changes after a resume token among the recent changes of the shared cursor.
+     *
+     * @param resumeToken The resume token of the last change the subscriber received.
+     * @return The changes after it, or null if the token is not among the recent changes.
+     */
+    private List<StudentChange> changesAfter(String resumeToken) {
+        List<StudentChange> missed = new ArrayList<>();
+        for (Iterator<StudentChange> changes = recentChanges.descendingIterator(); changes.hasNext(); ) {
+            StudentChange change = changes.next();
+            if (resumeToken.equalsIgnoreCase(change.getResumeToken())) {
+                Collections.reverse(missed);
+                return missed;
+            }
+            missed.add(change);
+        }
+        return null;
+    }
+
+    private static boolean emit(Sinks.Many<StudentChange> subscriber, StudentChange change) {
+        if (subscriber.tryEmitNext(change).isSuccess()) {
+            return true;
+        }
+        subscriber.tryEmitError(new IllegalStateException("Subscriber fell behind the student change stream"));
+        return false;
+    }
+
+    private Subscription openCursor(BsonDocument resumeAfter, Consumer<ChangeStreamDocument<Document>> listener,
+                                    Consumer<Throwable> onError) {
+        MessageListener<ChangeStreamDocument<Document>, Document> messageListener = message -> listener.accept(message.getRaw());
+        ChangeStreamRequest.ChangeStreamRequestBuilder<Document> request = ChangeStreamRequest.<Document>builder()
+                .collection(COLLECTION)
+                .publishTo(messageListener);
+        if (resumeAfter != null) {
+            request.resumeAfter(resumeAfter);
+        }
+        return container.register(request.build(), Document.class, onError::accept);
+    }
+
+    /**
+     * Converts a raw change stream event into the change sent to subscribers.
+     *
+     * @param event The raw change stream event.
+     * @return The change.
+     */
+    private StudentChange toChange(ChangeStreamDocument<Document> event) {
+        BsonDocument documentKey = event.getDocumentKey();
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        Instant timestamp = event.getClusterTime() == null ? null : Instant.ofEpochSecond(event.getClusterTime().getTime());
+        Student student = event.getFullDocument() == null ? null
+                : mongoTemplate.getConverter().read(Student.class, event.getFullDocument());
+        UpdateDescription updateDescription = event.getUpdateDescription();
+        Map<String, Object> updatedFields = null;
+        List<String> removedFields = null;
+        if (updateDescription != null) {
+            if (updateDescription.getUpdatedFields() != null) {
+                updatedFields = new DocumentCodec().decode(updateDescription.getUpdatedFields().asBsonReader(),
+                        DecoderContext.builder().build());
+                updatedFields.keySet().removeAll(HIDDEN_FIELDS);
+            }
+            removedFields = updateDescription.getRemovedFields();
+        }
+        return new StudentChange(event.getResumeToken().getString("_data").getValue(),
+                event.getOperationTypeString(), id == null ? null : toId(id), timestamp, student, updatedFields, removedFields);
+    }
+
+    private static String toId(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
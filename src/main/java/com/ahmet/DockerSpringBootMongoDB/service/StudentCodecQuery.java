@@ -0,0 +1,84 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentCodec;
+import com.mongodb.client.FindIterable;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * A student query prepared to run on the driver, which decodes the results with {@link StudentCodec}
+ * instead of reading them into Documents for MongoTemplate's converter.
+ *
+ * The filter, projection and sort are mapped by Spring Data's QueryMapper exactly as MongoTemplate maps
+ * them, so {@code id} becomes {@code _id} and the queries of {@link StudentQueries} can be used unchanged.
+ */
+final class StudentCodecQuery {
+
+    private final Document filter;
+    private final Document projection;
+    private final Document sort;
+    private final int limit;
+    private final Integer batchSize;
+
+    /**
+     * Maps a query to the stored field names.
+     *
+     * @param query     The query to run.
+     * @param converter The converter of the template the query would otherwise run on.
+     */
+    StudentCodecQuery(Query query, MongoConverter converter) {
+        QueryMapper mapper = new QueryMapper(converter);
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(Student.class);
+        this.filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        this.projection = mapper.getMappedFields(query.getFieldsObject(), entity);
+        this.sort = mapper.getMappedSort(query.getSortObject(), entity);
+        this.limit = query.getLimit();
+        this.batchSize = query.getMeta().getCursorBatchSize();
+    }
+
+    /**
+     * Creates the find operation on a collection of the blocking driver.
+     *
+     * @param collection The students collection.
+     * @return The find operation, decoding students with the codec registered for {@link Student}.
+     */
+    FindIterable<Student> find(com.mongodb.client.MongoCollection<Document> collection) {
+        return find(collection, Student.class);
+    }
+
+    /**
+     * Creates the find operation on a collection of the blocking driver, returning another document class,
+     * such as RawBsonDocument to get the documents as they were received.
+     *
+     * @param collection    The students collection.
+     * @param documentClass The class to decode the documents to, with a codec in the collection's registry.
+     * @param <T>           The document type.
+     * @return The find operation.
+     */
+    <T> FindIterable<T> find(com.mongodb.client.MongoCollection<Document> collection, Class<T> documentClass) {
+        FindIterable<T> find = collection.withDocumentClass(documentClass).find(filter)
+                .projection(projection.isEmpty() ? null : projection)
+                .sort(sort.isEmpty() ? null : sort)
+                .limit(limit);
+        return batchSize == null ? find : find.batchSize(batchSize);
+    }
+
+    /**
+     * Creates the find operation on a collection of the reactive streams driver.
+     *
+     * @param collection The students collection.
+     * @return The find operation, decoding students with the codec registered for {@link Student}.
+     */
+    FindPublisher<Student> find(com.mongodb.reactivestreams.client.MongoCollection<Document> collection) {
+        FindPublisher<Student> find = collection.withDocumentClass(Student.class).find(filter)
+                .projection(projection.isEmpty() ? null : projection)
+                .sort(sort.isEmpty() ? null : sort)
+                .limit(limit);
+        return batchSize == null ? find : find.batchSize(batchSize);
+    }
+}
@@ -0,0 +1,239 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidStudentIdException;
+import com.ahmet.DockerSpringBootMongoDB.exception.MissingFieldException;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Precompiled accessor table for the fields of {@link Student} and {@link Address}.
+ *
+ * The tables are built from method references when the class is loaded and replace the
+ * per-request reflection previously used to merge and validate students. Validation only
+ * walks the tables, so it allocates nothing per call. The same tables turn a partial
+ * student into a {@code $set} update. When the class is loaded, the tables are
+ * checked once against the declared fields of each entity, so a field added to an entity
+ * without an accessor fails fast instead of being silently skipped. The {@link Version}
+ * field is maintained by MongoTemplate and has no accessor.
+ */
+final class StudentFields {
+
+    private static final String ID = "id";
+    private static final String VERSION = "version";
+    private static final String NAME_KEY = "nameKey";
+
+    private static final Accessor<Address, ?>[] ADDRESS_FIELDS = accessors(
+            new Accessor<>("street", Address::getStreet, null),
+            new Accessor<>("city", Address::getCity, null),
+            new Accessor<>("postcode", Address::getPostcode, null)
+    );
+
+    private static final Accessor<Student, ?>[] STUDENT_FIELDS = accessors(
+            new Accessor<>("id", Student::getId, null),
+            new Accessor<>("name", Student::getName, null),
+            new Accessor<>("email", Student::getEmail, null),
+            new Accessor<>("address", Student::getAddress, ADDRESS_FIELDS),
+            new Accessor<>("age", Student::getAge, null),
+            new Accessor<>("courses", Student::getCourses, null),
+            new Accessor<>("fullTime", Student::getFullTime, null),
+            new Accessor<>("gpa", Student::getGpa, null),
+            new Accessor<>("graduationDate", Student::getGraduationDate, null),
+            new Accessor<>("registerDate", Student::getRegisterDate, null)
+    );
+
+    static {
+        verifyCoverage(Address.class, ADDRESS_FIELDS);
+        verifyCoverage(Student.class, STUDENT_FIELDS);
+    }
+
+    private StudentFields() {
+    }
+
+    /**
+     * Builds a {@code $set} update from every non-null field of {@code source}.
+     * When merging, address fields are set through dotted paths such as {@code address.city}, so an
+     * existing address is merged rather than replaced, as a PATCH expects. Otherwise the address is set
+     * as a whole subdocument, as a PUT expects. The id is never part of the update.
+     * A new name also sets the derived {@code nameKey}, so case-insensitive searches find the student.
+     *
+     * @param source      The student data to update from.
+     * @param mergeNested Whether nested values are merged into the stored ones instead of replacing them.
+     * @return The update, without any modifier if all fields of {@code source} are null.
+     */
+    static Update toSetUpdate(Student source, boolean mergeNested) {
+        Update update = new Update();
+        for (Accessor<Student, ?> field : STUDENT_FIELDS) {
+            if (!ID.equals(field.name)) {
+                field.appendSet(update, source, "", mergeNested);
+            }
+        }
+        if (source.getName() != null) {
+            update.set(NAME_KEY, source.getNameKey());
+        }
+        return update;
+    }
+
+    /**
+     * Builds an update that replaces every field of the stored student with the field of {@code source}:
+     * non-null fields are set, the address as a whole subdocument, and null fields are unset.
+     * Applied as an upsert, it replaces or inserts the student in one atomic write while MongoTemplate
+     * increments the version. The id is never part of the update, and the derived {@code nameKey}
+     * follows the name.
+     *
+     * @param source The student to store.
+     * @return The update.
+     */
+    static Update toReplaceUpdate(Student source) {
+        Update update = new Update();
+        for (Accessor<Student, ?> field : STUDENT_FIELDS) {
+            if (ID.equals(field.name)) {
+                continue;
+            }
+            Object value = field.getter.apply(source);
+            if (value == null) {
+                update.unset(field.name);
+            } else {
+                update.set(field.name, value);
+            }
+        }
+        if (source.getName() == null) {
+            update.unset(NAME_KEY);
+        } else {
+            update.set(NAME_KEY, source.getNameKey());
+        }
+        return update;
+    }
+
+    /**
+     * Checks whether a path names a stored student field.
+     * Valid paths are the top-level fields, {@code version}, and dotted paths into the address
+     * such as {@code address.city}.
+     *
+     * @param path The field path to check.
+     * @return true if the path names a stored field.
+     */
+    static boolean isPath(String path) {
+        if (VERSION.equals(path)) {
+            return true;
+        }
+        int dot = path.indexOf('.');
+        String head = dot < 0 ? path : path.substring(0, dot);
+        for (Accessor<Student, ?> field : STUDENT_FIELDS) {
+            if (field.name.equals(head)) {
+                return dot < 0 || field.hasNested(path.substring(dot + 1));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that every field of a student is set.
+     *
+     * @param student The student to check.
+     * @throws MissingFieldException for the first field, in declaration order, that is null.
+     */
+    static void requireAll(Student student) {
+        for (Accessor<Student, ?> field : STUDENT_FIELDS) {
+            if (field.getter.apply(student) == null) {
+                throw new MissingFieldException(field.name);
+            }
+        }
+    }
+
+    /**
+     * Checks that a client-supplied student id is an ObjectId.
+     * Keyset pagination orders and bounds students by ObjectId, so a student stored with any other id
+     * would be skipped by every page, and a page ending with it could not be continued.
+     *
+     * @param id The id to check, or null to have one generated.
+     * @throws InvalidStudentIdException if the id is not a valid ObjectId.
+     */
+    static void requireObjectId(String id) {
+        if (id != null && !ObjectId.isValid(id)) {
+            throw new InvalidStudentIdException(id);
+        }
+    }
+
+    @SafeVarargs
+    private static <T> Accessor<T, ?>[] accessors(Accessor<T, ?>... accessors) {
+        return accessors;
+    }
+
+    /**
+     * Fails if a declared instance field of the given type, other than the version, has no accessor in the table.
+     *
+     * @param type   The entity type.
+     * @param fields The accessor table for that type.
+     * @throws IllegalStateException if the table does not cover every field.
+     */
+    private static void verifyCoverage(Class<?> type, Accessor<?, ?>[] fields) {
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(Version.class)) {
+                continue;
+            }
+            boolean covered = Arrays.stream(fields).anyMatch(accessor -> accessor.name.equals(field.getName()));
+            if (!covered) {
+                throw new IllegalStateException("No accessor for field " + type.getSimpleName() + "." + field.getName());
+            }
+        }
+    }
+
+    /**
+     * Getter of a single field, with the accessors of its nested fields if it holds a subdocument.
+     *
+     * @param <T> The type declaring the field.
+     * @param <V> The type of the field.
+     */
+    private static final class Accessor<T, V> {
+        private final String name;
+        private final Function<T, V> getter;
+        private final Accessor<V, ?>[] nested;
+
+        private Accessor(String name, Function<T, V> getter, Accessor<V, ?>[] nested) {
+            this.name = name;
+            this.getter = getter;
+            this.nested = nested;
+        }
+
+        /**
+         * Checks whether this field has a nested field with the given name.
+         */
+        private boolean hasNested(String nestedName) {
+            if (nested == null) {
+                return false;
+            }
+            for (Accessor<V, ?> field : nested) {
+                if (field.name.equals(nestedName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds this field of {@code source} to the update if it is not null.
+         * When merging, nested values contribute one dotted path per non-null nested field.
+         */
+        private void appendSet(Update update, T source, String prefix, boolean mergeNested) {
+            V value = getter.apply(source);
+            if (value == null) {
+                return;
+            }
+            if (nested == null || !mergeNested) {
+                update.set(prefix + name, value);
+                return;
+            }
+            for (Accessor<V, ?> field : nested) {
+                field.appendSet(update, value, prefix + name + ".", true);
+            }
+        }
+    }
+}
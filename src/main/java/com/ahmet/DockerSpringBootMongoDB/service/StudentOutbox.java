@@ -0,0 +1,87 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Writes outbox events together with the student changes they describe.
+ *
+ * When {@code students.outbox.enabled} is set, {@link #inTransaction} runs a change in a multi-document
+ * transaction and {@link #record} adds its events to the "student_outbox" collection within it, so either
+ * both are committed or neither is. Transactions aborted by a write conflict are run again, up to
+ * {@code students.outbox.transaction-retries} times. When the outbox is disabled, changes run as before
+ * and no events are written. Transactions require MongoDB to run as a replica set.
+ */
+@Component
+public class StudentOutbox {
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int transactionRetries;
+
+    public StudentOutbox(MongoTemplate mongoTemplate,
+                         MongoTransactionManager transactionManager,
+                         @Value("${students.outbox.enabled:false}") boolean enabled,
+                         @Value("${students.outbox.transaction-retries:3}") int transactionRetries) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.transactionRetries = transactionRetries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs a change in a transaction if the outbox is enabled, or directly otherwise.
+     * The change may be run more than once, so it must not depend on state changed by an earlier attempt.
+     *
+     * @param change The change, writing its events with {@link #record}.
+     * @return The result of the change.
+     */
+    public <T> T inTransaction(Supplier<T> change) {
+        if (!enabled) {
+            return change.get();
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> change.get());
+            } catch (RuntimeException e) {
+                if (attempt >= transactionRetries || !StudentOutboxEvents.isTransient(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds events to the outbox in the current transaction. Does nothing if the outbox is disabled.
+     *
+     * @param events The events to add.
+     */
+    public void record(Collection<StudentOutboxEvent> events) {
+        if (enabled && !events.isEmpty()) {
+            mongoTemplate.insert(events, StudentOutboxEvent.class);
+        }
+    }
+
+    /**
+     * Adds an event to the outbox in the current transaction. Does nothing if the outbox is disabled.
+     *
+     * @param event The event to add.
+     */
+    public void record(StudentOutboxEvent event) {
+        if (enabled) {
+            mongoTemplate.insert(event);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds the outbox events and the queries of the outbox relay, shared by the blocking and the reactive services.
+ */
+final class StudentOutboxEvents {
+
+    static final String SAVED = "saved";
+    static final String UPDATED = "updated";
+    static final String DELETED = "deleted";
+
+    private StudentOutboxEvents() {
+    }
+
+    /**
+     * Creates the event of a student that was created or replaced.
+     *
+     * @param student The student as saved.
+     * @return The event.
+     */
+    static StudentOutboxEvent saved(Student student) {
+        return event(SAVED, student.getId(), student);
+    }
+
+    /**
+     * Creates the event of a student whose fields were updated.
+     *
+     * @param student The student as stored after the update.
+     * @return The event.
+     */
+    static StudentOutboxEvent updated(Student student) {
+        return event(UPDATED, student.getId(), student);
+    }
+
+    /**
+     * Creates the events of deleted students.
+     *
+     * @param ids The IDs of the deleted students.
+     * @return One event per student.
+     */
+    static List<StudentOutboxEvent> deleted(Collection<String> ids) {
+        return ids.stream().map(id -> event(DELETED, id, null)).toList();
+    }
+
+    private static StudentOutboxEvent event(String type, String studentId, Student student) {
+        return new StudentOutboxEvent(null, type, studentId, student, Instant.now(), null, null);
+    }
+
+    /**
+     * Finds the oldest events not claimed by any batch yet.
+     *
+     * @param limit The maximum number of events.
+     * @return The query, fetching only the event IDs.
+     */
+    static Query pending(int limit) {
+        Query query = Query.query(Criteria.where("batch").is(null))
+                .with(Sort.by("id"))
+                .limit(limit);
+        query.fields().include("id");
+        return query;
+    }
+
+    /**
+     * Matches the given events that are still unclaimed, so events claimed by another relay in the meantime are left alone.
+     *
+     * @param ids The IDs of the events to claim.
+     * @return The query.
+     */
+    static Query unclaimed(List<String> ids) {
+        return Query.query(Criteria.where("id").in(ids).and("batch").is(null));
+    }
+
+    /**
+     * Assigns events to a batch and records when, so the batch can be taken over once its lease expires.
+     *
+     * @param batch The ID of the batch.
+     * @return The update.
+     */
+    static Update claim(String batch) {
+        return new Update().set("batch", batch).set("claimedAt", Instant.now());
+    }
+
+    /**
+     * Finds the events of a batch in the order they were written.
+     *
+     * @param batch The ID of the batch.
+     * @return The query.
+     */
+    static Query inBatch(String batch) {
+        return Query.query(Criteria.where("batch").is(batch)).with(Sort.by("id"));
+    }
+
+    /**
+     * Finds the events of batches whose relay has not finished them within the lease, e.g. because it crashed.
+     *
+     * @param claimedBefore The time before which the batches were claimed.
+     * @return The query.
+     */
+    static Query abandoned(Instant claimedBefore) {
+        return Query.query(Criteria.where("batch").ne(null).and("claimedAt").lt(claimedBefore));
+    }
+
+    /**
+     * Matches the events of one abandoned batch, so it can be taken over by setting a new claim time.
+     *
+     * @param batch         The ID of the batch.
+     * @param claimedBefore The time before which the batch was claimed.
+     * @return The query.
+     */
+    static Query abandoned(String batch, Instant claimedBefore) {
+        return Query.query(Criteria.where("batch").is(batch).and("claimedAt").lt(claimedBefore));
+    }
+
+    /**
+     * Creates a new batch ID. Batch IDs sort in the order the batches were claimed.
+     *
+     * @return The batch ID.
+     */
+    static String newBatch() {
+        return new ObjectId().toHexString();
+    }
+
+    /**
+     * Checks whether an error aborted a transaction that can be run again, such as a write conflict
+     * with a concurrent transaction on the same student.
+     *
+     * @param error The error raised by the transaction.
+     * @return true if the transaction can be retried.
+     */
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes the events of the student outbox on to the {@link StudentOutboxSink}.
+ *
+ * Every {@code students.outbox.flush-interval}, the relay drains the outbox in batches of up to
+ * {@code students.outbox.batch-size} events, so only a single batch is held in memory. A batch is claimed
+ * by storing its ID on its events before it is delivered, and removed once the sink has stored it.
+ * A batch is therefore delivered again unchanged if the sink fails or the relay stops half way, and a sink
+ * applying every batch ID once receives every event exactly once. A failed batch is retried before any
+ * new one is claimed, so batches reach the sink in order. Batches claimed by a relay that has not
+ * finished them within {@code students.outbox.lease}, for example because its node crashed, are taken over
+ * by the relay of another node.
+ */
+@Component
+public class StudentOutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentOutboxRelay.class);
+
+    private static final Index OUTBOX_INDEX = new Index().on("batch", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("batch_id");
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentOutboxSink sink;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration lease;
+    private volatile ScheduledExecutorService scheduler;
+    private String unfinishedBatch;
+
+    public StudentOutboxRelay(MongoTemplate mongoTemplate,
+                              StudentOutboxSink sink,
+                              @Value("${students.outbox.enabled:false}") boolean enabled,
+                              @Value("${students.outbox.batch-size:500}") int batchSize,
+                              @Value("${students.outbox.flush-interval:1s}") Duration flushInterval,
+                              @Value("${students.outbox.lease:1m}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.sink = sink;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.lease = lease;
+    }
+
+    /**
+     * Creates the index the relay queries the outbox with, which also creates the collection before the first
+     * transaction writes to it, and starts relaying.
+     */
+    @Override
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        mongoTemplate.indexOps(StudentOutboxEvent.class).ensureIndex(OUTBOX_INDEX);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "student-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushAndLogFailure, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops relaying after the batch in progress. Events left in the outbox are relayed after the next start.
+     */
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(lease.toMillis(), TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Relays batches until the outbox holds fewer events than a batch, starting with a batch that
+     * failed before and with batches abandoned by other relays. Stops claiming new batches once the relay is stopping.
+     *
+     * @return The number of events delivered.
+     */
+    int flush() {
+        int delivered = 0;
+        if (unfinishedBatch != null) {
+            delivered += deliver(unfinishedBatch);
+        }
+        delivered += takeOverAbandonedBatches();
+        int claimed;
+        do {
+            ScheduledExecutorService current = scheduler;
+            if (current != null && current.isShutdown()) {
+                break;
+            }
+            claimed = claimBatch();
+            delivered += claimed;
+        } while (claimed == batchSize);
+        return delivered;
+    }
+
+    private void flushAndLogFailure() {
+        try {
+            int delivered = flush();
+            if (delivered > 0) {
+                log.debug("Relayed {} student outbox events", delivered);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not relay student outbox batch {}, retrying in {}", unfinishedBatch, flushInterval, e);
+        }
+    }
+
+    /**
+     * Claims the oldest pending events for a new batch and delivers it.
+     *
+     * @return The number of events delivered.
+     */
+    private int claimBatch() {
+        List<String> ids = mongoTemplate.find(StudentOutboxEvents.pending(batchSize), StudentOutboxEvent.class).stream()
+                .map(StudentOutboxEvent::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String batch = StudentOutboxEvents.newBatch();
+        mongoTemplate.updateMulti(StudentOutboxEvents.unclaimed(ids), StudentOutboxEvents.claim(batch), StudentOutboxEvent.class);
+        return deliver(batch);
+    }
+
+    /**
+     * Takes over the batches claimed by relays that have not finished them within the lease, oldest first.
+     * A batch is only taken over if its claim time is still the old one, so two relays do not both deliver it.
+     *
+     * @return The number of events delivered.
+     */
+    private int takeOverAbandonedBatches() {
+        Instant claimedBefore = Instant.now().minus(lease);
+        List<String> batches = mongoTemplate.findDistinct(StudentOutboxEvents.abandoned(claimedBefore), "batch",
+                StudentOutboxEvent.class, String.class).stream().sorted().toList();
+        int delivered = 0;
+        for (String batch : batches) {
+            if (mongoTemplate.updateMulti(StudentOutboxEvents.abandoned(batch, claimedBefore),
+                    Update.update("claimedAt", Instant.now()), StudentOutboxEvent.class).getModifiedCount() > 0) {
+                log.info("Taking over abandoned student outbox batch {}", batch);
+                delivered += deliver(batch);
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Delivers a claimed batch to the sink and removes its events from the outbox.
+     * If either step fails, the batch is remembered and delivered again on the next flush.
+     *
+     * @param batch The ID of the batch.
+     * @return The number of events delivered.
+     */
+    private int deliver(String batch) {
+        unfinishedBatch = batch;
+        List<StudentOutboxEvent> events = mongoTemplate.find(StudentOutboxEvents.inBatch(batch), StudentOutboxEvent.class);
+        if (!events.isEmpty()) {
+            sink.deliver(batch, events);
+            mongoTemplate.remove(StudentOutboxEvents.inBatch(batch), StudentOutboxEvent.class);
+        }
+        unfinishedBatch = null;
+        return events.size();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the student outbox, such as a file picked up by the data warehouse.
+ *
+ * The outbox relay passes events in batches. A batch whose delivery failed, or whose relay stopped
+ * before removing it from the outbox, is delivered again with the same ID and the same events.
+ * A sink that applies every batch ID only once therefore receives every event exactly once.
+ * Declare a bean of this type to replace the built-in sinks.
+ */
+public interface StudentOutboxSink {
+
+    /**
+     * Delivers a batch of events. Returns only once the batch is stored durably, because the relay
+     * removes the events from the outbox afterwards.
+     *
+     * @param batch  The ID of the batch. IDs sort in the order the batches were claimed.
+     * @param events The events of the batch, in the order they were written.
+     * @throws RuntimeException if the batch could not be delivered; it is delivered again later.
+     */
+    void deliver(String batch, List<StudentOutboxEvent> events);
+}
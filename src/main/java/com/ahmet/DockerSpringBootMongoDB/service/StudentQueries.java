@@ -0,0 +1,359 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentJson;
+import com.ahmet.DockerSpringBootMongoDB.dto.RawStudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchHit;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import com.ahmet.DockerSpringBootMongoDB.exception.UnknownFieldException;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Query builders shared by the blocking and the reactive student services.
+ *
+ * Both services run exactly the same queries against MongoDB; only the driver used to
+ * execute them differs.
+ */
+final class StudentQueries {
+
+    private static final String SCORE = "_score";
+
+    private StudentQueries() {
+    }
+
+    /**
+     * Builds the criteria for names starting with a prefix as a range, so it is served by the name index.
+     *
+     * @param prefix The prefix to match student names against.
+     * @return The criteria matching names in {@code [prefix, prefixUpperBound(prefix))}.
+     */
+    static Criteria nameRange(String prefix) {
+        return Criteria.where("name").gte(prefix).lt(prefixUpperBound(prefix));
+    }
+
+    /**
+     * Builds the criteria for names starting with a prefix, ignoring case and accents.
+     * The prefix is normalized like the stored {@code nameKey}, and matched as a range on that key,
+     * so it is served by the {@code nameKey} index.
+     *
+     * @param prefix The prefix to match student names against.
+     * @return The criteria matching normalized names in {@code [key, prefixUpperBound(key))}.
+     */
+    static Criteria nameKeyRange(String prefix) {
+        String key = Student.nameKey(prefix);
+        return Criteria.where("nameKey").gte(key).lt(prefixUpperBound(key));
+    }
+
+    /**
+     * Computes the exclusive upper bound of the strings starting with a prefix, in the order MongoDB compares them:
+     * by their UTF-8 bytes, which is the order of their code points. The last code point of the prefix is incremented,
+     * so names continuing with supplementary characters, such as emoji, still sort below the bound.
+     * Trailing U+10FFFF, the largest code point, cannot be incremented and is dropped first. If nothing is left,
+     * the bound is U+10FFFF itself, which only leaves out strings starting with that noncharacter.
+     *
+     * @param prefix The prefix, such as a name or a normalized name.
+     * @return The smallest string greater than every string starting with {@code prefix}.
+     */
+    static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.codePointBefore(end) == Character.MAX_CODE_POINT) {
+            end -= Character.charCount(Character.MAX_CODE_POINT);
+        }
+        if (end == 0) {
+            return Character.toString(Character.MAX_CODE_POINT);
+        }
+        int last = prefix.codePointBefore(end);
+        int next = last + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : last + 1;
+        return prefix.substring(0, end - Character.charCount(last)) + Character.toString(next);
+    }
+
+    /**
+     * Builds the criteria for an age range. Like the derived {@code findByAgeBetween}, both bounds are exclusive.
+     *
+     * @param minAge The exclusive minimum age, or null for no lower bound.
+     * @param maxAge The exclusive maximum age, or null for no upper bound.
+     * @return The criteria matching ages in {@code (minAge, maxAge)}.
+     */
+    static Criteria ageRange(Integer minAge, Integer maxAge) {
+        Criteria age = Criteria.where("age");
+        if (minAge != null) {
+            age.gt(minAge);
+        }
+        if (maxAge != null) {
+            age.lt(maxAge);
+        }
+        return age;
+    }
+
+    /**
+     * Builds the query for the next page of students ordered by id.
+     *
+     * @param lastId   The id of the last student on the previous page.
+     * @param pageSize The number of students on a page. One more is fetched to detect the last page.
+     * @return The query.
+     */
+    static Query idPage(ObjectId lastId, int pageSize) {
+        return Query.query(Criteria.where("id").gt(lastId))
+                .with(Sort.by("id"))
+                .limit(pageSize + 1);
+    }
+
+    /**
+     * Builds the query for the next page of students whose names start with a prefix, ordered by name and id.
+     *
+     * @param name     The prefix to match student names against.
+     * @param lastName The name of the last student on the previous page.
+     * @param lastId   The id of the last student on the previous page.
+     * @param pageSize The number of students on a page. One more is fetched to detect the last page.
+     * @return The query.
+     */
+    static Query namePage(String name, String lastName, ObjectId lastId, int pageSize) {
+        return Query.query(nameRange(name).orOperator(
+                        Criteria.where("name").gt(lastName),
+                        Criteria.where("name").is(lastName).and("id").gt(lastId)))
+                .with(Sort.by("name", "id"))
+                .limit(pageSize + 1);
+    }
+
+    /**
+     * Builds the query for the next page of students whose names start with a prefix, ignoring case and accents,
+     * ordered by the normalized name and id.
+     *
+     * @param name        The prefix to match student names against.
+     * @param lastNameKey The normalized name of the last student on the previous page.
+     * @param lastId      The id of the last student on the previous page.
+     * @param pageSize    The number of students on a page. One more is fetched to detect the last page.
+     * @return The query.
+     */
+    static Query nameKeyPage(String name, String lastNameKey, ObjectId lastId, int pageSize) {
+        return Query.query(nameKeyRange(name).orOperator(
+                        Criteria.where("nameKey").gt(lastNameKey),
+                        Criteria.where("nameKey").is(lastNameKey).and("id").gt(lastId)))
+                .with(Sort.by("nameKey", "id"))
+                .limit(pageSize + 1);
+    }
+
+    /**
+     * Builds the query for the next page of students within an age range, ordered by age and id.
+     *
+     * @param minAge   The exclusive minimum age.
+     * @param maxAge   The exclusive maximum age.
+     * @param lastAge  The age of the last student on the previous page.
+     * @param lastId   The id of the last student on the previous page.
+     * @param pageSize The number of students on a page. One more is fetched to detect the last page.
+     * @return The query.
+     */
+    static Query agePage(int minAge, int maxAge, int lastAge, ObjectId lastId, int pageSize) {
+        return Query.query(ageRange(minAge, maxAge).orOperator(
+                        Criteria.where("age").gt(lastAge),
+                        Criteria.where("age").is(lastAge).and("id").gt(lastId)))
+                .with(Sort.by("age", "id"))
+                .limit(pageSize + 1);
+    }
+
+    /**
+     * Builds the aggregation for the next page of a full-text search, ordered by relevance and id.
+     * Matches are scored against the text index on name, courses and address city; the score is
+     * added as {@value #SCORE} so the position after the previous page can be expressed as a filter.
+     *
+     * @param text      The search terms. Quoted phrases and {@code -}negated terms are supported.
+     * @param lastScore The score of the last hit on the previous page, or null for the first page.
+     * @param lastId    The id of the last hit on the previous page, or null for the first page.
+     * @param pageSize  The number of hits on a page. One more is fetched to detect the last page.
+     * @return The aggregation.
+     */
+    static Aggregation textSearch(String text, Double lastScore, ObjectId lastId, int pageSize) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(text)));
+        stages.add(Aggregation.stage(new Document("$addFields", new Document(SCORE, new Document("$meta", "textScore")))));
+        if (lastScore != null) {
+            stages.add(Aggregation.stage(new Document("$match", new Document("$or", List.of(
+                    new Document(SCORE, new Document("$lt", lastScore)),
+                    new Document(SCORE, lastScore).append("_id", new Document("$gt", lastId)))))));
+        }
+        stages.add(Aggregation.stage(new Document("$sort", new Document(SCORE, -1).append("_id", 1))));
+        stages.add(Aggregation.stage(new Document("$limit", pageSize + 1)));
+        return Aggregation.newAggregation(stages);
+    }
+
+    /**
+     * Builds a page of search hits from an aggregation result that was fetched with one extra document.
+     *
+     * @param documents The scored documents, holding at most {@code pageSize + 1} entries.
+     * @param pageSize  The number of hits to return.
+     * @param converter The converter reading a document into a student.
+     * @return The page with a continuation token, or a null token on the last page.
+     */
+    static StudentSearchPage toSearchPage(List<Document> documents, int pageSize, MongoConverter converter) {
+        List<StudentSearchHit> hits = new ArrayList<>(Math.min(documents.size(), pageSize));
+        for (Document document : documents.subList(0, Math.min(documents.size(), pageSize))) {
+            hits.add(new StudentSearchHit(document.getDouble(SCORE), converter.read(Student.class, document)));
+        }
+        if (documents.size() <= pageSize) {
+            return new StudentSearchPage(hits, null);
+        }
+        StudentSearchHit last = hits.get(pageSize - 1);
+        return new StudentSearchPage(hits, PageToken.encode(last.getStudent().getId(), last.getScore()));
+    }
+
+    /**
+     * Builds the criteria for a bulk delete matching all of the given criteria.
+     *
+     * @param ids        The IDs of the students to delete, or null.
+     * @param namePrefix The prefix the names of the students to delete start with, or null.
+     * @param minAge     The exclusive minimum age of the students to delete, or null.
+     * @param maxAge     The exclusive maximum age of the students to delete, or null.
+     * @return The criteria.
+     * @throws IllegalArgumentException if no criterion is given.
+     */
+    static Criteria deleteMany(List<String> ids, String namePrefix, Integer minAge, Integer maxAge) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (ids != null && !ids.isEmpty()) {
+            criteria.add(Criteria.where("id").in(ids));
+        }
+        if (namePrefix != null && !namePrefix.isEmpty()) {
+            criteria.add(nameRange(namePrefix));
+        }
+        if (minAge != null || maxAge != null) {
+            criteria.add(ageRange(minAge, maxAge));
+        }
+        if (criteria.isEmpty()) {
+            throw new IllegalArgumentException("At least one delete criterion is required");
+        }
+        return new Criteria().andOperator(criteria);
+    }
+
+    /**
+     * Checks whether a bulk delete is restricted by IDs only, so exactly those students can be evicted from caches.
+     *
+     * @param ids        The IDs of the students to delete, or null.
+     * @param namePrefix The name prefix criterion, or null.
+     * @param minAge     The minimum age criterion, or null.
+     * @param maxAge     The maximum age criterion, or null.
+     * @return true if the IDs are the only criterion.
+     */
+    static boolean isIdsOnly(List<String> ids, String namePrefix, Integer minAge, Integer maxAge) {
+        return ids != null && !ids.isEmpty() && (namePrefix == null || namePrefix.isEmpty())
+                && minAge == null && maxAge == null;
+    }
+
+    /**
+     * Builds a query for a student by ID and, if given, by version.
+     *
+     * @param id              The ID of the student.
+     * @param expectedVersion The expected version, or null to match any version.
+     * @return The query.
+     */
+    static Query versioned(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * Builds a query for exactly the given students, each at the version it was read at,
+     * so a student written since it was read does not match.
+     *
+     * @param students The students, with their ID and version.
+     * @return The query.
+     */
+    static Query atVersions(List<Student> students) {
+        List<Criteria> criteria = students.stream()
+                .map(student -> Criteria.where("id").is(student.getId()).and("version").is(student.getVersion()))
+                .toList();
+        return Query.query(new Criteria().orOperator(criteria));
+    }
+
+    /**
+     * Restricts a query to the requested fields, so MongoDB only returns those.
+     * The id and version are always fetched, as are any additional fields the caller needs.
+     * A path whose parent is also requested, such as {@code address.city} with {@code address}, is dropped,
+     * as MongoDB rejects a projection holding both and the parent already returns it.
+     *
+     * @param query    The query to restrict.
+     * @param fields   The requested field paths, such as {@code name} or {@code address.city}.
+     * @param required Additional fields the caller needs, such as sort keys.
+     * @return The same query.
+     * @throws UnknownFieldException if a requested field is not a student field.
+     */
+    static Query project(Query query, List<String> fields, String... required) {
+        for (String field : fields) {
+            if (!StudentFields.isPath(field)) {
+                throw new UnknownFieldException(field);
+            }
+        }
+        for (String field : fields) {
+            boolean parentRequested = fields.stream().anyMatch(other -> field.startsWith(other + "."));
+            if (!parentRequested) {
+                query.fields().include(field);
+            }
+        }
+        query.fields().include("version").include(required);
+        return query;
+    }
+
+    /**
+     * Clamps a requested page size to the range {@code [1, maxPageSize]}.
+     *
+     * @param limit       The requested page size.
+     * @param maxPageSize The largest allowed page size.
+     * @return The page size to use.
+     */
+    static int pageSize(int limit, int maxPageSize) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Builds a page from a query result that was fetched with one extra element.
+     * The extra element only signals that another page exists and is not returned.
+     *
+     * @param students The query result, holding at most {@code pageSize + 1} students.
+     * @param pageSize The number of students to return.
+     * @param sortKey  Extracts the leading sort key of a student, or null when ordering by id only.
+     * @return The page with a continuation token, or a null token on the last page.
+     */
+    static StudentPage toPage(List<Student> students, int pageSize, Function<Student, Object> sortKey) {
+        if (students.size() <= pageSize) {
+            return new StudentPage(students, null);
+        }
+        List<Student> page = students.subList(0, pageSize);
+        Student last = page.get(pageSize - 1);
+        String nextPageToken = PageToken.encode(last.getId(), sortKey == null ? null : sortKey.apply(last));
+        return new StudentPage(page, nextPageToken);
+    }
+
+    /**
+     * Builds a page of raw student documents from a query result that was fetched with one extra element,
+     * like {@link #toPage(List, int, Function)}.
+     *
+     * @param documents The query result, holding at most {@code pageSize + 1} documents.
+     * @param pageSize  The number of documents to return.
+     * @param sortKey   Extracts the leading sort key of a document, or null when ordering by id only.
+     * @return The page with a continuation token, or a null token on the last page.
+     */
+    static RawStudentPage toRawPage(List<RawBsonDocument> documents, int pageSize, Function<RawBsonDocument, Object> sortKey) {
+        if (documents.size() <= pageSize) {
+            return new RawStudentPage(documents, null);
+        }
+        List<RawBsonDocument> page = documents.subList(0, pageSize);
+        RawBsonDocument last = page.get(pageSize - 1);
+        String nextPageToken = PageToken.encode(StudentJson.id(last), sortKey == null ? null : sortKey.apply(last));
+        return new RawStudentPage(page, nextPageToken);
+    }
+}
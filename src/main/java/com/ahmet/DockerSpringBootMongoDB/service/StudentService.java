@@ -1,32 +1,110 @@
 package com.ahmet.DockerSpringBootMongoDB.service;
 
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
 import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
+import com.ahmet.DockerSpringBootMongoDB.dto.RawStudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import org.bson.RawBsonDocument;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface StudentService {
     String save(Student student);
 
+    BulkInsertResponse bulkInsert(Iterator<Student> students);
+
     List<Student> getStudentStartWith(String name);
 
+    List<Student> getStudentStartWith(String name, List<String> fields);
+
+    StudentPage getStudentStartWith(String name, String pageToken, int limit);
+
+    StudentPage getStudentStartWith(String name, String pageToken, int limit, List<String> fields);
+
+    List<Student> getStudentStartWithIgnoreCase(String name, List<String> fields);
+
+    StudentPage getStudentStartWithIgnoreCase(String name, String pageToken, int limit, List<String> fields);
+
+    List<RawBsonDocument> getStudentStartWithRaw(String name, boolean ignoreCase, List<String> fields);
+
+    RawStudentPage getStudentStartWithRaw(String name, boolean ignoreCase, String pageToken, int limit, List<String> fields);
+
+    StudentSearchPage search(String text, String pageToken, int limit);
+
+    List<StudentGroupStats> statsByCourse();
+
+    List<StudentGroupStats> statsByCity();
+
+    List<StudentGroupStats> statsByFullTime();
+
+    List<HistogramBucket> ageHistogram(List<Integer> boundaries);
+
+    List<HistogramBucket> gpaHistogram(List<Double> boundaries);
+
+    List<CourseStats> getCourseEnrollments();
+
+    List<CourseStats> rebuildCourseStats();
+
     public List<Student> findAll();
 
+    List<Student> findAll(List<String> fields);
+
+    StudentPage findAll(String pageToken, int limit);
+
+    StudentPage findAll(String pageToken, int limit, List<String> fields);
+
+    List<RawBsonDocument> findAllRaw(List<String> fields);
+
+    RawStudentPage findAllRaw(String pageToken, int limit, List<String> fields);
+
+    Stream<Student> streamAll();
+
+    Stream<Student> streamAll(List<String> fields);
+
     public Student findById(String id);
 
+    Student findById(String id, List<String> fields);
+
+    RawBsonDocument findRawById(String id, List<String> fields);
+
     void deleteById(String id);
 
+    boolean deleteById(String id, Long expectedVersion);
+
+    long deleteMany(List<String> ids, String namePrefix, Integer minAge, Integer maxAge);
+
     List<Student> getByPersonAge(Integer minAge, Integer maxAge);
 
+    List<Student> getByPersonAge(Integer minAge, Integer maxAge, List<String> fields);
+
+    StudentPage getByPersonAge(Integer minAge, Integer maxAge, String pageToken, int limit);
+
+    StudentPage getByPersonAge(Integer minAge, Integer maxAge, String pageToken, int limit, List<String> fields);
+
+    List<RawBsonDocument> getByPersonAgeRaw(Integer minAge, Integer maxAge, List<String> fields);
+
+    RawStudentPage getByPersonAgeRaw(Integer minAge, Integer maxAge, String pageToken, int limit, List<String> fields);
+
     public Student updateStudent(String id, Student student);
 
     public Student partiallyUpdateStudent(String id, Student student);
 
+    public Student partiallyUpdateStudent(String id, Student student, Long expectedVersion);
+
     boolean existsById(String id);
 
     public Optional<Student> findByIdOptional(String id);
 
     public Optional<Student> updateStudentDetails(String id, Student student);
 
+    public Optional<Student> updateStudentDetails(String id, Student student, Long expectedVersion);
+
 }
 
@@ -1,42 +1,255 @@
 package com.ahmet.DockerSpringBootMongoDB.service;
 
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
 import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertError;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
+import com.ahmet.DockerSpringBootMongoDB.dto.RawStudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidBulkInputException;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidStudentIdException;
 import com.ahmet.DockerSpringBootMongoDB.exception.MissingFieldException;
+import com.ahmet.DockerSpringBootMongoDB.exception.PreconditionFailedException;
 import com.ahmet.DockerSpringBootMongoDB.exception.ResourceNotFoundException;
 import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
-import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 
 /**
  * Service implementation for managing students.
  * Provides functionality for CRUD operations on student entities.
+ * Every call is timed as {@code students.service}, tagged with the method name.
+ * Methods returning a Stream are timed until the stream is returned, not until it is consumed.
+ * Every write is run through the {@link StudentOutbox}, which records its outbox event and updates the course
+ * enrollments in the same transaction. The student cache is updated after the transaction commits.
+ * List, search and statistics queries read through the list template and repository, with the configured
+ * {@code students.mongo.list-read-preference}; every other read goes to the primary.
  */
 @Service
+@Timed(value = "students.service", histogram = true)
 public class StudentServiceImp implements StudentService {
 
+    private static final Logger log = LoggerFactory.getLogger(StudentServiceImp.class);
+
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    @Qualifier("listMongoTemplate")
+    private MongoTemplate listMongoTemplate;
+    @Autowired
+    @Qualifier("listStudentRepository")
+    private StudentRepository listStudentRepository;
+    @Autowired
+    private StudentCache studentCache;
+    @Autowired
+    private StudentOutbox studentOutbox;
+
+    @Value("${students.stream.batch-size:500}")
+    private int streamBatchSize;
+
+    @Value("${students.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${students.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${students.bulk.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    @Value("${students.stats.allow-disk-use:true}")
+    private boolean statsAllowDiskUse;
+
+    @Value("${students.stats.max-time:30s}")
+    private Duration statsMaxTime;
+
+    @Value("${students.stats.age-boundaries:0,18,21,25,30,40,150}")
+    private List<Integer> ageBoundaries;
+
+    @Value("${students.stats.gpa-boundaries:0,1,2,2.5,3,3.5,5}")
+    private List<Double> gpaBoundaries;
+
+    @Value("${students.codec.enabled:true}")
+    private boolean codecEnabled;
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
 
     /**
      * Saves a student entity to the database.
+     * A student without an id is inserted. A student with an id but without a version replaces the stored
+     * student with that id, whatever its version, or is inserted if there is none.
+     * A student with an id and a version only replaces the stored student if it is still at that version.
+     * When the student replaces an existing one, its previous courses are read in the same transaction,
+     * so the course enrollments can be adjusted by the difference.
      *
      * @param student The student entity to save.
      * @return The ID of the saved student.
+     * @throws InvalidStudentIdException if the student has an id that is not an ObjectId.
+     * @throws PreconditionFailedException if the student has a version and is not stored at that version.
      */
     @Override
     public String save(Student student) {
-        return studentRepository.save(student).getId();
+        StudentFields.requireObjectId(student.getId());
+        if (student.getId() != null && student.getVersion() == null) {
+            return replace(student);
+        }
+        String givenId = student.getId();
+        Long givenVersion = student.getVersion();
+        String id;
+        try {
+            id = studentOutbox.inTransaction(() -> {
+                // A retried transaction starts again from the student as given
+                student.setId(givenId);
+                student.setVersion(givenVersion);
+                List<String> previousCourses = givenId == null ? null : findCourses(givenId);
+                Student saved = studentRepository.save(student);
+                studentOutbox.record(StudentOutboxEvents.saved(saved));
+                updateCourseStats(CourseEnrollments.delta(previousCourses, saved.getCourses()));
+                return saved.getId();
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Student", givenId, givenVersion);
+        }
+        studentCache.invalidate(id);
+        return id;
+    }
+
+    /**
+     * Replaces the stored student with the id of {@code student}, or inserts it if there is none,
+     * with a single atomic upsert. MongoTemplate increments the version of the student as part of the upsert.
+     * The upsert returns the previous courses, so the course enrollments can be adjusted by the difference,
+     * and the saved student is read in a second round trip to be recorded in the outbox in the same transaction.
+     *
+     * @param student The student to store, with an id and without a version.
+     * @return The ID of the saved student.
+     */
+    private String replace(Student student) {
+        String id = student.getId();
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("courses");
+        Update update = StudentFields.toReplaceUpdate(student);
+        studentOutbox.inTransaction(() -> {
+            Student before = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(false).upsert(true), Student.class);
+            if (studentOutbox.isEnabled()) {
+                studentOutbox.record(StudentOutboxEvents.saved(mongoTemplate.findById(id, Student.class)));
+            }
+            updateCourseStats(CourseEnrollments.delta(before == null ? null : before.getCourses(), student.getCourses()));
+            return id;
+        });
+        studentCache.invalidate(id);
+        return id;
+    }
+
+    /**
+     * Inserts students in unordered bulk writes of {@code students.bulk.chunk-size} documents.
+     * Students are pulled from the iterator one chunk at a time, so only a single chunk is held
+     * in memory. A failing document does not stop the rest of its chunk or later chunks.
+     * The outbox events of a chunk are written right after it rather than in a transaction, because a
+     * rejected document would abort the transaction and with it the whole chunk.
+     *
+     * @param students The students to insert, in request order.
+     * @return A summary with the number of inserted students and the error of every rejected one.
+     * @throws InvalidBulkInputException if a student has an id that is not an ObjectId.
+     */
+    @Override
+    public BulkInsertResponse bulkInsert(Iterator<Student> students) {
+        List<Student> chunk = new ArrayList<>(bulkChunkSize);
+        List<BulkInsertError> errors = new ArrayList<>();
+        int received = 0;
+        int inserted = 0;
+        while (students.hasNext()) {
+            Student student = students.next();
+            try {
+                StudentFields.requireObjectId(student.getId());
+            } catch (InvalidStudentIdException e) {
+                throw new InvalidBulkInputException(received, e);
+            }
+            chunk.add(student);
+            received++;
+            if (chunk.size() == bulkChunkSize) {
+                inserted += insertChunk(chunk, received - chunk.size(), errors);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inserted += insertChunk(chunk, received - chunk.size(), errors);
+        }
+        int duplicates = (int) errors.stream().filter(error -> error.getCode() == DUPLICATE_KEY_ERROR).count();
+        return new BulkInsertResponse(received, inserted, duplicates, errors);
+    }
+
+    /**
+     * Inserts one chunk of students with a single unordered bulk write.
+     *
+     * @param chunk  The students to insert.
+     * @param offset The position of the first student of the chunk within the whole request.
+     * @param errors The list to add an entry to for every rejected student.
+     * @return The number of inserted students.
+     */
+    private int insertChunk(List<Student> chunk, int offset, List<BulkInsertError> errors) {
+        if (studentOutbox.isEnabled()) {
+            // The IDs are needed for the outbox events, and bulk writes do not set them on the students
+            chunk.stream().filter(student -> student.getId() == null)
+                    .forEach(student -> student.setId(new ObjectId().toHexString()));
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class);
+        bulkOperations.insert(chunk);
+        int inserted;
+        Set<Integer> rejectedIndexes = new HashSet<>();
+        try {
+            inserted = bulkOperations.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                Student rejected = chunk.get(error.getIndex());
+                rejectedIndexes.add(error.getIndex());
+                errors.add(new BulkInsertError(offset + error.getIndex(), rejected.getEmail(), error.getCode(), error.getMessage()));
+            }
+            inserted = e.getResult().getInsertedCount();
+        }
+        List<Student> insertedStudents = IntStream.range(0, chunk.size())
+                .filter(index -> !rejectedIndexes.contains(index))
+                .mapToObj(chunk::get)
+                .toList();
+        updateCourseStats(CourseEnrollments.deltaOf(insertedStudents, 1));
+        studentOutbox.record(insertedStudents.stream().map(StudentOutboxEvents::saved).toList());
+        return inserted;
     }
 
     /**
@@ -47,21 +260,365 @@ public class StudentServiceImp implements StudentService {
      */
     @Override
     public List<Student> getStudentStartWith(String name) {
-        return studentRepository.findByNameStartsWith(name);
+        return listStudentRepository.findByNameStartsWith(name);
+    }
+
+    /**
+     * Retrieves a list of students whose names start with the specified prefix, fetching only the given fields.
+     *
+     * @param name   The prefix to match student names against.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A list of matching students with only the requested fields set.
+     */
+    @Override
+    public List<Student> getStudentStartWith(String name, List<String> fields) {
+        if (fields == null) {
+            return getStudentStartWith(name);
+        }
+        Query query = Query.query(StudentQueries.nameRange(name));
+        return listMongoTemplate.find(StudentQueries.project(query, fields), Student.class);
+    }
+
+    /**
+     * Retrieves one page of students whose names start with the specified prefix.
+     * Pages are ordered by name and id and addressed with a continuation token, so every page
+     * is an index range scan on {@code name} regardless of how deep it is.
+     *
+     * @param name      The prefix to match student names against.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public StudentPage getStudentStartWith(String name, String pageToken, int limit) {
+        return getStudentStartWith(name, pageToken, limit, null);
+    }
+
+    /**
+     * Retrieves one page of students whose names start with the specified prefix, fetching only the given fields.
+     * The name is always fetched, as it is part of the continuation token.
+     *
+     * @param name      The prefix to match student names against.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public StudentPage getStudentStartWith(String name, String pageToken, int limit, List<String> fields) {
+        String lastName = name;
+        ObjectId lastId = PageToken.MIN_ID;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            lastName = token.getLastKey();
+            lastId = token.getLastId();
+        }
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        List<Student> students;
+        if (fields == null) {
+            students = listStudentRepository.findByNameRangeAfter(
+                    name, StudentQueries.prefixUpperBound(name), lastName, lastId, Limit.of(pageSize + 1));
+        } else {
+            Query query = StudentQueries.namePage(name, lastName, lastId, pageSize);
+            students = listMongoTemplate.find(StudentQueries.project(query, fields, "name"), Student.class);
+        }
+        return StudentQueries.toPage(students, pageSize, Student::getName);
+    }
+
+    /**
+     * Retrieves a list of students whose names start with the specified prefix, ignoring case and accents,
+     * so "flying" finds "Flying Dutchman" and "jose" finds "José". The prefix is matched against the
+     * stored {@code nameKey}, so the query remains an index range scan.
+     *
+     * @param name   The prefix to match student names against.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A list of matching students.
+     */
+    @Override
+    public List<Student> getStudentStartWithIgnoreCase(String name, List<String> fields) {
+        if (fields == null) {
+            String key = Student.nameKey(name);
+            return listStudentRepository.findByNameKeyRange(key, StudentQueries.prefixUpperBound(key));
+        }
+        Query query = Query.query(StudentQueries.nameKeyRange(name));
+        return listMongoTemplate.find(StudentQueries.project(query, fields), Student.class);
+    }
+
+    /**
+     * Retrieves one page of students whose names start with the specified prefix, ignoring case and accents.
+     * Pages are ordered by normalized name and id. The name is always fetched, as the normalized
+     * name in the continuation token is derived from it.
+     *
+     * @param name      The prefix to match student names against.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public StudentPage getStudentStartWithIgnoreCase(String name, String pageToken, int limit, List<String> fields) {
+        String key = Student.nameKey(name);
+        String lastNameKey = key;
+        ObjectId lastId = PageToken.MIN_ID;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            lastNameKey = token.getLastKey();
+            lastId = token.getLastId();
+        }
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        List<Student> students;
+        if (fields == null) {
+            students = listStudentRepository.findByNameKeyRangeAfter(
+                    key, StudentQueries.prefixUpperBound(key), lastNameKey, lastId, Limit.of(pageSize + 1));
+        } else {
+            Query query = StudentQueries.nameKeyPage(name, lastNameKey, lastId, pageSize);
+            students = listMongoTemplate.find(StudentQueries.project(query, fields, "name"), Student.class);
+        }
+        return StudentQueries.toPage(students, pageSize, Student::getNameKey);
+    }
+
+    /**
+     * Searches students by free text in their name, courses and address city, most relevant first.
+     * Uses the text index on these fields; name matches weigh most. Pages are ordered by score and id
+     * and addressed with a continuation token.
+     *
+     * @param text      The search terms.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of hits to return, capped at {@code students.page.max-size}.
+     * @return The page of hits with their scores and the token for the next page.
+     */
+    @Override
+    public StudentSearchPage search(String text, String pageToken, int limit) {
+        Double lastScore = null;
+        ObjectId lastId = null;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            lastScore = token.getLastKeyAsDouble();
+            lastId = token.getLastId();
+        }
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        List<Document> documents = listMongoTemplate.aggregate(StudentQueries.textSearch(text, lastScore, lastId, pageSize),
+                listMongoTemplate.getCollectionName(Student.class), Document.class).getMappedResults();
+        return StudentQueries.toSearchPage(documents, pageSize, listMongoTemplate.getConverter());
+    }
+
+    /**
+     * Counts students per course, with the full-time share and the average GPA and age of each course.
+     * Students are unwound by course and grouped in MongoDB, so only one document per course is returned.
+     *
+     * @return The statistics per course, largest course first.
+     */
+    @Override
+    public List<StudentGroupStats> statsByCourse() {
+        return groupStats(StudentStatistics.byCourse(statsOptions()));
+    }
+
+    /**
+     * Counts students per address city, with the full-time share and the average GPA and age in each city.
+     *
+     * @return The statistics per city, largest city first.
+     */
+    @Override
+    public List<StudentGroupStats> statsByCity() {
+        return groupStats(StudentStatistics.byCity(statsOptions()));
+    }
+
+    /**
+     * Compares full-time with part-time students by count and average GPA and age.
+     *
+     * @return The statistics per value of {@code fullTime}.
+     */
+    @Override
+    public List<StudentGroupStats> statsByFullTime() {
+        return groupStats(StudentStatistics.byFullTime(statsOptions()));
+    }
+
+    /**
+     * Counts students per age range.
+     *
+     * @param boundaries The ascending range boundaries, or null for {@code students.stats.age-boundaries}.
+     * @return One bucket per range, including empty ones.
+     */
+    @Override
+    public List<HistogramBucket> ageHistogram(List<Integer> boundaries) {
+        return histogram("age", boundaries == null ? ageBoundaries : boundaries);
+    }
+
+    /**
+     * Counts students per GPA range.
+     *
+     * @param boundaries The ascending range boundaries, or null for {@code students.stats.gpa-boundaries}.
+     * @return One bucket per range, including empty ones.
+     */
+    @Override
+    public List<HistogramBucket> gpaHistogram(List<Double> boundaries) {
+        return histogram("gpa", boundaries == null ? gpaBoundaries : boundaries);
+    }
+
+    private List<StudentGroupStats> groupStats(Aggregation aggregation) {
+        return listMongoTemplate.aggregate(aggregation, listMongoTemplate.getCollectionName(Student.class), Document.class)
+                .getMappedResults().stream()
+                .map(StudentStatistics::toGroupStats)
+                .toList();
+    }
+
+    private List<HistogramBucket> histogram(String field, List<? extends Number> boundaries) {
+        List<Document> buckets = listMongoTemplate.aggregate(StudentStatistics.histogram(field, boundaries, statsOptions()),
+                listMongoTemplate.getCollectionName(Student.class), Document.class).getMappedResults();
+        return StudentStatistics.toHistogram(buckets, boundaries);
+    }
+
+    private AggregationOptions statsOptions() {
+        return AggregationOptions.builder().allowDiskUse(statsAllowDiskUse).maxTime(statsMaxTime).build();
+    }
+
+    /**
+     * Lists the number of students per course from the {@code course_stats} collection,
+     * which is kept up to date on every write instead of aggregating the students.
+     *
+     * @return The enrollments per course, largest course first.
+     */
+    @Override
+    public List<CourseStats> getCourseEnrollments() {
+        return listMongoTemplate.find(CourseEnrollments.byEnrollments(), CourseStats.class);
+    }
+
+    /**
+     * Recomputes the {@code course_stats} collection from the students, replacing it in one step.
+     * Repairs counts that drifted, for example after students were written without this service.
+     * Writes running at the same time may be lost from the counts, so run it when the load is low.
+     *
+     * @return The enrollments per course after the rebuild, largest course first.
+     */
+    @Override
+    public List<CourseStats> rebuildCourseStats() {
+        mongoTemplate.aggregate(CourseEnrollments.rebuild(mongoTemplate.getCollectionName(CourseStats.class))
+                        .withOptions(statsOptions()),
+                mongoTemplate.getCollectionName(Student.class), Document.class);
+        return mongoTemplate.find(CourseEnrollments.byEnrollments(), CourseStats.class);
+    }
+
+    /**
+     * Applies a change in enrollments to the {@code course_stats} collection with one unordered bulk write
+     * of {@code $inc} upserts, and removes the courses left without students.
+     *
+     * @param delta The change per course.
+     */
+    private void updateCourseStats(Map<String, Long> delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseStats.class)
+                .upsert(CourseEnrollments.increments(delta))
+                .execute();
+        if (CourseEnrollments.removesEnrollments(delta)) {
+            mongoTemplate.remove(CourseEnrollments.emptyCourses(), CourseStats.class);
+        }
+    }
+
+    private List<String> findIds(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("id");
+        return mongoTemplate.find(query, Student.class).stream().map(Student::getId).toList();
+    }
+
+    private List<String> findCourses(String id) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("courses");
+        Student student = mongoTemplate.findOne(query, Student.class);
+        return student == null ? null : student.getCourses();
     }
 
     /**
      * Retrieves all students from the database.
+     * Students are decoded with the student codec unless {@code students.codec.enabled} is false.
      *
      * @return A list of all students.
      */
     @Override
     public List<Student> findAll() {
-        return studentRepository.findAll();
+        return codecEnabled ? findDecoded(new Query()) : listStudentRepository.findAll();
+    }
+
+    /**
+     * Retrieves all students from the database, fetching only the given fields.
+     *
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A list of all students with only the requested fields set.
+     */
+    @Override
+    public List<Student> findAll(List<String> fields) {
+        if (fields == null) {
+            return findAll();
+        }
+        return findDecoded(StudentQueries.project(new Query(), fields));
+    }
+
+    /**
+     * Retrieves one page of students ordered by id.
+     *
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @return The page of students and the token for the next page.
+     */
+    @Override
+    public StudentPage findAll(String pageToken, int limit) {
+        return findAll(pageToken, limit, null);
+    }
+
+    /**
+     * Retrieves one page of students ordered by id, fetching only the given fields.
+     *
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of students and the token for the next page.
+     */
+    @Override
+    public StudentPage findAll(String pageToken, int limit, List<String> fields) {
+        ObjectId lastId = pageToken == null ? PageToken.MIN_ID : PageToken.decode(pageToken).getLastId();
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        List<Student> students;
+        if (fields == null && !codecEnabled) {
+            students = listStudentRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize + 1));
+        } else {
+            Query query = StudentQueries.idPage(lastId, pageSize);
+            students = findDecoded(fields == null ? query : StudentQueries.project(query, fields));
+        }
+        return StudentQueries.toPage(students, pageSize, null);
+    }
+
+    /**
+     * Streams all students from the database through a server-side cursor.
+     * Documents are fetched in batches of {@code students.stream.batch-size}, so memory use
+     * does not grow with the size of the collection. The caller must close the returned stream.
+     *
+     * @return A stream of all students backed by an open MongoDB cursor.
+     */
+    @Override
+    public Stream<Student> streamAll() {
+        return streamAll(null);
+    }
+
+    /**
+     * Streams all students from the database through a server-side cursor, fetching only the given fields.
+     * The caller must close the returned stream.
+     *
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A stream of all students backed by an open MongoDB cursor.
+     */
+    @Override
+    public Stream<Student> streamAll(List<String> fields) {
+        Query query = new Query().cursorBatchSize(streamBatchSize);
+        if (fields != null) {
+            StudentQueries.project(query, fields);
+        }
+        return listMongoTemplate.stream(query, Student.class);
     }
 
     /**
      * Finds a student by their ID.
+     * Reads through the in-process student cache. The returned student may be shared and must not be modified.
      *
      * @param id The ID of the student to find.
      * @return The found student entity.
@@ -69,7 +626,26 @@ public class StudentServiceImp implements StudentService {
      */
     @Override
     public Student findById(String id) {
-        return studentRepository.findById(id)
+        return studentCache.get(id, studentRepository::findById)
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", id));
+    }
+
+    /**
+     * Finds a student by their ID, fetching only the given fields.
+     * A projected read bypasses the student cache, which only holds whole students.
+     *
+     * @param id     The ID of the student to find.
+     * @param fields The fields to fetch, or null to fetch the whole student.
+     * @return The found student entity with only the requested fields set.
+     * @throws ResourceNotFoundException if no student is found with the given ID.
+     */
+    @Override
+    public Student findById(String id, List<String> fields) {
+        if (fields == null) {
+            return findById(id);
+        }
+        Query query = Query.query(Criteria.where("id").is(id));
+        return Optional.ofNullable(mongoTemplate.findOne(StudentQueries.project(query, fields), Student.class))
                 .orElseThrow(() -> new ResourceNotFoundException("Student", "id", id));
     }
 
@@ -80,11 +656,115 @@ public class StudentServiceImp implements StudentService {
      */
     @Override
     public void deleteById(String id) {
-        studentRepository.deleteById(id);
+        deleteById(id, null);
+    }
+
+    /**
+     * Deletes a student by their ID if it is still at the expected version.
+     * The deletion is a single {@code findAndModify} returning the courses of the deleted student,
+     * so whether a student existed and which enrollments to remove are read from its result.
+     *
+     * @param id              The ID of the student to delete.
+     * @param expectedVersion The version the client last saw, or null to delete unconditionally.
+     * @return true if the student was deleted, false if no student exists with the given ID.
+     * @throws PreconditionFailedException if the student exists at a different version.
+     */
+    @Override
+    public boolean deleteById(String id, Long expectedVersion) {
+        Query query = StudentQueries.versioned(id, expectedVersion);
+        query.fields().include("courses");
+        Student deleted = studentOutbox.inTransaction(() -> {
+            Student removed = mongoTemplate.findAndRemove(query, Student.class);
+            if (removed != null) {
+                studentOutbox.record(StudentOutboxEvents.deleted(List.of(id)));
+                updateCourseStats(CourseEnrollments.delta(removed.getCourses(), null));
+            }
+            return removed;
+        });
+        if (deleted != null) {
+            studentCache.invalidate(id);
+            return true;
+        }
+        requireVersionMatchIfExists(id, expectedVersion);
+        return false;
+    }
+
+    /**
+     * Deletes every student matching all of the given criteria.
+     * At least one criterion is required, so the collection is never emptied by accident.
+     * Students are deleted in batches of up to {@code students.bulk.delete-batch-size}, each in its own
+     * transaction with its own outbox events, so a large delete neither holds every ID in memory nor runs
+     * into the transaction limits. If a batch fails, the batches before it stay deleted and the request
+     * can be repeated to delete the rest.
+     * The ID, version and courses of a batch of matching students are read, and exactly those students are deleted
+     * at those versions, so the enrollments removed from the course statistics and the outbox events are
+     * those of the students actually deleted. Students written by another request in between are left
+     * and deleted by a later batch, until no student matches.
+     *
+     * @param ids        The IDs of the students to delete, or null.
+     * @param namePrefix The prefix the names of the students to delete start with, or null.
+     * @param minAge     The exclusive minimum age of the students to delete, or null.
+     * @param maxAge     The exclusive maximum age of the students to delete, or null.
+     * @return The number of deleted students.
+     * @throws IllegalArgumentException if no criterion is given.
+     */
+    @Override
+    public long deleteMany(List<String> ids, String namePrefix, Integer minAge, Integer maxAge) {
+        Query matching = Query.query(StudentQueries.deleteMany(ids, namePrefix, minAge, maxAge));
+        matching.fields().include("id").include("version").include("courses");
+        matching.limit(deleteBatchSize);
+        long deleted = 0;
+        while (true) {
+            // Null once no student matches any more
+            Long batch = studentOutbox.inTransaction(() -> {
+                List<Student> students = mongoTemplate.find(matching, Student.class);
+                return students.isEmpty() ? null : deleteAtVersions(students);
+            });
+            if (batch == null) {
+                break;
+            }
+            deleted += batch;
+        }
+        if (StudentQueries.isIdsOnly(ids, namePrefix, minAge, maxAge)) {
+            ids.forEach(studentCache::invalidate);
+        } else if (deleted > 0) {
+            studentCache.invalidateAll();
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the given students if each is still at the version it was read at, removes their enrollments
+     * from the course statistics and records their outbox events.
+     * In a transaction, every student is deleted, or the transaction fails with a write conflict and is retried.
+     * Without one, another request may have written or deleted some of them since they were read:
+     * the students still stored are left for the next round, and the others were deleted either here or by
+     * the other request. If the count does not tell which, their enrollments are left to be repaired by
+     * {@code POST /students/stats/enrollments/rebuild}.
+     *
+     * @param students The students to delete, with their ID, version and courses.
+     * @return The number of deleted students.
+     */
+    private long deleteAtVersions(List<Student> students) {
+        long removed = mongoTemplate.remove(StudentQueries.atVersions(students), Student.class).getDeletedCount();
+        List<Student> deleted = students;
+        if (removed < students.size()) {
+            Set<String> remaining = new HashSet<>(findIds(Criteria.where("id").in(students.stream().map(Student::getId).toList())));
+            deleted = students.stream().filter(student -> !remaining.contains(student.getId())).toList();
+            if (deleted.size() != removed) {
+                log.warn("{} of {} students deleted by another request at the same time, course statistics may need a rebuild",
+                        deleted.size() - removed, deleted.size());
+                return removed;
+            }
+        }
+        updateCourseStats(CourseEnrollments.deltaOf(deleted, -1));
+        studentOutbox.record(StudentOutboxEvents.deleted(deleted.stream().map(Student::getId).toList()));
+        return removed;
     }
 
     /**
      * Retrieves a list of students within a specified age range.
+     * Students are decoded with the student codec unless {@code students.codec.enabled} is false.
      *
      * @param minAge The minimum age of students to retrieve.
      * @param maxAge The maximum age of students to retrieve.
@@ -92,66 +772,287 @@ public class StudentServiceImp implements StudentService {
      */
     @Override
     public List<Student> getByPersonAge(Integer minAge, Integer maxAge) {
-        return studentRepository.findByAgeBetween(minAge, maxAge);
+        return codecEnabled
+                ? findDecoded(Query.query(StudentQueries.ageRange(minAge, maxAge)))
+                : listStudentRepository.findByAgeBetween(minAge, maxAge);
+    }
+
+    /**
+     * Retrieves a list of students within a specified age range, fetching only the given fields.
+     *
+     * @param minAge The exclusive minimum age of students to retrieve.
+     * @param maxAge The exclusive maximum age of students to retrieve.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A list of students within the specified age range with only the requested fields set.
+     */
+    @Override
+    public List<Student> getByPersonAge(Integer minAge, Integer maxAge, List<String> fields) {
+        if (fields == null) {
+            return getByPersonAge(minAge, maxAge);
+        }
+        Query query = Query.query(StudentQueries.ageRange(minAge, maxAge));
+        return findDecoded(StudentQueries.project(query, fields));
+    }
+
+    /**
+     * Retrieves one page of students within a specified age range, ordered by age and id.
+     *
+     * @param minAge    The minimum age of students to retrieve.
+     * @param maxAge    The maximum age of students to retrieve.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public StudentPage getByPersonAge(Integer minAge, Integer maxAge, String pageToken, int limit) {
+        return getByPersonAge(minAge, maxAge, pageToken, limit, null);
+    }
+
+    /**
+     * Retrieves one page of students within a specified age range, fetching only the given fields.
+     * The age is always fetched, as it is part of the continuation token.
+     *
+     * @param minAge    The exclusive minimum age of students to retrieve.
+     * @param maxAge    The exclusive maximum age of students to retrieve.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching students and the token for the next page.
+     */
+    @Override
+    public StudentPage getByPersonAge(Integer minAge, Integer maxAge, String pageToken, int limit, List<String> fields) {
+        int lastAge = minAge;
+        ObjectId lastId = PageToken.MIN_ID;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            lastAge = token.getLastKeyAsInt();
+            lastId = token.getLastId();
+        }
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        List<Student> students;
+        if (fields == null && !codecEnabled) {
+            students = listStudentRepository.findByAgeBetweenAfter(
+                    minAge, maxAge, lastAge, lastId, Limit.of(pageSize + 1));
+        } else {
+            Query query = StudentQueries.agePage(minAge, maxAge, lastAge, lastId, pageSize);
+            students = findDecoded(fields == null ? query : StudentQueries.project(query, fields, "age"));
+        }
+        return StudentQueries.toPage(students, pageSize, Student::getAge);
+    }
+
+    /**
+     * Runs a student query on the driver, which decodes each document straight into a Student with the
+     * student codec, instead of into a Document that MongoTemplate's converter then maps reflectively.
+     * Runs it on MongoTemplate when {@code students.codec.enabled} is false.
+     *
+     * @param query The query, with field names as MongoTemplate accepts them.
+     * @return The matching students.
+     */
+    private List<Student> findDecoded(Query query) {
+        if (!codecEnabled) {
+            return listMongoTemplate.find(query, Student.class);
+        }
+        StudentCodecQuery codecQuery = new StudentCodecQuery(query, listMongoTemplate.getConverter());
+        return listMongoTemplate.execute(Student.class, collection -> codecQuery.find(collection).into(new ArrayList<>()));
+    }
+
+    /**
+     * Retrieves all students as the raw documents MongoDB returned, to be written as JSON without decoding.
+     *
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A list of all student documents.
+     */
+    @Override
+    public List<RawBsonDocument> findAllRaw(List<String> fields) {
+        return findRaw(listMongoTemplate, fields == null ? new Query() : StudentQueries.project(new Query(), fields));
+    }
+
+    /**
+     * Retrieves one page of students ordered by id as raw documents.
+     *
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of student documents and the token for the next page.
+     */
+    @Override
+    public RawStudentPage findAllRaw(String pageToken, int limit, List<String> fields) {
+        ObjectId lastId = pageToken == null ? PageToken.MIN_ID : PageToken.decode(pageToken).getLastId();
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        Query query = StudentQueries.idPage(lastId, pageSize);
+        List<RawBsonDocument> documents = findRaw(listMongoTemplate, fields == null ? query : StudentQueries.project(query, fields));
+        return StudentQueries.toRawPage(documents, pageSize, null);
+    }
+
+    /**
+     * Finds a student by their ID as the raw document MongoDB returned.
+     * Always reads from MongoDB, as the student cache only holds decoded students.
+     *
+     * @param id     The ID of the student to find.
+     * @param fields The fields to fetch, or null to fetch the whole student.
+     * @return The student document.
+     * @throws ResourceNotFoundException if no student is found with the given ID.
+     */
+    @Override
+    public RawBsonDocument findRawById(String id, List<String> fields) {
+        Query query = Query.query(Criteria.where("id").is(id)).limit(1);
+        List<RawBsonDocument> documents = findRaw(mongoTemplate, fields == null ? query : StudentQueries.project(query, fields));
+        if (documents.isEmpty()) {
+            throw new ResourceNotFoundException("Student", "id", id);
+        }
+        return documents.get(0);
+    }
+
+    /**
+     * Retrieves the students whose names start with the specified prefix as raw documents.
+     *
+     * @param name       The prefix to match student names against.
+     * @param ignoreCase Whether to ignore case and accents, matching against the stored {@code nameKey}.
+     * @param fields     The fields to fetch, or null to fetch whole students.
+     * @return A list of matching student documents.
+     */
+    @Override
+    public List<RawBsonDocument> getStudentStartWithRaw(String name, boolean ignoreCase, List<String> fields) {
+        Query query = Query.query(ignoreCase ? StudentQueries.nameKeyRange(name) : StudentQueries.nameRange(name));
+        return findRaw(listMongoTemplate, fields == null ? query : StudentQueries.project(query, fields));
+    }
+
+    /**
+     * Retrieves one page of students whose names start with the specified prefix as raw documents,
+     * ordered by name, or by normalized name when ignoring case, and id.
+     * The name is always fetched, as the continuation token is derived from it.
+     *
+     * @param name       The prefix to match student names against.
+     * @param ignoreCase Whether to ignore case and accents, matching against the stored {@code nameKey}.
+     * @param pageToken  The token returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields     The fields to fetch, or null to fetch whole students.
+     * @return The page of matching student documents and the token for the next page.
+     */
+    @Override
+    public RawStudentPage getStudentStartWithRaw(String name, boolean ignoreCase, String pageToken, int limit,
+                                                 List<String> fields) {
+        String lastKey = ignoreCase ? Student.nameKey(name) : name;
+        ObjectId lastId = PageToken.MIN_ID;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            lastKey = token.getLastKey();
+            lastId = token.getLastId();
+        }
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        Query query = ignoreCase
+                ? StudentQueries.nameKeyPage(name, lastKey, lastId, pageSize)
+                : StudentQueries.namePage(name, lastKey, lastId, pageSize);
+        List<RawBsonDocument> documents = findRaw(listMongoTemplate, fields == null ? query : StudentQueries.project(query, fields, "name"));
+        return StudentQueries.toRawPage(documents, pageSize, document -> {
+            String lastName = document.getString("name").getValue();
+            return ignoreCase ? Student.nameKey(lastName) : lastName;
+        });
+    }
+
+    /**
+     * Retrieves the students within a specified age range as raw documents.
+     *
+     * @param minAge The exclusive minimum age of students to retrieve.
+     * @param maxAge The exclusive maximum age of students to retrieve.
+     * @param fields The fields to fetch, or null to fetch whole students.
+     * @return A list of matching student documents.
+     */
+    @Override
+    public List<RawBsonDocument> getByPersonAgeRaw(Integer minAge, Integer maxAge, List<String> fields) {
+        Query query = Query.query(StudentQueries.ageRange(minAge, maxAge));
+        return findRaw(listMongoTemplate, fields == null ? query : StudentQueries.project(query, fields));
+    }
+
+    /**
+     * Retrieves one page of students within a specified age range as raw documents, ordered by age and id.
+     * The age is always fetched, as it is part of the continuation token.
+     *
+     * @param minAge    The exclusive minimum age of students to retrieve.
+     * @param maxAge    The exclusive maximum age of students to retrieve.
+     * @param pageToken The token returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of students to return, capped at {@code students.page.max-size}.
+     * @param fields    The fields to fetch, or null to fetch whole students.
+     * @return The page of matching student documents and the token for the next page.
+     */
+    @Override
+    public RawStudentPage getByPersonAgeRaw(Integer minAge, Integer maxAge, String pageToken, int limit,
+                                            List<String> fields) {
+        int lastAge = minAge;
+        ObjectId lastId = PageToken.MIN_ID;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            lastAge = token.getLastKeyAsInt();
+            lastId = token.getLastId();
+        }
+        int pageSize = StudentQueries.pageSize(limit, maxPageSize);
+        Query query = StudentQueries.agePage(minAge, maxAge, lastAge, lastId, pageSize);
+        List<RawBsonDocument> documents = findRaw(listMongoTemplate, fields == null ? query : StudentQueries.project(query, fields, "age"));
+        return StudentQueries.toRawPage(documents, pageSize, document -> document.getNumber("age").intValue());
+    }
+
+    /**
+     * Runs a student query on the driver and returns the documents as the raw BSON it received,
+     * so they can be transcoded to JSON without building Students or Documents.
+     *
+     * @param template The template to read with, the list template unless the query is a point read.
+     * @param query    The query, with field names as MongoTemplate accepts them.
+     * @return The matching student documents.
+     */
+    private List<RawBsonDocument> findRaw(MongoTemplate template, Query query) {
+        StudentCodecQuery codecQuery = new StudentCodecQuery(query, template.getConverter());
+        return template.execute(Student.class,
+                collection -> codecQuery.find(collection, RawBsonDocument.class).into(new ArrayList<>()));
     }
 
     /**
      * Updates a student with new information.
+     * All fields are written with a single atomic {@code findAndModify}.
      *
      * @param id      The ID of the student to update.
      * @param student The new information for the student.
      * @return The updated student entity.
      * @throws ResourceNotFoundException if no student is found with the given ID.
+     * @throws MissingFieldException if any field of the new information is missing.
      */
     @Override
     public Student updateStudent(String id, Student student) {
-        Student existingStudent = studentRepository.findById(id)
+        StudentFields.requireAll(student);
+        return Optional.ofNullable(setNonNullFields(id, student, null, false))
                 .orElseThrow(() -> new ResourceNotFoundException("Student", "id", id));
-        checkForMissingFields(student);
-        updateFields(existingStudent, student);
-        studentRepository.save(existingStudent);
-        return existingStudent;
     }
 
     /**
      * Updates non-null fields of a student.
+     * The fields are written with a single atomic {@code findAndModify}.
      *
      * @param id      The ID of the student to update.
      * @param student The student data to update with.
      * @return An Optional containing the updated student, or empty if not found.
      */
-
     @Override
     public Optional<Student> updateStudentDetails(String id, Student student) {
-        return studentRepository.findById(id).map(existingStudent -> {
-            // Copy non-null properties from `student` to `existingStudent`
-            String[] nullPropertyNames = getNullPropertyNames(student);
-            BeanUtils.copyProperties(student, existingStudent, nullPropertyNames);
-            return Optional.of(studentRepository.save(existingStudent));
-        }).orElse(Optional.empty());
+        return updateStudentDetails(id, student, null);
     }
 
     /**
-     * Utility method to get names of null properties of an object.
+     * Updates non-null fields of a student if it is still at the expected version.
      *
-     * @param source The source object to check.
-     * @return An array of null property names.
+     * @param id              The ID of the student to update.
+     * @param student         The student data to update with.
+     * @param expectedVersion The version the client last saw, or null to update unconditionally.
+     * @return An Optional containing the updated student, or empty if not found.
+     * @throws PreconditionFailedException if the student exists at a different version.
      */
-    private String[] getNullPropertyNames(Object source) {
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        PropertyDescriptor[] pds = src.getPropertyDescriptors();
-
-        Set<String> emptyNames = new HashSet<>();
-        for (PropertyDescriptor pd : pds) {
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) emptyNames.add(pd.getName());
-        }
-        String[] result = new String[emptyNames.size()];
-        return emptyNames.toArray(result);
+    @Override
+    public Optional<Student> updateStudentDetails(String id, Student student, Long expectedVersion) {
+        return Optional.ofNullable(setNonNullFields(id, student, expectedVersion, false));
     }
 
     /**
      * Partially updates a student with new information.
+     * Only the non-null fields are written, with a single atomic {@code findAndModify},
+     * so concurrent partial updates of different fields do not overwrite each other.
      *
      * @param id      The ID of the student to update.
      * @param student The new information for the student.
@@ -160,67 +1061,102 @@ public class StudentServiceImp implements StudentService {
      */
     @Override
     public Student partiallyUpdateStudent(String id, Student student) {
-        Student existingStudent = studentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", id));
-        updateFields(existingStudent, student);
-        studentRepository.save(existingStudent);
-        return existingStudent;
+        return partiallyUpdateStudent(id, student, null);
     }
 
     /**
-     * Checks if a student exists by their ID.
+     * Partially updates a student with new information if it is still at the expected version.
      *
-     * @param id The ID of the student to check.
-     * @return true if the student exists, false otherwise.
+     * @param id              The ID of the student to update.
+     * @param student         The new information for the student.
+     * @param expectedVersion The version the client last saw, or null to update unconditionally.
+     * @return The partially updated student entity.
+     * @throws ResourceNotFoundException if no student is found with the given ID.
+     * @throws PreconditionFailedException if the student exists at a different version.
      */
     @Override
-    public boolean existsById(String id) {
-        return studentRepository.existsById(id);
+    public Student partiallyUpdateStudent(String id, Student student, Long expectedVersion) {
+        return Optional.ofNullable(setNonNullFields(id, student, expectedVersion, true))
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", id));
     }
 
     /**
-     * Checks for missing fields in a student entity and throws an exception if any are found.
+     * Sets the non-null fields of {@code student} on the stored student in one round trip.
+     * When merging, address fields are set individually, so an existing address is merged rather than replaced.
+     * MongoTemplate increments the version of the student as part of the same update,
+     * and the student is evicted from the student cache afterwards.
+     * When the courses are replaced, the update returns the previous courses instead, so the course
+     * enrollments can be adjusted by the difference, and the updated student is read in a second round trip.
+     * The updated student is recorded in the outbox in the same transaction as the update.
      *
-     * @param student The student entity to check.
-     * @throws MissingFieldException if any fields are missing.
+     * @param id              The ID of the student to update.
+     * @param student         The student data to update with.
+     * @param expectedVersion The version the client last saw, or null to update unconditionally.
+     * @param mergeNested     Whether a given address is merged into the stored one instead of replacing it.
+     * @return The student as stored after the update, or null if not found.
+     * @throws PreconditionFailedException if the student exists at a different version.
      */
-    private void checkForMissingFields(Student student) {
-        Field[] fields = Student.class.getDeclaredFields();
-        for (Field field : fields) {
-            field.setAccessible(true);
-            try {
-                if (field.get(student) == null) {
-                    throw new MissingFieldException(field.getName());
+    private Student setNonNullFields(String id, Student student, Long expectedVersion, boolean mergeNested) {
+        Query query = StudentQueries.versioned(id, expectedVersion);
+        Update update = StudentFields.toSetUpdate(student, mergeNested);
+        Student result;
+        if (update.getUpdateObject().isEmpty()) {
+            result = mongoTemplate.findOne(query, Student.class);
+        } else if (student.getCourses() != null) {
+            query.fields().include("courses");
+            result = studentOutbox.inTransaction(() -> {
+                Student previous = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Student.class);
+                if (previous == null) {
+                    return null;
                 }
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Failed to access field: " + field.getName(), e);
-            }
+                Student updated = mongoTemplate.findById(id, Student.class);
+                studentOutbox.record(StudentOutboxEvents.updated(updated));
+                updateCourseStats(CourseEnrollments.delta(previous.getCourses(), student.getCourses()));
+                return updated;
+            });
+            studentCache.invalidate(id);
+        } else {
+            result = studentOutbox.inTransaction(() -> {
+                Student updated = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Student.class);
+                if (updated != null) {
+                    studentOutbox.record(StudentOutboxEvents.updated(updated));
+                }
+                return updated;
+            });
+            studentCache.invalidate(id);
+        }
+        if (result == null) {
+            requireVersionMatchIfExists(id, expectedVersion);
         }
+        return result;
     }
 
     /**
-     * Updates the fields of an existing student with values from a new student, if they are not null.
+     * Tells a version mismatch apart from a missing student after a versioned write matched nothing.
+     * Only called on that failure path, so successful writes stay a single round trip.
      *
-     * @param existingStudent The existing student to update.
-     * @param newStudent      The new student data to update from.
+     * @param id              The ID of the student.
+     * @param expectedVersion The expected version, or null if the write was unconditional.
+     * @throws PreconditionFailedException if the student exists, so its version must have differed.
      */
-    private void updateFields(Student existingStudent, Student newStudent) {
-        Field[] fields = Student.class.getDeclaredFields();
-        for (Field field : fields) {
-            field.setAccessible(true);
-            try {
-                Object newValue = field.get(newStudent);
-                if (newValue != null) {
-                    field.set(existingStudent, newValue);
-                }
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Error accessing field: " + field.getName() + ". " + e.getMessage(), e);
-            } catch (IllegalArgumentException e) {
-                throw new RuntimeException("Error setting field: " + field.getName() + " with value from new student. " + e.getMessage(), e);
-            }
+    private void requireVersionMatchIfExists(String id, Long expectedVersion) {
+        if (expectedVersion != null && studentRepository.existsById(id)) {
+            throw new PreconditionFailedException("Student", id, expectedVersion);
         }
     }
 
+    /**
+     * Checks if a student exists by their ID.
+     * A student held in the student cache is known to exist without a database round trip.
+     *
+     * @param id The ID of the student to check.
+     * @return true if the student exists, false otherwise.
+     */
+    @Override
+    public boolean existsById(String id) {
+        return studentCache.contains(id) || studentRepository.existsById(id);
+    }
+
     /**
      * Finds a student by their ID, returning an Optional.
      *
@@ -228,6 +1164,6 @@ public class StudentServiceImp implements StudentService {
      * @return An Optional containing the found student, or empty if not found.
      */
     public Optional<Student> findByIdOptional(String id) {
-        return studentRepository.findById(id);
+        return studentCache.get(id, studentRepository::findById);
     }
 }
\ No newline at end of file
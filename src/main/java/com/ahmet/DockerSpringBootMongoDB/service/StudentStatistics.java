@@ -0,0 +1,166 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.exception.InvalidBoundariesException;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregation pipelines behind the student statistics, shared by the blocking and the reactive services.
+ *
+ * The grouping and bucketing run inside MongoDB, so only one small document per group or bucket
+ * is sent back instead of every student.
+ */
+final class StudentStatistics {
+
+    private static final String STUDENTS = "students";
+    private static final String FULL_TIME = "fullTime";
+    private static final String AVERAGE_GPA = "averageGpa";
+    private static final String AVERAGE_AGE = "averageAge";
+    private static final String OTHER = "other";
+
+    private StudentStatistics() {
+    }
+
+    /**
+     * Builds the aggregation counting students per course, with their GPA and age averages.
+     * A student taking several courses is counted once for each of them.
+     *
+     * @param options The options to run the aggregation with.
+     * @return The aggregation, largest course first.
+     */
+    static Aggregation byCourse(AggregationOptions options) {
+        return Aggregation.newAggregation(
+                        Aggregation.unwind("courses"),
+                        groupStats("courses"),
+                        Aggregation.sort(Sort.by(Sort.Direction.DESC, STUDENTS).and(Sort.by("_id"))))
+                .withOptions(options);
+    }
+
+    /**
+     * Builds the aggregation counting students per address city, with their GPA and age averages.
+     *
+     * @param options The options to run the aggregation with.
+     * @return The aggregation, largest city first. Students without a city are grouped under a null key.
+     */
+    static Aggregation byCity(AggregationOptions options) {
+        return Aggregation.newAggregation(
+                        groupStats("address.city"),
+                        Aggregation.sort(Sort.by(Sort.Direction.DESC, STUDENTS).and(Sort.by("_id"))))
+                .withOptions(options);
+    }
+
+    /**
+     * Builds the aggregation comparing full-time and part-time students.
+     *
+     * @param options The options to run the aggregation with.
+     * @return The aggregation, with one group per value of {@code fullTime}.
+     */
+    static Aggregation byFullTime(AggregationOptions options) {
+        return Aggregation.newAggregation(
+                        groupStats(FULL_TIME),
+                        Aggregation.sort(Sort.by("_id")))
+                .withOptions(options);
+    }
+
+    /**
+     * Builds the aggregation counting students per range of a numeric field.
+     * Students whose value is missing or outside the boundaries are counted in a separate bucket.
+     *
+     * @param field      The field to bucket by, such as {@code age} or {@code gpa}.
+     * @param boundaries The bucket boundaries. Each bucket includes its lower and excludes its upper boundary.
+     * @param options    The options to run the aggregation with.
+     * @return The aggregation.
+     * @throws InvalidBoundariesException if there are fewer than two boundaries or they are not ascending.
+     */
+    static Aggregation histogram(String field, List<? extends Number> boundaries, AggregationOptions options) {
+        checkBoundaries(boundaries);
+        return Aggregation.newAggregation(
+                        Aggregation.bucket(field)
+                                .withBoundaries(boundaries.toArray())
+                                .withDefaultBucket(OTHER)
+                                .andOutputCount().as(STUDENTS))
+                .withOptions(options);
+    }
+
+    /**
+     * Reads a group produced by one of the grouping aggregations.
+     *
+     * @param document The group document.
+     * @return The statistics of the group.
+     */
+    static StudentGroupStats toGroupStats(Document document) {
+        long students = document.get(STUDENTS, Number.class).longValue();
+        long fullTime = document.get(FULL_TIME, Number.class).longValue();
+        return new StudentGroupStats(document.get("_id"), students, fullTime,
+                students == 0 ? 0 : (double) fullTime / students,
+                toDouble(document.get(AVERAGE_GPA, Number.class)),
+                toDouble(document.get(AVERAGE_AGE, Number.class)));
+    }
+
+    /**
+     * Builds the histogram from the buckets produced by {@link #histogram}.
+     * MongoDB leaves out empty buckets; they are added back with a count of zero so every range is listed.
+     *
+     * @param documents  The bucket documents.
+     * @param boundaries The boundaries the aggregation was built with.
+     * @return One bucket per range in ascending order, followed by a bucket without bounds if any students
+     * were outside the boundaries.
+     */
+    static List<HistogramBucket> toHistogram(List<Document> documents, List<? extends Number> boundaries) {
+        Map<Double, Long> counts = new HashMap<>();
+        long other = 0;
+        for (Document document : documents) {
+            long students = document.get(STUDENTS, Number.class).longValue();
+            if (document.get("_id") instanceof Number lowerBound) {
+                counts.put(lowerBound.doubleValue(), students);
+            } else {
+                other = students;
+            }
+        }
+        List<HistogramBucket> buckets = new ArrayList<>(boundaries.size());
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            buckets.add(new HistogramBucket(boundaries.get(i), boundaries.get(i + 1),
+                    counts.getOrDefault(boundaries.get(i).doubleValue(), 0L)));
+        }
+        if (other > 0) {
+            buckets.add(new HistogramBucket(null, null, other));
+        }
+        return buckets;
+    }
+
+    private static GroupOperation groupStats(String field) {
+        return Aggregation.group(field)
+                .count().as(STUDENTS)
+                .sum(ConditionalOperators.when(ComparisonOperators.valueOf(FULL_TIME).equalToValue(true))
+                        .then(1).otherwise(0)).as(FULL_TIME)
+                .avg("gpa").as(AVERAGE_GPA)
+                .avg("age").as(AVERAGE_AGE);
+    }
+
+    private static void checkBoundaries(List<? extends Number> boundaries) {
+        if (boundaries == null || boundaries.size() < 2 || boundaries.get(0) == null) {
+            throw new InvalidBoundariesException(boundaries);
+        }
+        for (int i = 1; i < boundaries.size(); i++) {
+            if (boundaries.get(i) == null || boundaries.get(i - 1).doubleValue() >= boundaries.get(i).doubleValue()) {
+                throw new InvalidBoundariesException(boundaries);
+            }
+        }
+    }
+
+    private static Double toDouble(Number value) {
+        return value == null ? null : value.doubleValue();
+    }
+}
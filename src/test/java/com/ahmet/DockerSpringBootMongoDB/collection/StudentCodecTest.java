@@ -0,0 +1,156 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that {@link StudentCodec} and {@link AddressCodec} read and write the same documents as
+ * MappingMongoConverter, so the codec and MongoTemplate can share the students collection.
+ * These tests run without a MongoDB instance.
+ */
+public class StudentCodecTest {
+
+    private MappingMongoConverter converter;
+    private Student student;
+
+    /**
+     * Sets up a converter like MongoTemplate's and a student with every field set.
+     */
+    @BeforeEach
+    public void setUp() {
+        converter = StudentDocuments.converter();
+        student = StudentDocuments.student();
+    }
+
+    /**
+     * Tests that a student encoded with the codec is decoded unchanged.
+     */
+    @Test
+    public void testRoundTrip() {
+        assertEquals(student, StudentDocuments.decode(StudentDocuments.encode(student)));
+    }
+
+    /**
+     * Tests that a student with only an id round-trips without gaining fields.
+     */
+    @Test
+    public void testRoundTripOfEmptyStudent() {
+        Student empty = Student.builder().id(new ObjectId().toHexString()).build();
+
+        assertEquals(empty, StudentDocuments.decode(StudentDocuments.encode(empty)));
+    }
+
+    /**
+     * Tests that the codec writes the same fields, in the same order and with the same BSON types, as the converter.
+     */
+    @Test
+    public void testEncodeMatchesConverterLayout() {
+        Document expected = StudentDocuments.write(converter, student);
+        Document actual = StudentDocuments.toDocument(StudentDocuments.encode(student));
+
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(expected, actual);
+        assertInstanceOf(ObjectId.class, actual.get("_id"));
+    }
+
+    /**
+     * Tests that the converter reads what the codec wrote, for ObjectId and string ids.
+     */
+    @Test
+    public void testConverterReadsCodecDocuments() {
+        assertEquals(student, readWithConverter(StudentDocuments.encode(student)));
+
+        student.setId("student-1");
+        RawBsonDocument document = StudentDocuments.encode(student);
+        assertEquals("student-1", document.getString("_id").getValue());
+        assertEquals(student, readWithConverter(document));
+    }
+
+    /**
+     * Tests that the codec reads what the converter wrote, for ObjectId and string ids.
+     */
+    @Test
+    public void testDecodeReadsConverterDocuments() {
+        assertDecodesLikeConverter(StudentDocuments.write(converter, student));
+
+        student.setId("student-1");
+        assertDecodesLikeConverter(StudentDocuments.write(converter, student));
+    }
+
+    /**
+     * Tests that a student without an address and other optional fields decodes like the converter reads it,
+     * including fields stored as explicit nulls.
+     */
+    @Test
+    public void testDecodeOfMissingAndNullFields() {
+        Student sparse = Student.builder().id(new ObjectId().toHexString()).name("Jane").build();
+        Document document = StudentDocuments.write(converter, sparse)
+                .append("email", null)
+                .append("address", null)
+                .append("graduationDate", null);
+
+        Student decoded = assertDecodesLikeConverter(document);
+        assertNull(decoded.getAddress());
+        assertNull(decoded.getEmail());
+    }
+
+    /**
+     * Tests that numbers stored in another numeric BSON type than the codec writes are converted
+     * like the converter converts them.
+     */
+    @Test
+    public void testDecodeOfOtherNumericTypes() {
+        Document document = StudentDocuments.write(converter, student);
+        document.put("age", 22L);
+        document.put("gpa", new Decimal128(new BigDecimal("3.25")));
+        document.put("version", 5);
+        document.get("address", Document.class).put("postcode", 54321L);
+
+        Student decoded = assertDecodesLikeConverter(document);
+        assertEquals(22, decoded.getAge());
+        assertEquals(3.25, decoded.getGpa());
+        assertEquals(5L, decoded.getVersion());
+        assertEquals(54321, decoded.getAddress().getPostcode());
+
+        document.put("age", 23.0);
+        document.put("gpa", 3);
+        assertDecodesLikeConverter(document);
+    }
+
+    /**
+     * Tests that unknown fields, in the student and in its address, are skipped.
+     */
+    @Test
+    public void testDecodeSkipsUnknownFields() {
+        Document document = StudentDocuments.write(converter, student)
+                .append("legacyCode", new Document("a", 1))
+                .append("tags", List.of("x", "y"));
+        document.get("address", Document.class).append("country", "NL");
+
+        assertEquals(student, assertDecodesLikeConverter(document));
+    }
+
+    private Student assertDecodesLikeConverter(Document document) {
+        RawBsonDocument raw = StudentDocuments.raw(document);
+        Student decoded = StudentDocuments.decode(raw);
+        assertEquals(readWithConverter(raw), decoded);
+        return decoded;
+    }
+
+    private Student readWithConverter(RawBsonDocument document) {
+        return converter.read(Student.class, StudentDocuments.toDocument(document));
+    }
+}
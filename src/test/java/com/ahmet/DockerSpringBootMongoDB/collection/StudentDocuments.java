@@ -0,0 +1,126 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test students and the Spring Data and BSON setup shared by the tests of the student codecs and JSON writer.
+ */
+final class StudentDocuments {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private StudentDocuments() {
+    }
+
+    /**
+     * Creates a student with every field set, with dates at millisecond precision as MongoDB stores them.
+     *
+     * @return The student.
+     */
+    static Student student() {
+        Student student = new Student("Émile Zola", "emile.zola@example.com",
+                new Address("1 Main St", "Anytown", 12345), 21,
+                Arrays.asList("Math", null, "History"), true, 3.5,
+                LocalDateTime.of(2027, 6, 30, 12, 0, 0, 250_000_000), LocalDateTime.of(2023, 9, 1, 9, 30));
+        student.setId(new ObjectId().toHexString());
+        student.setVersion(4L);
+        return student;
+    }
+
+    /**
+     * Creates a converter set up like the one of the application's MongoTemplate, with the default conversions.
+     *
+     * @return The converter.
+     */
+    static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.getPersistentEntity(Student.class);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    /**
+     * Writes a student with the converter, as MongoTemplate would store it.
+     *
+     * @param converter The converter.
+     * @param student   The student.
+     * @return The document.
+     */
+    static Document write(MappingMongoConverter converter, Student student) {
+        Document document = new Document();
+        converter.write(student, document);
+        return document;
+    }
+
+    /**
+     * Encodes a document to BSON, as the driver receives it.
+     *
+     * @param document The document.
+     * @return The raw document.
+     */
+    static RawBsonDocument raw(Document document) {
+        return new RawBsonDocument(document, DOCUMENT_CODEC);
+    }
+
+    /**
+     * Encodes a student to BSON with the student codec.
+     *
+     * @param student The student.
+     * @return The raw document.
+     */
+    static RawBsonDocument encode(Student student) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec().encode(writer, student, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        }
+        return new RawBsonDocument(buffer.toByteArray());
+    }
+
+    /**
+     * Decodes BSON with the student codec.
+     *
+     * @param document The raw document.
+     * @return The student.
+     */
+    static Student decode(RawBsonDocument document) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            return codec().decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    /**
+     * Decodes BSON into a Document, as the driver does for MongoTemplate.
+     *
+     * @param document The raw document.
+     * @return The document.
+     */
+    static Document toDocument(RawBsonDocument document) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            return DOCUMENT_CODEC.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    private static StudentCodec codec() {
+        return new StudentCodec(new AddressCodec());
+    }
+}
@@ -0,0 +1,114 @@
+package com.ahmet.DockerSpringBootMongoDB.collection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that {@link StudentJson} writes the same JSON for a stored student document as Jackson writes
+ * for the student {@link StudentCodec} decodes from it. The ObjectMapper is built like Spring Boot's,
+ * with ISO dates. These tests run without a MongoDB instance.
+ */
+public class StudentJsonTest {
+
+    private MappingMongoConverter converter;
+    private ObjectMapper objectMapper;
+    private Student student;
+
+    /**
+     * Sets up a converter like MongoTemplate's, an ObjectMapper like Spring Boot's and a student with every field set.
+     */
+    @BeforeEach
+    public void setUp() {
+        converter = StudentDocuments.converter();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        student = StudentDocuments.student();
+    }
+
+    /**
+     * Tests a whole student, including a null course, accents and the internal nameKey and _class fields.
+     */
+    @Test
+    public void testWholeStudent() throws IOException {
+        assertWritesLikeJackson(StudentDocuments.write(converter, student));
+    }
+
+    /**
+     * Tests a student with a string id.
+     */
+    @Test
+    public void testStringId() throws IOException {
+        student.setId("student-1");
+
+        assertWritesLikeJackson(StudentDocuments.write(converter, student));
+    }
+
+    /**
+     * Tests the documents a {@code ?fields=} projection returns: the id, the version and the requested fields.
+     */
+    @Test
+    public void testProjectedStudents() throws IOException {
+        Document stored = StudentDocuments.write(converter, student);
+        assertWritesLikeJackson(new Document("_id", stored.get("_id"))
+                .append("name", stored.get("name"))
+                .append("address", new Document("city", "Anytown"))
+                .append("version", stored.get("version")));
+        assertWritesLikeJackson(new Document("_id", stored.get("_id"))
+                .append("registerDate", stored.get("registerDate")));
+    }
+
+    /**
+     * Tests explicit nulls, other numeric types and unknown fields, which are written as the decoded student would be.
+     */
+    @Test
+    public void testNullsNumbersAndUnknownFields() throws IOException {
+        Document document = StudentDocuments.write(converter, student)
+                .append("email", null)
+                .append("legacyCode", new Document("a", 1));
+        document.put("age", 22.0);
+        document.put("gpa", new Decimal128(new BigDecimal("3.25")));
+        document.put("version", 5);
+        document.get("address", Document.class).append("country", "NL").put("postcode", 54321L);
+
+        assertWritesLikeJackson(document);
+    }
+
+    /**
+     * Tests the id and version read from raw documents for the ETag and the page token.
+     */
+    @Test
+    public void testIdAndVersion() {
+        RawBsonDocument document = StudentDocuments.raw(StudentDocuments.write(converter, student));
+        assertEquals(student.getId(), StudentJson.id(document));
+        assertEquals(4L, StudentJson.version(document));
+
+        RawBsonDocument unversioned = StudentDocuments.raw(new Document("_id", "student-1"));
+        assertEquals("student-1", StudentJson.id(unversioned));
+        assertNull(StudentJson.version(unversioned));
+    }
+
+    private void assertWritesLikeJackson(Document document) throws IOException {
+        RawBsonDocument raw = StudentDocuments.raw(document);
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            StudentJson.write(raw, generator);
+        }
+        assertEquals(objectMapper.writeValueAsString(StudentDocuments.decode(raw)), json.toString());
+    }
+}
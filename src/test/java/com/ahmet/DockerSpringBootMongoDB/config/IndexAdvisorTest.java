@@ -0,0 +1,168 @@
+package com.ahmet.DockerSpringBootMongoDB.config;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link IndexAdvisor} against the declared student indexes and the real {@link StudentRepository},
+ * with the existing indexes given as the documents {@code listIndexes} returns.
+ * These tests run without a MongoDB instance.
+ */
+public class IndexAdvisorTest {
+
+    private MongoMappingContext mappingContext;
+    private List<IndexInfo> existing;
+
+    /**
+     * Sets up a mapping context like the application's and the indexes MongoDB holds once every declared index
+     * is created: the {@code _id} index and one per declared index.
+     */
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        existing = new ArrayList<>();
+        existing.add(index("_id_", new Document("_id", 1)));
+        StudentIndexConfig.STUDENT_INDEXES.forEach(declared -> existing.add(index(declared)));
+    }
+
+    /**
+     * Tests that nothing is reported when every declared index exists, including the text index.
+     */
+    @Test
+    public void testAllIndexesInPlace() {
+        assertEquals(List.of(), advise(StudentRepository.class));
+    }
+
+    /**
+     * Tests that a missing index is reported, together with the derived and {@code @Query} methods it served.
+     * The placeholders of the {@code @Query} filter are ignored, and the fields in its {@code $or} clauses are collected.
+     */
+    @Test
+    public void testMissingIndex() {
+        existing.removeIf(index -> index.getName().equals("age_id"));
+
+        assertEquals(List.of(
+                        "Declared index age_id on [age, _id] does not exist",
+                        "StudentRepository.findByAgeBetween filters on [age] but no index supports it",
+                        "StudentRepository.findByAgeBetweenAfter filters on [age, _id] and sorts on [age, _id] but no index supports it"),
+                sorted(advise(StudentRepository.class)));
+    }
+
+    /**
+     * Tests that an index not declared in code is reported, while the {@code _id} index is not.
+     */
+    @Test
+    public void testUndeclaredIndex() {
+        existing.add(index("gpa_1", new Document("gpa", 1)));
+
+        assertEquals(List.of("Index gpa_1 on [gpa] is not declared in code; drop it if no query needs it"),
+                advise(StudentRepository.class));
+    }
+
+    /**
+     * Tests that an index starting with a filtered field does not support a sorted query unless it starts with the sort
+     * fields, so the {@code (name, age)} index alone serves the name prefix search but not the paged name range.
+     */
+    @Test
+    public void testSortPrefix() {
+        existing.removeIf(index -> index.getName().equals("name_id"));
+
+        assertEquals(List.of(
+                        "Declared index name_id on [name, _id] does not exist",
+                        "StudentRepository.findByNameRangeAfter filters on [name, _id] and sorts on [name, _id] but no index supports it"),
+                sorted(advise(StudentRepository.class)));
+    }
+
+    /**
+     * Tests that a text index only serves {@code $text} queries, and that text indexes are compared by their set of fields.
+     */
+    @Test
+    public void testTextIndex() {
+        existing.removeIf(index -> index.getName().equals("name_id") || index.getName().equals("name_age"));
+        existing.removeIf(index -> index.getName().equals("student_text"));
+        existing.add(IndexInfo.indexInfoOf(new Document("key", new Document("_fts", "text").append("_ftsx", 1))
+                .append("name", "student_text")
+                .append("weights", new Document("address.city", 1).append("courses", 2).append("name", 3))));
+
+        assertEquals(List.of(
+                        "Declared index name_age on [name, age] does not exist",
+                        "Declared index name_id on [name, _id] does not exist",
+                        "StudentRepository.findByNameRangeAfter filters on [name, _id] and sorts on [name, _id] but no index supports it",
+                        "StudentRepository.findByNameStartsWith filters on [name] but no index supports it"),
+                sorted(advise(StudentRepository.class)));
+    }
+
+    /**
+     * Tests that a {@code @Query} filtering only inside {@code $or} is supported by an index on any of its fields,
+     * and that derived queries resolve {@code id} to {@code _id}.
+     */
+    @Test
+    public void testOrClausesAndIdField() {
+        List<IndexInfo> idOnly = List.of(index("_id_", new Document("_id", 1)));
+
+        List<String> findings = IndexAdvisor.advise(idOnly, List.of(), OrRepository.class, Student.class, mappingContext);
+        assertEquals(List.of("OrRepository.findByEmailOrAge filters on [email, age] but no index supports it"), findings);
+
+        List<IndexInfo> withEmail = List.of(idOnly.get(0), index("email", new Document("email", 1)));
+        List<IndexDefinition> declared = List.of(new Index().on("email", Sort.Direction.ASC).named("email"));
+        assertEquals(List.of(), IndexAdvisor.advise(withEmail, declared, OrRepository.class, Student.class, mappingContext));
+    }
+
+    private List<String> advise(Class<?> repository) {
+        return IndexAdvisor.advise(existing, StudentIndexConfig.STUDENT_INDEXES, repository, Student.class, mappingContext);
+    }
+
+    private static List<String> sorted(List<String> findings) {
+        return findings.stream().sorted().toList();
+    }
+
+    private static IndexInfo index(String name, Document keys) {
+        return IndexInfo.indexInfoOf(new Document("v", 2).append("key", keys).append("name", name));
+    }
+
+    /**
+     * Builds the document {@code listIndexes} returns for a declared index. A text index is listed with its
+     * {@code _fts} key and its fields as weights.
+     */
+    private static IndexInfo index(IndexDefinition declared) {
+        Document options = declared.getIndexOptions();
+        if (!declared.getIndexKeys().containsValue("text")) {
+            return index(options.getString("name"), declared.getIndexKeys());
+        }
+        Document weights = new Document();
+        declared.getIndexKeys().keySet().forEach(field -> weights.append(field, 1));
+        return IndexInfo.indexInfoOf(new Document("v", 2)
+                .append("key", new Document("_fts", "text").append("_ftsx", 1))
+                .append("name", options.getString("name"))
+                .append("weights", weights));
+    }
+
+    /**
+     * A repository with a query that only filters inside {@code $or} and a derived query on the id.
+     */
+    interface OrRepository extends Repository<Student, String> {
+
+        @Query("{ $or: [ { 'email': ?0 }, { 'age': { $gt: ?1 } } ] }")
+        List<Student> findByEmailOrAge(String email, int age);
+
+        List<Student> findByIdIn(List<String> ids);
+    }
+}
@@ -1,9 +1,18 @@
 package com.ahmet.DockerSpringBootMongoDB.controller;
 
 import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.CourseStats;
 import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertError;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.HistogramBucket;
 import com.ahmet.DockerSpringBootMongoDB.dto.PartialUpdateStudentResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchHit;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
 import com.ahmet.DockerSpringBootMongoDB.dto.UpdateStudentResponse;
+import com.ahmet.DockerSpringBootMongoDB.exception.PreconditionFailedException;
 import com.ahmet.DockerSpringBootMongoDB.service.StudentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,20 +25,27 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doReturn;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -76,6 +92,7 @@ public class ControllerStudentTest {
                 .graduationDate(LocalDateTime.now())
                 .id("1")
                 .registerDate(LocalDateTime.now())
+                .version(3L)
                 .build();
     }
 
@@ -100,6 +117,26 @@ public class ControllerStudentTest {
                 .andExpect(content().json("{\"message\": \"A new student is successfully created with ID: Expected response string\"}"));
     }
 
+    /**
+     * Tests the endpoint for creating many students from newline-delimited JSON.
+     * Verifies the response status is OK and the summary reports the rejected student.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testBulkInsert() throws Exception {
+        BulkInsertError duplicate = new BulkInsertError(1, "john.doe@example.com", 11000, "E11000 duplicate key error");
+        BulkInsertResponse summary = new BulkInsertResponse(2, 1, 1, List.of(duplicate));
+        given(studentService.bulkInsert(any(Iterator.class))).willReturn(summary);
+
+        String studentJson = objectMapper.writeValueAsString(sampleStudent);
+        mockMvc.perform(post("/students/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(studentJson + "\n" + studentJson + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(summary)));
+    }
+
     /**
      * Tests the endpoint for saving a student.
      * Verifies the response status is CREATED and the content matches the expected JSON.
@@ -151,6 +188,43 @@ public class ControllerStudentTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(students)));
     }
 
+    /**
+     * Tests the endpoint to retrieve one page of students with a continuation token.
+     * Verifies the page is returned as a list and the next token is sent in a header.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testFindAllPaged() throws Exception {
+        List<Student> students = Collections.singletonList(sampleStudent);
+        given(studentService.findAll("token", 1)).willReturn(new StudentPage(students, "next"));
+        mockMvc.perform(get("/students/all?limit=1&pageToken=token"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Page-Token", "next"))
+                .andExpect(content().json(objectMapper.writeValueAsString(students)));
+    }
+
+    /**
+     * Tests the endpoint for streaming all students as newline-delimited JSON.
+     * Verifies each student is written on its own line.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testStreamAll() throws Exception {
+        given(studentService.streamAll()).willReturn(Stream.of(sampleStudent, sampleStudent));
+
+        MvcResult result = mockMvc.perform(get("/students/stream").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String expectedLine = objectMapper.writeValueAsString(sampleStudent);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(expectedLine + "\n" + expectedLine + "\n"));
+    }
+
     /**
      * Tests an unspecified endpoint, simulating a GET request to retrieve a student by ID.
      * Verifies the response status is OK and the content matches the expected JSON.
@@ -165,6 +239,61 @@ public class ControllerStudentTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(sampleStudent)));
     }
 
+    /**
+     * Tests that retrieving a student by ID returns its version as the ETag,
+     * and that a matching If-None-Match header is answered with Not Modified.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testFindByIdETag() throws Exception {
+        given(studentService.findById("1")).willReturn(sampleStudent);
+        mockMvc.perform(get("/students/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+        mockMvc.perform(get("/students/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Tests the findById endpoint with a field projection.
+     * Verifies the requested fields are passed to the service and unfetched fields are omitted from the response.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testFindByIdWithFields() throws Exception {
+        Student projected = Student.builder().id("1").name("John Doe").version(3L)
+                .address(Address.builder().city("Anytown").build()).build();
+        given(studentService.findById("1", List.of("name", "address.city"))).willReturn(projected);
+
+        mockMvc.perform(get("/students/1").param("fields", "name,address.city"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.address.city").value("Anytown"))
+                .andExpect(jsonPath("$.address.street").doesNotExist())
+                .andExpect(jsonPath("$.email").doesNotExist());
+    }
+
+    /**
+     * Tests that a partial update with a stale If-Match header is rejected.
+     * Verifies the expected version is passed to the service and the response status is Precondition Failed.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testPartiallyUpdateStudentWithStaleETag() throws Exception {
+        given(studentService.partiallyUpdateStudent(eq("1"), any(Student.class), eq(2L)))
+                .willThrow(new PreconditionFailedException("Student", "1", 2L));
+
+        mockMvc.perform(patch("/students/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Jane Doe\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     /**
      * Tests the endpoint to find students whose names start with a given string.
      * Verifies the response status is OK and the content matches the expected JSON.
@@ -180,6 +309,81 @@ public class ControllerStudentTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(students)));
     }
 
+    /**
+     * Tests that a prefix search with ignoreCase uses the normalized name search,
+     * and that the derived name key is not part of the response.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testGetStudentStartWithIgnoreCase() throws Exception {
+        given(studentService.getStudentStartWithIgnoreCase("john", null)).willReturn(Collections.singletonList(sampleStudent));
+        mockMvc.perform(get("/students?name=john&ignoreCase=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(sampleStudent.getName()))
+                .andExpect(jsonPath("$[0].nameKey").doesNotExist());
+    }
+
+    /**
+     * Tests that a full-text search returns the hits with their scores and the next page token,
+     * and that blank search terms are rejected.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testSearch() throws Exception {
+        given(studentService.search("math", null, 1))
+                .willReturn(new StudentSearchPage(List.of(new StudentSearchHit(1.5, sampleStudent)), "next"));
+        mockMvc.perform(get("/students/search?q=math&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StudentController.NEXT_PAGE_TOKEN_HEADER, "next"))
+                .andExpect(jsonPath("$[0].score").value(1.5))
+                .andExpect(jsonPath("$[0].student.name").value(sampleStudent.getName()));
+        mockMvc.perform(get("/students/search?q= "))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that the per-course statistics are returned, and that the age histogram is computed
+     * for the requested boundaries.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testStatistics() throws Exception {
+        given(studentService.statsByCourse())
+                .willReturn(List.of(new StudentGroupStats("Math", 4, 3, 0.75, 3.2, 21.5)));
+        given(studentService.ageHistogram(List.of(18, 21, 25)))
+                .willReturn(List.of(new HistogramBucket(18, 21, 5), new HistogramBucket(21, 25, 2)));
+        mockMvc.perform(get("/students/stats/courses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].key").value("Math"))
+                .andExpect(jsonPath("$[0].students").value(4))
+                .andExpect(jsonPath("$[0].fullTimeRatio").value(0.75));
+        mockMvc.perform(get("/students/stats/ages?boundaries=18,21,25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].lowerBound").value(21))
+                .andExpect(jsonPath("$[1].students").value(2));
+    }
+
+    /**
+     * Tests that the enrollments per course are listed, and that a rebuild returns the recomputed counts.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testCourseEnrollments() throws Exception {
+        given(studentService.getCourseEnrollments()).willReturn(List.of(new CourseStats("Math", 12)));
+        given(studentService.rebuildCourseStats()).willReturn(List.of(new CourseStats("Math", 11)));
+        mockMvc.perform(get("/students/stats/enrollments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].course").value("Math"))
+                .andExpect(jsonPath("$[0].students").value(12));
+        mockMvc.perform(post("/students/stats/enrollments/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].students").value(11));
+    }
+
     /**
      * Tests the endpoint to retrieve students within a specified age range.
      * Verifies the response status is OK and the content matches the expected JSON.
@@ -204,7 +408,7 @@ public class ControllerStudentTest {
     @Test
     public void updateStudent_whenStudentExists_updatesStudentSuccessfully() throws Exception {
         given(studentService.findByIdOptional("1")).willReturn(Optional.of(sampleStudent));
-        given(studentService.updateStudent(eq("1"), any(Student.class))).willReturn(sampleStudent);
+        given(studentService.updateStudentDetails(eq("1"), any(Student.class), isNull())).willReturn(Optional.of(sampleStudent));
 
         UpdateStudentResponse expectedResponse = new UpdateStudentResponse("Student updated successfully with ID: 1", sampleStudent);
         String expectedJson = objectMapper.writeValueAsString(expectedResponse);
@@ -222,6 +426,23 @@ public class ControllerStudentTest {
         assertTrue(actualResponse.contains("Student updated successfully with ID: 1"));
     }
 
+    /**
+     * Tests updating a student's information when the student does not exist in the database.
+     * Verifies the response status is Not Found and no ETag is sent.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void updateStudent_whenStudentDoesNotExist_returnsNotFound() throws Exception {
+        given(studentService.updateStudentDetails(eq("2"), any(Student.class), isNull())).willReturn(Optional.empty());
+
+        mockMvc.perform(put("/students/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleStudent)))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
     /**
      * Tests the functionality for partially updating a student's information.
      * Verifies the response status is OK and the content indicates a successful partial update.
@@ -230,7 +451,7 @@ public class ControllerStudentTest {
      */
     @Test
     public void testPartiallyUpdateStudent() throws Exception {
-        given(studentService.partiallyUpdateStudent(eq("1"), any(Student.class))).willReturn(sampleStudent);
+        given(studentService.partiallyUpdateStudent(eq("1"), any(Student.class), isNull())).willReturn(sampleStudent);
 
         mockMvc.perform(patch("/students/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -250,5 +471,30 @@ public class ControllerStudentTest {
         mockMvc.perform(delete("/students/1"))
                 .andExpect(status().isNotFound());
     }
+
+    /**
+     * Tests the functionality to delete all students in an age range.
+     * Verifies the response reports the number of deleted students.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testDeleteMany() throws Exception {
+        given(studentService.deleteMany(isNull(), isNull(), eq(18), eq(22))).willReturn(4L);
+        mockMvc.perform(delete("/students?minAge=18&maxAge=22"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"deleted\": 4}"));
+    }
+
+    /**
+     * Tests that deleting students without any criterion is rejected.
+     *
+     * @throws Exception if the mockMvc.perform operation fails
+     */
+    @Test
+    public void testDeleteManyWithoutCriteria() throws Exception {
+        mockMvc.perform(delete("/students"))
+                .andExpect(status().isBadRequest());
+    }
 }
 
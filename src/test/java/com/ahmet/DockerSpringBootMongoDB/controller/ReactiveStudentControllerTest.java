@@ -0,0 +1,268 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.dto.BulkInsertResponse;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentChange;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentGroupStats;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentPage;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchHit;
+import com.ahmet.DockerSpringBootMongoDB.dto.StudentSearchPage;
+import com.ahmet.DockerSpringBootMongoDB.exception.PreconditionFailedException;
+import com.ahmet.DockerSpringBootMongoDB.exception.ResourceNotFoundException;
+import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import com.ahmet.DockerSpringBootMongoDB.service.ReactiveStudentService;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentChangeFeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Tests for the reactive Student Controller, active under the "reactive" profile.
+ * The service and the repository are mocked, so these tests run without a MongoDB instance.
+ */
+@WebFluxTest(controllers = ReactiveStudentController.class)
+@ActiveProfiles("reactive")
+public class ReactiveStudentControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveStudentService studentService;
+
+    @MockBean
+    private StudentChangeFeed studentChangeFeed;
+
+    @MockBean
+    private StudentRepository studentRepository; // Required by the startup data initializer
+
+    private Student sampleStudent;
+
+    /**
+     * Sets up a sample student used across multiple test methods.
+     */
+    @BeforeEach
+    public void setUp() {
+        sampleStudent = Student.builder()
+                .id("1")
+                .name("John Doe")
+                .email("john.doe@example.com")
+                .address(Address.builder().city("Anytown").build())
+                .age(20)
+                .version(3L)
+                .build();
+    }
+
+    /**
+     * Tests that a student is returned with its version as the ETag, and that a matching
+     * If-None-Match header is answered with Not Modified.
+     */
+    @Test
+    public void testFindById() {
+        given(studentService.findById("1", null)).willReturn(Mono.just(sampleStudent));
+
+        webTestClient.get().uri("/students/1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody().jsonPath("$.name").isEqualTo("John Doe");
+        webTestClient.get().uri("/students/1").header("If-None-Match", "\"3\"").exchange()
+                .expectStatus().isNotModified();
+    }
+
+    /**
+     * Tests that a missing student is answered with Not Found.
+     */
+    @Test
+    public void testFindByIdNotFound() {
+        given(studentService.findById("2", null)).willReturn(Mono.error(new ResourceNotFoundException("Student", "id", "2")));
+
+        webTestClient.get().uri("/students/2").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    /**
+     * Tests that students are streamed as newline-delimited JSON.
+     */
+    @Test
+    public void testStreamAll() {
+        given(studentService.findAll(null)).willReturn(Flux.just(sampleStudent, sampleStudent));
+
+        webTestClient.get().uri("/students/stream").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Student.class).hasSize(2);
+    }
+
+    /**
+     * Tests that a prefix search returns the matching students, or No Content if there are none.
+     */
+    @Test
+    public void testGetStudentStartWith() {
+        given(studentService.getStudentStartWith("John", null)).willReturn(Flux.just(sampleStudent));
+        given(studentService.getStudentStartWith("Nobody", null)).willReturn(Flux.empty());
+
+        webTestClient.get().uri("/students?name=John").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].name").isEqualTo("John Doe");
+        webTestClient.get().uri("/students?name=Nobody").exchange()
+                .expectStatus().isNoContent();
+    }
+
+    /**
+     * Tests that a paged request returns the continuation token in the response header.
+     */
+    @Test
+    public void testFindAllPaged() {
+        given(studentService.findAll(isNull(), eq(1), isNull()))
+                .willReturn(Mono.just(new StudentPage(List.of(sampleStudent), "next")));
+
+        webTestClient.get().uri("/students/all?limit=1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(StudentController.NEXT_PAGE_TOKEN_HEADER, "next")
+                .expectBody().jsonPath("$[0].id").isEqualTo("1");
+    }
+
+    /**
+     * Tests that a full-text search returns the hits with their scores, or No Content if there are none.
+     */
+    @Test
+    public void testSearch() {
+        given(studentService.search(eq("math"), isNull(), eq(50)))
+                .willReturn(Mono.just(new StudentSearchPage(List.of(new StudentSearchHit(1.5, sampleStudent)), null)));
+        given(studentService.search(eq("nothing"), isNull(), eq(50)))
+                .willReturn(Mono.just(new StudentSearchPage(Collections.emptyList(), null)));
+
+        webTestClient.get().uri("/students/search?q=math").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].score").isEqualTo(1.5)
+                .jsonPath("$[0].student.id").isEqualTo("1");
+        webTestClient.get().uri("/students/search?q=nothing").exchange()
+                .expectStatus().isNoContent();
+    }
+
+    /**
+     * Tests that per-city statistics are returned, or No Content if there are no students.
+     */
+    @Test
+    public void testStatsByCity() {
+        given(studentService.statsByCity())
+                .willReturn(Mono.just(List.of(new StudentGroupStats("Anytown", 2, 1, 0.5, 3.0, 20.0))));
+        given(studentService.statsByCourse()).willReturn(Mono.just(Collections.emptyList()));
+
+        webTestClient.get().uri("/students/stats/cities").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].key").isEqualTo("Anytown")
+                .jsonPath("$[0].fullTimeRatio").isEqualTo(0.5);
+        webTestClient.get().uri("/students/stats/courses").exchange()
+                .expectStatus().isNoContent();
+    }
+
+    /**
+     * Tests that changes are sent as server-sent events named after the operation with the resume token as id,
+     * and that the Last-Event-ID header of a reconnecting client is passed on as the resume token.
+     */
+    @Test
+    public void testChanges() {
+        given(studentChangeFeed.changes("8266A0")).willReturn(Flux.just(
+                new StudentChange("8266A1", "update", "1", null, null, Map.of("age", 21), List.of())));
+
+        List<ServerSentEvent<Map<String, Object>>> events = webTestClient.get().uri("/students/changes")
+                .header("Last-Event-ID", "8266A0")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() {})
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(1, events.size());
+        assertEquals("8266A1", events.get(0).id());
+        assertEquals("update", events.get(0).event());
+        assertEquals(Map.of("age", 21), events.get(0).data().get("updatedFields"));
+    }
+
+    /**
+     * Tests that a newline-delimited JSON body is passed to the bulk insert as a stream of students.
+     */
+    @Test
+    public void testBulkInsert() {
+        given(studentService.bulkInsert(any())).willAnswer(invocation -> {
+            Flux<Student> students = invocation.getArgument(0);
+            return students.count().map(count ->
+                    new BulkInsertResponse(count.intValue(), count.intValue(), 0, Collections.emptyList()));
+        });
+
+        webTestClient.post().uri("/students/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"A\"}\n{\"name\":\"B\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.received").isEqualTo(2)
+                .jsonPath("$.inserted").isEqualTo(2);
+    }
+
+    /**
+     * Tests that a partial update with a stale If-Match header is rejected with Precondition Failed.
+     */
+    @Test
+    public void testPartiallyUpdateStudentWithStaleETag() {
+        given(studentService.partiallyUpdateStudent(eq("1"), any(Student.class), eq(2L)))
+                .willReturn(Mono.error(new PreconditionFailedException("Student", "1", 2L)));
+
+        webTestClient.patch().uri("/students/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"Jane Doe\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    /**
+     * Tests that an update of a missing student is answered with Not Found instead of echoing the request.
+     */
+    @Test
+    public void testUpdateStudentNotFound() {
+        given(studentService.updateStudentDetails(eq("2"), any(Student.class), isNull())).willReturn(Mono.empty());
+
+        webTestClient.put().uri("/students/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"Jane Doe\"}")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().doesNotExist("ETag");
+    }
+
+    /**
+     * Tests that a bulk delete without any criterion is rejected with Bad Request.
+     */
+    @Test
+    public void testDeleteManyWithoutCriteria() {
+        webTestClient.delete().uri("/students").exchange()
+                .expectStatus().isBadRequest();
+    }
+}
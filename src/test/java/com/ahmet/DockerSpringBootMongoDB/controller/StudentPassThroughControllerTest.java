@@ -0,0 +1,152 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.AddressCodec;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentCodec;
+import com.ahmet.DockerSpringBootMongoDB.dto.RawStudentPage;
+import com.ahmet.DockerSpringBootMongoDB.exception.ResourceNotFoundException;
+import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentChangeFeed;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentService;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests the read endpoints of the Student Controller with {@code students.json.pass-through.enabled},
+ * where raw student documents are written by {@link RawStudentJsonHttpMessageConverter}.
+ * The service is mocked, so these tests run without a MongoDB instance.
+ */
+@WebMvcTest(controllers = StudentController.class)
+@Import(RawStudentJsonHttpMessageConverter.class)
+@TestPropertySource(properties = "students.json.pass-through.enabled=true")
+public class StudentPassThroughControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudentService studentService;
+
+    @MockBean
+    private StudentChangeFeed studentChangeFeed;
+
+    @MockBean
+    private StudentRepository studentRepository; // Required by the startup data initializer
+
+    private final StudentCodec studentCodec = new StudentCodec(new AddressCodec());
+    private String id;
+    private RawBsonDocument document;
+
+    /**
+     * Sets up a stored student document with every field set.
+     */
+    @BeforeEach
+    public void setUp() {
+        Student student = new Student("John Doe", "john.doe@example.com", new Address("1 Main St", "Anytown", 12345),
+                20, List.of("Math"), true, 3.5, LocalDateTime.of(2027, 6, 30, 12, 0), LocalDateTime.of(2023, 9, 1, 9, 30));
+        id = new ObjectId().toHexString();
+        student.setId(id);
+        student.setVersion(3L);
+        document = new RawBsonDocument(student, studentCodec);
+    }
+
+    /**
+     * Tests that a student is written from its document with its version as the ETag, and that a matching
+     * If-None-Match header is answered with Not Modified.
+     */
+    @Test
+    public void testFindById() throws Exception {
+        given(studentService.findRawById(id, null)).willReturn(document);
+
+        mockMvc.perform(get("/students/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.address.postcode").value(12345))
+                .andExpect(jsonPath("$.graduationDate").value("2027-06-30T12:00:00"))
+                .andExpect(jsonPath("$._id").doesNotExist())
+                .andExpect(jsonPath("$.nameKey").doesNotExist())
+                .andExpect(jsonPath("$._class").doesNotExist());
+        mockMvc.perform(get("/students/{id}", id).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified());
+    }
+
+    /**
+     * Tests that the requested fields are passed on and a missing student is answered with Not Found.
+     */
+    @Test
+    public void testFindByIdWithFieldsNotFound() throws Exception {
+        given(studentService.findRawById("missing", List.of("name")))
+                .willThrow(new ResourceNotFoundException("Student", "id", "missing"));
+
+        mockMvc.perform(get("/students/missing").param("fields", "name"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Tests that a page is written as a JSON array with its continuation token in the header.
+     */
+    @Test
+    public void testFindAllPaged() throws Exception {
+        given(studentService.findAllRaw(isNull(), eq(2), isNull()))
+                .willReturn(new RawStudentPage(List.of(document, document), "next"));
+
+        mockMvc.perform(get("/students/all").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StudentController.NEXT_PAGE_TOKEN_HEADER, "next"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(id));
+    }
+
+    /**
+     * Tests that an unpaged list is written without a continuation token, and an empty one as No Content.
+     */
+    @Test
+    public void testUnpagedLists() throws Exception {
+        given(studentService.getStudentStartWithRaw("John", true, null)).willReturn(List.of(document));
+        given(studentService.getByPersonAgeRaw(30, 40, null)).willReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/students").param("name", "John").param("ignoreCase", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StudentController.NEXT_PAGE_TOKEN_HEADER))
+                .andExpect(jsonPath("$[0].name").value("John Doe"));
+        mockMvc.perform(get("/students/age").param("minAge", "30").param("maxAge", "40"))
+                .andExpect(status().isNoContent());
+    }
+
+    /**
+     * Tests that the last page of an age range is written without a continuation token.
+     */
+    @Test
+    public void testAgeRangeLastPage() throws Exception {
+        given(studentService.getByPersonAgeRaw(18, 25, "token", 50, null))
+                .willReturn(new RawStudentPage(List.of(document), null));
+
+        mockMvc.perform(get("/students/age").param("minAge", "18").param("maxAge", "25").param("pageToken", "token"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StudentController.NEXT_PAGE_TOKEN_HEADER))
+                .andExpect(jsonPath("$[0].age").value(20));
+    }
+}
@@ -0,0 +1,119 @@
+package com.ahmet.DockerSpringBootMongoDB.controller;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.repository.StudentRepository;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentCache;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentChangeFeed;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentOutbox;
+import com.ahmet.DockerSpringBootMongoDB.service.StudentServiceImp;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests how the {@code fields} parameter of the Student Controller becomes the projection of the MongoDB query,
+ * through the real {@link StudentServiceImp}.
+ * The templates and repositories are mocked, so these tests run without a MongoDB instance.
+ */
+@WebMvcTest(controllers = StudentController.class)
+@Import({StudentServiceImp.class, StudentProjectionControllerTest.MongoMocks.class})
+public class StudentProjectionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("listMongoTemplate")
+    private MongoTemplate listMongoTemplate;
+
+    @MockBean
+    private StudentCache studentCache;
+
+    @MockBean
+    private StudentOutbox studentOutbox;
+
+    @MockBean
+    private StudentChangeFeed studentChangeFeed;
+
+    @MockBean
+    private StudentRepository studentRepository; // Required by the startup data initializer
+
+    /**
+     * Tests that a path whose parent is also requested is left out of the projection,
+     * so MongoDB does not reject it as a path collision and the whole parent is returned.
+     */
+    @Test
+    public void testOverlappingFields() throws Exception {
+        Student student = Student.builder().id("1").name("John Doe")
+                .address(Address.builder().street("1 Main St").city("Anytown").build()).version(3L).build();
+        given(listMongoTemplate.find(any(Query.class), eq(Student.class))).willReturn(List.of(student));
+
+        mockMvc.perform(get("/students").param("name", "John").param("fields", "address.city,name,address"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].address.street").value("1 Main St"))
+                .andExpect(jsonPath("$[0].address.city").value("Anytown"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        then(listMongoTemplate).should().find(query.capture(), eq(Student.class));
+        assertEquals(new Document("name", 1).append("address", 1).append("version", 1), query.getValue().getFieldsObject());
+    }
+
+    /**
+     * Tests that an unknown field is answered with Bad Request without querying MongoDB.
+     */
+    @Test
+    public void testUnknownField() throws Exception {
+        mockMvc.perform(get("/students").param("name", "John").param("fields", "address.country"))
+                .andExpect(status().isBadRequest());
+
+        then(listMongoTemplate).should(never()).find(any(Query.class), eq(Student.class));
+    }
+
+    /**
+     * Declares the primary and list templates and the list repository the service is wired with, as MongoDbConfig does.
+     */
+    @TestConfiguration
+    static class MongoMocks {
+
+        @Bean
+        @Primary
+        MongoTemplate mongoTemplate() {
+            return mock(MongoTemplate.class);
+        }
+
+        @Bean
+        MongoTemplate listMongoTemplate() {
+            return mock(MongoTemplate.class);
+        }
+
+        @Bean
+        StudentRepository listStudentRepository() {
+            return mock(StudentRepository.class);
+        }
+    }
+}
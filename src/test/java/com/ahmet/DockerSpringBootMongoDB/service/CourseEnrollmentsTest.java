@@ -0,0 +1,84 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the changes in enrollments {@link CourseEnrollments} computes and the {@code $inc} upserts it builds from them.
+ * These tests run without a MongoDB instance.
+ */
+public class CourseEnrollmentsTest {
+
+    /**
+     * Tests that a change of courses adds the new courses, removes the dropped ones and leaves out the kept ones.
+     */
+    @Test
+    public void testDelta() {
+        assertEquals(Map.of("History", -1L, "Art", 1L),
+                CourseEnrollments.delta(List.of("Math", "History"), List.of("Art", "Math")));
+        assertEquals(Map.of(), CourseEnrollments.delta(List.of("Math"), List.of("Math")));
+    }
+
+    /**
+     * Tests that a created student only adds its courses and a deleted student only removes them.
+     */
+    @Test
+    public void testDeltaOfCreateAndDelete() {
+        assertEquals(Map.of("Math", 1L, "History", 1L), CourseEnrollments.delta(null, List.of("Math", "History")));
+        assertEquals(Map.of("Math", -1L), CourseEnrollments.delta(List.of("Math"), null));
+        assertEquals(Map.of(), CourseEnrollments.delta(null, null));
+    }
+
+    /**
+     * Tests that a student counts once per distinct course and that null courses are ignored.
+     */
+    @Test
+    public void testDuplicateAndNullCourses() {
+        assertEquals(Map.of("Math", 1L), CourseEnrollments.delta(List.of(), Arrays.asList("Math", null, "Math")));
+        assertEquals(Map.of("History", -1L),
+                CourseEnrollments.delta(Arrays.asList("Math", "History", "History"), Arrays.asList(null, "Math")));
+    }
+
+    /**
+     * Tests that the changes of several added or removed students are summed per course,
+     * including students without courses.
+     */
+    @Test
+    public void testDeltaOf() {
+        List<Student> students = List.of(
+                Student.builder().courses(List.of("Math", "History")).build(),
+                Student.builder().courses(List.of("Math", "Math")).build(),
+                Student.builder().build());
+
+        assertEquals(Map.of("Math", 2L, "History", 1L), CourseEnrollments.deltaOf(students, 1));
+        assertEquals(Map.of("Math", -2L, "History", -1L), CourseEnrollments.deltaOf(students, -1));
+        assertEquals(Map.of(), CourseEnrollments.deltaOf(List.of(), -1));
+    }
+
+    /**
+     * Tests that each changed course gets one upsert incrementing its count, and that only a change
+     * removing enrollments may leave empty courses behind.
+     */
+    @Test
+    public void testIncrements() {
+        List<Pair<Query, Update>> increments = CourseEnrollments.increments(Map.of("Math", -2L));
+
+        assertEquals(1, increments.size());
+        assertEquals(new Document("course", "Math"), increments.get(0).getFirst().getQueryObject());
+        assertEquals(new Document("$inc", new Document("students", -2L)), increments.get(0).getSecond().getUpdateObject());
+        assertTrue(CourseEnrollments.removesEnrollments(Map.of("Math", -2L, "Art", 1L)));
+        assertFalse(CourseEnrollments.removesEnrollments(Map.of("Art", 1L)));
+    }
+}
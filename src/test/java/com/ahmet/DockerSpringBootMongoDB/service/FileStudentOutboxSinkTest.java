@@ -0,0 +1,99 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the {@link FileStudentOutboxSink} writes every batch once, to a file that is either complete or absent.
+ * These tests run without a MongoDB instance.
+ */
+public class FileStudentOutboxSinkTest {
+
+    @TempDir
+    private Path directory;
+
+    private ObjectMapper objectMapper;
+    private List<StudentOutboxEvent> events;
+
+    /**
+     * Sets up an object mapper able to write the event times and a batch of two events.
+     */
+    @BeforeEach
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        Student student = Student.builder().id("1").name("Jane").build();
+        events = List.of(
+                new StudentOutboxEvent("event-1", StudentOutboxEvents.SAVED, "1", student, Instant.now(), "b1", null),
+                new StudentOutboxEvent("event-2", StudentOutboxEvents.DELETED, "2", null, Instant.now(), "b1", null));
+    }
+
+    /**
+     * Tests that a batch is written as one JSON line per event, in order, and no temporary file is left.
+     */
+    @Test
+    public void testDeliver() throws IOException {
+        new FileStudentOutboxSink(directory.resolve("outbox"), objectMapper).deliver("b1", events);
+
+        Path file = directory.resolve("outbox").resolve("students-b1.ndjson");
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertEquals("saved", objectMapper.readTree(lines.get(0)).get("type").asText());
+        assertEquals("2", objectMapper.readTree(lines.get(1)).get("studentId").asText());
+        try (var files = Files.list(directory.resolve("outbox"))) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    /**
+     * Tests that a batch delivered again leaves the file of its first delivery untouched.
+     */
+    @Test
+    public void testSkipsDeliveredBatch() throws IOException {
+        Path file = directory.resolve("students-b1.ndjson");
+        Files.writeString(file, "first delivery\n");
+
+        new FileStudentOutboxSink(directory, objectMapper).deliver("b1", events);
+
+        assertEquals("first delivery\n", Files.readString(file));
+    }
+
+    /**
+     * Tests that a batch failing half way leaves no batch file behind, so its next delivery writes it completely.
+     */
+    @Test
+    public void testFailedBatchLeavesNoFile() throws IOException {
+        ObjectMapper failingMapper = new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                if (value == events.get(1)) {
+                    throw new JsonMappingException(null, "Cannot write event");
+                }
+                return objectMapper.writeValueAsBytes(value);
+            }
+        };
+        Path file = directory.resolve("students-b1.ndjson");
+
+        assertThrows(UncheckedIOException.class, () -> new FileStudentOutboxSink(directory, failingMapper).deliver("b1", events));
+        assertFalse(Files.exists(file));
+
+        new FileStudentOutboxSink(directory, objectMapper).deliver("b1", events);
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+}
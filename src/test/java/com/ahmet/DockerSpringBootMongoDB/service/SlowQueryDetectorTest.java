@@ -0,0 +1,154 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.dto.SlowQuery;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the query shapes and the ring buffer of the {@link SlowQueryDetector}, fed with driver command events.
+ * Explain is disabled, so these tests run without a MongoDB instance.
+ */
+public class SlowQueryDetectorTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+    private static final String SESSION = ", \"$db\": \"school\", \"lsid\": {\"id\": 1}, \"txnNumber\": 3, "
+            + "\"readConcern\": {\"level\": \"majority\"}, \"writeConcern\": {\"w\": 1}, \"maxTimeMS\": 1000";
+
+    private SlowQueryDetector detector;
+    private int requestId;
+
+    /**
+     * Stops the explain thread of the detector.
+     */
+    @AfterEach
+    public void tearDown() {
+        if (detector != null) {
+            detector.shutdown();
+        }
+    }
+
+    /**
+     * Tests that filter values, nested clauses included, become placeholders while sort, projection and limit are kept.
+     */
+    @Test
+    public void testShapeOfFind() {
+        BsonDocument command = BsonDocument.parse("{\"find\": \"students\", "
+                + "\"filter\": {\"age\": {\"$gt\": 18, \"$lt\": 25}, \"$or\": [{\"name\": \"Jane\"}, "
+                + "{\"courses\": {\"$in\": [\"Math\", \"History\"]}, \"address.city\": {\"$regex\": \"^A\"}}]}, "
+                + "\"sort\": {\"_id\": 1}, \"projection\": {\"name\": 1}, \"limit\": 50, \"batchSize\": 10" + SESSION + "}");
+
+        assertEquals(BsonDocument.parse("{\"filter\": {\"age\": {\"$gt\": \"?\", \"$lt\": \"?\"}, \"$or\": [{\"name\": \"?\"}, "
+                        + "{\"courses\": {\"$in\": \"?\"}, \"address.city\": {\"$regex\": \"?\"}}]}, "
+                        + "\"sort\": {\"_id\": 1}, \"projection\": {\"name\": 1}, \"limit\": 50}"),
+                SlowQueryDetector.shape(command));
+    }
+
+    /**
+     * Tests that each stage of a pipeline and each statement of an update keep their structure.
+     */
+    @Test
+    public void testShapeOfPipelineAndUpdate() {
+        BsonDocument aggregate = BsonDocument.parse("{\"aggregate\": \"students\", \"pipeline\": ["
+                + "{\"$match\": {\"age\": {\"$gte\": 18}}}, {\"$unwind\": \"$courses\"}, "
+                + "{\"$group\": {\"_id\": \"$courses\", \"students\": {\"$sum\": 1}}}], \"cursor\": {}}");
+        assertEquals(BsonDocument.parse("{\"pipeline\": [{\"$match\": {\"age\": {\"$gte\": \"?\"}}}, {\"$unwind\": \"?\"}, "
+                        + "{\"$group\": {\"_id\": \"?\", \"students\": {\"$sum\": \"?\"}}}]}"),
+                SlowQueryDetector.shape(aggregate));
+
+        BsonDocument update = BsonDocument.parse("{\"update\": \"students\", \"updates\": ["
+                + "{\"q\": {\"_id\": {\"$oid\": \"65f0c0ffee0000000000000a\"}, \"version\": 3}, "
+                + "\"u\": {\"$set\": {\"name\": \"Jane\"}, \"$inc\": {\"version\": 1}}}], \"ordered\": true}");
+        assertEquals(BsonDocument.parse("{\"updates\": [{\"q\": {\"_id\": \"?\", \"version\": \"?\"}, "
+                        + "\"u\": {\"$set\": {\"name\": \"?\"}, \"$inc\": {\"version\": \"?\"}}}]}"),
+                SlowQueryDetector.shape(update));
+    }
+
+    /**
+     * Tests that only the fields the shape and explain need are kept from a started command.
+     */
+    @Test
+    public void testRetain() {
+        BsonDocument command = BsonDocument.parse("{\"findAndModify\": \"students\", \"query\": {\"_id\": 1}, "
+                + "\"fields\": {\"courses\": 1}, \"update\": {\"$set\": {\"age\": 21}}, \"new\": false, \"upsert\": true, "
+                + "\"bypassDocumentValidation\": false" + SESSION + "}");
+
+        assertEquals(BsonDocument.parse("{\"findAndModify\": \"students\", \"query\": {\"_id\": 1}, "
+                        + "\"fields\": {\"courses\": 1}, \"update\": {\"$set\": {\"age\": 21}}, \"new\": false, \"upsert\": true}"),
+                SlowQueryDetector.retain("findAndModify", command));
+    }
+
+    /**
+     * Tests that slow queries are recorded most recent first and the oldest is dropped once the buffer is full.
+     */
+    @Test
+    public void testRingBuffer() {
+        detector = detector(Duration.ZERO, 2);
+
+        run("find", "{\"find\": \"students\", \"filter\": {\"name\": \"Jane\"}}", 5);
+        run("count", "{\"count\": \"students\", \"query\": {\"age\": 20}}", 7);
+        run("aggregate", "{\"aggregate\": \"course_stats\", \"pipeline\": [], \"cursor\": {}}", 9);
+
+        List<SlowQuery> slowQueries = detector.getSlowQueries();
+        assertEquals(List.of("aggregate", "count"), slowQueries.stream().map(SlowQuery::getCommand).toList());
+        assertEquals("course_stats", slowQueries.get(0).getCollection());
+        assertEquals(9, slowQueries.get(0).getDurationMillis());
+        assertEquals("{\"query\": {\"age\": \"?\"}}", slowQueries.get(1).getShape());
+        assertNull(slowQueries.get(1).getPlan());
+
+        detector.clear();
+        assertTrue(detector.getSlowQueries().isEmpty());
+    }
+
+    /**
+     * Tests that fast queries and commands other than queries are not recorded, and that failed queries are.
+     */
+    @Test
+    public void testThreshold() {
+        detector = detector(Duration.ofMillis(100), 10);
+
+        run("find", "{\"find\": \"students\", \"filter\": {}}", 99);
+        run("insert", "{\"insert\": \"students\", \"documents\": [{\"name\": \"Jane\"}]}", 500);
+        assertTrue(detector.getSlowQueries().isEmpty());
+
+        int id = ++requestId;
+        detector.commandStarted(new CommandStartedEvent(null, 1, id, CONNECTION, "school", "find",
+                BsonDocument.parse("{\"find\": \"students\", \"filter\": {\"gpa\": 3.5}}")));
+        detector.commandFailed(new CommandFailedEvent(null, 1, id, CONNECTION, "school", "find",
+                TimeUnit.MILLISECONDS.toNanos(100), new IllegalStateException("operation exceeded time limit")));
+        assertEquals(1, detector.getSlowQueries().size());
+        assertEquals("{\"filter\": {\"gpa\": \"?\"}}", detector.getSlowQueries().get(0).getShape());
+    }
+
+    private SlowQueryDetector detector(Duration threshold, int capacity) {
+        return new SlowQueryDetector(true, threshold, capacity, false,
+                new StaticListableBeanFactory().getBeanProvider(MongoTemplate.class));
+    }
+
+    private void run(String commandName, String command, long elapsedMillis) {
+        int id = ++requestId;
+        detector.commandStarted(new CommandStartedEvent(null, 1, id, CONNECTION, "school", commandName,
+                BsonDocument.parse(command)));
+        detector.commandSucceeded(new CommandSucceededEvent(null, 1, id, CONNECTION, "school", commandName,
+                new BsonDocument("ok", new BsonDouble(1)), TimeUnit.MILLISECONDS.toNanos(elapsedMillis)));
+    }
+}
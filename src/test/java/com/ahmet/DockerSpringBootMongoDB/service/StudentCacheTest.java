@@ -0,0 +1,145 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the read-through, invalidation and weighing of the {@link StudentCache}.
+ * These tests run without a MongoDB instance.
+ */
+public class StudentCacheTest {
+
+    private static final long MAXIMUM_WEIGHT = 1 << 20;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Student student;
+    private AtomicInteger loads;
+    private Function<String, Optional<Student>> loader;
+
+    /**
+     * Sets up a student and a loader that counts how often the database would be read.
+     */
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        student = Student.builder().id("1").name("Jane").build();
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return "1".equals(id) ? Optional.of(student) : Optional.empty();
+        };
+    }
+
+    /**
+     * Tests that a student is loaded once and then read from the cache.
+     */
+    @Test
+    public void testReadThrough() {
+        StudentCache cache = cache(true, Duration.ofMinutes(1));
+
+        assertEquals(Optional.of(student), cache.get("1", loader));
+        assertEquals(Optional.of(student), cache.get("1", loader));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "students").tag("result", "hit").functionCounter().count());
+        assertTrue(cache.contains("1"));
+    }
+
+    /**
+     * Tests that a missing student is not cached, so it is found once it is created.
+     */
+    @Test
+    public void testMissingStudentIsNotCached() {
+        StudentCache cache = cache(true, Duration.ofMinutes(1));
+
+        assertEquals(Optional.empty(), cache.get("2", loader));
+        assertEquals(Optional.empty(), cache.get("2", loader));
+        assertEquals(2, loads.get());
+        assertFalse(cache.contains("2"));
+    }
+
+    /**
+     * Tests that an invalidated student, and every student after invalidating all, is loaded again.
+     */
+    @Test
+    public void testInvalidate() {
+        StudentCache cache = cache(true, Duration.ofMinutes(1));
+        cache.get("1", loader);
+
+        cache.invalidate("1");
+        assertFalse(cache.contains("1"));
+        cache.get("1", loader);
+        assertEquals(2, loads.get());
+
+        cache.invalidateAll();
+        assertFalse(cache.contains("1"));
+        cache.get("1", loader);
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * Tests that an expired student is loaded again.
+     */
+    @Test
+    public void testExpiry() {
+        StudentCache cache = cache(true, Duration.ofNanos(1));
+
+        cache.get("1", loader);
+        cache.get("1", loader);
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Tests that a disabled cache loads every read and holds nothing.
+     */
+    @Test
+    public void testDisabled() {
+        StudentCache cache = cache(false, Duration.ofMinutes(1));
+
+        cache.get("1", loader);
+        cache.get("1", loader);
+        assertEquals(2, loads.get());
+        assertFalse(cache.contains("1"));
+    }
+
+    /**
+     * Tests that a student is weighed by the strings, address, courses and dates it holds.
+     */
+    @Test
+    public void testEstimateSize() {
+        assertEquals(128, StudentCache.estimateSize(new Student()));
+        assertEquals(128 + (40 + 1) + (40 + 4), StudentCache.estimateSize(student));
+
+        Student full = new Student("Jane", "jane@example.com", new Address("1 Main St", "Anytown", 12345), 21,
+                List.of("Math", "History"), true, 3.5, LocalDateTime.now(), LocalDateTime.now());
+        full.setId("1");
+        int expected = 128 + (40 + 1) + (40 + 4) + (40 + 16)
+                + 32 + (40 + 9) + (40 + 7)
+                + 32 + (8 + 40 + 4) + (8 + 40 + 7)
+                + 48 + 48;
+        assertEquals(expected, StudentCache.estimateSize(full));
+    }
+
+    private StudentCache cache(boolean enabled, Duration ttl) {
+        ObjectProvider<MeterRegistry> registry = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                .getBeanProvider(MeterRegistry.class);
+        return new StudentCache(enabled, MAXIMUM_WEIGHT, ttl, registry);
+    }
+}
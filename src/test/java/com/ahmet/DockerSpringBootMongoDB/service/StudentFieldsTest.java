@@ -0,0 +1,69 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.Address;
+import com.ahmet.DockerSpringBootMongoDB.collection.Student;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the updates {@link StudentFields} builds for POST, PUT and PATCH.
+ * These tests run without a MongoDB instance.
+ */
+public class StudentFieldsTest {
+
+    /**
+     * Tests that a replacing update sets the address as a whole subdocument, so a PUT drops address fields it omits.
+     */
+    @Test
+    public void testReplacingUpdateSetsWholeAddress() {
+        Address address = Address.builder().city("Othertown").build();
+        Student student = Student.builder().id("1").name("Jane").address(address).build();
+
+        Document set = StudentFields.toSetUpdate(student, false).getUpdateObject().get("$set", Document.class);
+
+        assertEquals(new Document("name", "Jane").append("address", address).append("nameKey", student.getNameKey()), set);
+    }
+
+    /**
+     * Tests that a merging update sets each non-null address field through a dotted path, so a PATCH keeps
+     * the other stored address fields.
+     */
+    @Test
+    public void testMergingUpdateSetsAddressFields() {
+        Student student = Student.builder().age(21).address(Address.builder().city("Othertown").postcode(54321).build()).build();
+
+        Document set = StudentFields.toSetUpdate(student, true).getUpdateObject().get("$set", Document.class);
+
+        assertEquals(new Document("address.city", "Othertown").append("address.postcode", 54321).append("age", 21), set);
+    }
+
+    /**
+     * Tests that a replacing upsert sets the given fields, the address as a whole, and unsets every other field,
+     * so a POST with the id of a stored student leaves no field of the previous student behind.
+     */
+    @Test
+    public void testReplaceUpdate() {
+        Address address = Address.builder().city("Othertown").build();
+        Student student = Student.builder().id("1").name("Jane").address(address).age(21).build();
+
+        Document update = StudentFields.toReplaceUpdate(student).getUpdateObject();
+
+        assertEquals(new Document("name", "Jane").append("address", address).append("age", 21)
+                .append("nameKey", student.getNameKey()), update.get("$set"));
+        assertEquals(List.of("email", "courses", "fullTime", "gpa", "graduationDate", "registerDate"),
+                List.copyOf(update.get("$unset", Document.class).keySet()));
+    }
+
+    /**
+     * Tests that a student without any field set gives an update without modifiers.
+     */
+    @Test
+    public void testEmptyUpdate() {
+        assertTrue(StudentFields.toSetUpdate(new Student(), false).getUpdateObject().isEmpty());
+    }
+}
@@ -0,0 +1,40 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.mongodb.MongoException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests which errors {@link StudentOutboxEvents} considers transient, so the outbox retries the transaction that raised them.
+ * These tests run without a MongoDB instance.
+ */
+public class StudentOutboxEventsTest {
+
+    /**
+     * Tests that an error labelled as a transient transaction error is transient, also when Spring wrapped it.
+     */
+    @Test
+    public void testTransientError() {
+        MongoException writeConflict = new MongoException(112, "WriteConflict");
+        writeConflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+
+        assertTrue(StudentOutboxEvents.isTransient(writeConflict));
+        assertTrue(StudentOutboxEvents.isTransient(new UncategorizedMongoDbException("Write conflict", writeConflict)));
+    }
+
+    /**
+     * Tests that errors without the label are not transient, so they are not retried.
+     */
+    @Test
+    public void testPermanentError() {
+        MongoException duplicateKey = new MongoException(11000, "E11000 duplicate key error");
+        duplicateKey.addLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL);
+
+        assertFalse(StudentOutboxEvents.isTransient(duplicateKey));
+        assertFalse(StudentOutboxEvents.isTransient(new UncategorizedMongoDbException("Duplicate key", duplicateKey)));
+        assertFalse(StudentOutboxEvents.isTransient(new IllegalStateException("Not a MongoDB error")));
+    }
+}
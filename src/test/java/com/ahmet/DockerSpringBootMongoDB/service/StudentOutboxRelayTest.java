@@ -0,0 +1,129 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import com.ahmet.DockerSpringBootMongoDB.collection.StudentOutboxEvent;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests how the {@link StudentOutboxRelay} claims, delivers and removes batches of outbox events.
+ * The outbox collection is a list behind a mocked MongoTemplate, so these tests run without a MongoDB instance.
+ */
+public class StudentOutboxRelayTest {
+
+    private List<StudentOutboxEvent> outbox;
+    private List<String> deliveredBatches;
+    private List<List<String>> deliveredEvents;
+    private boolean sinkFails;
+    private StudentOutboxRelay relay;
+
+    /**
+     * Sets up a relay with batches of two events, reading and writing the outbox list through the mocked MongoTemplate,
+     * and a sink recording every delivery it accepts.
+     */
+    @BeforeEach
+    public void setUp() {
+        outbox = new ArrayList<>();
+        deliveredBatches = new ArrayList<>();
+        deliveredEvents = new ArrayList<>();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        given(mongoTemplate.find(any(Query.class), eq(StudentOutboxEvent.class))).willAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Object batch = query.getQueryObject().get("batch");
+            return outbox.stream()
+                    .filter(event -> batch == null ? event.getBatch() == null : batch.equals(event.getBatch()))
+                    .limit(query.getLimit() > 0 ? query.getLimit() : Long.MAX_VALUE)
+                    .toList();
+        });
+        given(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(StudentOutboxEvent.class))).willAnswer(invocation -> {
+            List<?> ids = invocation.<Query>getArgument(0).getQueryObject().get("id", Document.class).get("$in", List.class);
+            String batch = invocation.<Update>getArgument(1).getUpdateObject().get("$set", Document.class).getString("batch");
+            List<StudentOutboxEvent> claimed = outbox.stream()
+                    .filter(event -> ids.contains(event.getId()) && event.getBatch() == null)
+                    .toList();
+            claimed.forEach(event -> event.setBatch(batch));
+            return UpdateResult.acknowledged(claimed.size(), (long) claimed.size(), null);
+        });
+        given(mongoTemplate.remove(any(Query.class), eq(StudentOutboxEvent.class))).willAnswer(invocation -> {
+            Object batch = invocation.<Query>getArgument(0).getQueryObject().get("batch");
+            int before = outbox.size();
+            outbox.removeIf(event -> batch.equals(event.getBatch()));
+            return DeleteResult.acknowledged(before - outbox.size());
+        });
+        given(mongoTemplate.findDistinct(any(Query.class), anyString(), eq(StudentOutboxEvent.class), eq(String.class)))
+                .willReturn(List.of());
+        StudentOutboxSink sink = (batch, events) -> {
+            if (sinkFails) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            deliveredBatches.add(batch);
+            deliveredEvents.add(events.stream().map(StudentOutboxEvent::getStudentId).toList());
+        };
+        relay = new StudentOutboxRelay(mongoTemplate, sink, true, 2, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    /**
+     * Tests that pending events are claimed in batches, delivered in the order they were written
+     * and removed from the outbox once delivered.
+     */
+    @Test
+    public void testClaimDeliverAndRemove() {
+        write("1", "2", "3");
+
+        assertEquals(3, relay.flush());
+
+        assertEquals(List.of(List.of("1", "2"), List.of("3")), deliveredEvents);
+        assertTrue(deliveredBatches.get(0).compareTo(deliveredBatches.get(1)) < 0);
+        assertTrue(outbox.isEmpty());
+        assertEquals(0, relay.flush());
+    }
+
+    /**
+     * Tests that a batch the sink failed to store stays in the outbox and is delivered again with the same ID
+     * and the same events, before any batch claimed later.
+     */
+    @Test
+    public void testRedeliveryAfterSinkFailure() {
+        write("1", "2");
+        sinkFails = true;
+
+        assertThrows(IllegalStateException.class, relay::flush);
+        assertEquals(2, outbox.size());
+        String failedBatch = outbox.get(0).getBatch();
+        assertEquals(failedBatch, outbox.get(1).getBatch());
+
+        write("3");
+        sinkFails = false;
+        assertEquals(3, relay.flush());
+
+        assertEquals(failedBatch, deliveredBatches.get(0));
+        assertEquals(List.of(List.of("1", "2"), List.of("3")), deliveredEvents);
+        assertTrue(outbox.isEmpty());
+    }
+
+    private void write(String... studentIds) {
+        for (String studentId : studentIds) {
+            outbox.add(new StudentOutboxEvent("event-" + studentId, StudentOutboxEvents.DELETED, studentId, null,
+                    Instant.now(), null, null));
+        }
+    }
+}
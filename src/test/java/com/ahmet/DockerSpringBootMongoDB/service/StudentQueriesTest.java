@@ -0,0 +1,57 @@
+package com.ahmet.DockerSpringBootMongoDB.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the upper bound {@link StudentQueries} uses to match names by prefix as a range.
+ * These tests run without a MongoDB instance.
+ */
+public class StudentQueriesTest {
+
+    /**
+     * Tests that the last code point of the prefix is incremented, also when it is a supplementary character,
+     * and that the surrogate range is skipped.
+     */
+    @Test
+    public void testPrefixUpperBound() {
+        assertEquals("Joi", StudentQueries.prefixUpperBound("Joh"));
+        assertEquals("J\uD83D\uDE01", StudentQueries.prefixUpperBound("J\uD83D\uDE00"));
+        assertEquals("J\uE000", StudentQueries.prefixUpperBound("J\uD7FF"));
+        assertEquals("J\uD800\uDC00", StudentQueries.prefixUpperBound("J\uFFFF"));
+    }
+
+    /**
+     * Tests that trailing U+10FFFF is dropped before incrementing, and that a prefix without any other
+     * code point is bounded by U+10FFFF.
+     */
+    @Test
+    public void testPrefixUpperBoundOfLargestCodePoint() {
+        String max = Character.toString(Character.MAX_CODE_POINT);
+
+        assertEquals("K", StudentQueries.prefixUpperBound("J" + max + max));
+        assertEquals(max, StudentQueries.prefixUpperBound(max));
+        assertEquals(max, StudentQueries.prefixUpperBound(""));
+    }
+
+    /**
+     * Tests that names continuing with a supplementary character sort below the bound in MongoDB's UTF-8 byte order,
+     * where a bound of the prefix followed by U+FFFF would leave them out.
+     */
+    @Test
+    public void testBoundIncludesSupplementaryCharacters() {
+        String name = "Jo\uD83D\uDE00 Doe";
+
+        assertTrue(compareUtf8(name, StudentQueries.prefixUpperBound("Jo")) < 0);
+        assertTrue(compareUtf8(name, "Jo" + Character.MAX_VALUE) > 0);
+    }
+
+    private static int compareUtf8(String a, String b) {
+        return Arrays.compareUnsigned(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+    }
+}